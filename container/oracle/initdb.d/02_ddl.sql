@@ -47,6 +47,9 @@ CREATE TABLE PHASER_OWNER.RESULT
     CONSTRAINT RESULT_FK1 FOREIGN KEY (JOB_ID) REFERENCES PHASER_OWNER.JOB (JOB_ID) ON DELETE CASCADE
 );
 
+-- Covers the client's last correction delta query (correction_date >= ? group by cavity)
+CREATE INDEX PHASER_OWNER.RESULT_CORRECTION_DATE_IX ON PHASER_OWNER.RESULT (CORRECTION_DATE, CAVITY);
+
 -- PERMISSIONS
 
 grant select on phaser_owner.job to phaser_reader;
@@ -0,0 +1,77 @@
+package org.jlab.phaser;
+
+import java.math.BigInteger;
+import java.util.LinkedHashSet;
+import java.util.concurrent.CompletableFuture;
+import org.jlab.phaser.model.JobSpecification;
+
+/**
+ * A contract for classes to issue commands to the phaser server without waiting for the response.
+ *
+ * <p>Each method sends its command and returns immediately. The returned future completes when the
+ * server responds, by which time all notifications arising as a result have already been
+ * dispatched, or fails with a CommandException if the command could not be completed. Futures may
+ * complete on a network thread, so dependent actions which touch Swing components must hand off to
+ * the event dispatch thread.
+ */
+public interface AsyncPhaserServerConsole {
+
+  /**
+   * Returns the set of all cavities which are eligible for phasing. The set is ordered
+   * alphabetically, which happens to also be S-coordinate order (distance from injector).
+   *
+   * @return A future of the ordered set of cavities
+   */
+  public CompletableFuture<LinkedHashSet<String>> cavities();
+
+  /**
+   * Apply phase error corrections for the result IDs in the supplied array.
+   *
+   * @param resultIdArray The result ID array
+   * @return A future which completes once the corrections are applied
+   */
+  public CompletableFuture<Void> applyCorrections(BigInteger[] resultIdArray);
+
+  /**
+   * Starts the phasing process with the supplied job specification.
+   *
+   * @param job The job specification
+   * @return A future which completes once the phasing process has started
+   */
+  public CompletableFuture<Void> start(JobSpecification job);
+
+  /**
+   * Pause the phasing process.
+   *
+   * @return A future which completes once the phasing process is paused
+   */
+  public CompletableFuture<Void> pause();
+
+  /**
+   * Resume the phasing process.
+   *
+   * @return A future which completes once the phasing process has resumed
+   */
+  public CompletableFuture<Void> resume();
+
+  /**
+   * Fetch the server version from the server.
+   *
+   * @return A future of the server version string
+   */
+  public CompletableFuture<String> serverVersion();
+
+  /**
+   * Stop the phasing process.
+   *
+   * @return A future which completes once the phasing process has stopped
+   */
+  public CompletableFuture<Void> stop();
+
+  /**
+   * Skip phasing of the current cavity.
+   *
+   * @return A future which completes once the current cavity is skipped
+   */
+  public CompletableFuture<Void> skip();
+}
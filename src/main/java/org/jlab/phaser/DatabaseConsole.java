@@ -1,5 +1,7 @@
 package org.jlab.phaser;
 
+import java.io.IOException;
+import java.util.Collection;
 import java.util.LinkedHashSet;
 import org.jlab.phaser.exception.CommandException;
 import org.jlab.phaser.model.CavityWithLastCorrection;
@@ -36,6 +38,100 @@ public interface DatabaseConsole {
    */
   public JobPage jobs(JobFilter filter, Paginator paginator) throws CommandException;
 
+  /**
+   * Returns the number of phasing results matching the supplied filter.
+   *
+   * @param filter The filter
+   * @return The count
+   * @throws CommandException If unable to query the results
+   */
+  public long countResults(ResultFilter filter) throws CommandException;
+
+  /**
+   * Streams the phasing results matching the supplied filter, most recent first, to a handler one
+   * record at a time. Unlike the results method, the records are never all held in memory at once,
+   * which makes this suitable for exporting large result sets.
+   *
+   * @param filter The filter
+   * @param maxRecords The maximum number of records to stream
+   * @param handler The handler
+   * @return The number of records streamed
+   * @throws CommandException If unable to query the results
+   * @throws IOException If the handler is unable to handle a record
+   */
+  public long streamResults(ResultFilter filter, long maxRecords, ResultRecordHandler handler)
+      throws CommandException, IOException;
+
+  /**
+   * Streams the Phaser jobs matching the supplied filter, most recent first, to a handler one
+   * record at a time. Unlike the jobs method, the records bypass the page cache and are never all
+   * held in memory at once, which makes this suitable for exporting every job.
+   *
+   * @param filter The filter
+   * @param maxRecords The maximum number of records to stream
+   * @param handler The handler
+   * @return The number of records streamed
+   * @throws CommandException If unable to query the jobs
+   * @throws IOException If the handler is unable to handle a record
+   */
+  public long streamJobs(JobFilter filter, long maxRecords, JobRecordHandler handler)
+      throws CommandException, IOException;
+
+  /**
+   * Returns the phasing results for the supplied filter and paginator if they are already cached in
+   * memory, without querying the database.
+   *
+   * @param filter The filter
+   * @param paginator The paginator
+   * @return The cached phasing results or null if not cached
+   */
+  public ResultPage cachedResults(ResultFilter filter, Paginator paginator);
+
+  /**
+   * Returns the Phaser jobs for the supplied filter and paginator if they are already cached in
+   * memory, without querying the database.
+   *
+   * @param filter The filter
+   * @param paginator The paginator
+   * @return The cached Phaser jobs or null if not cached
+   */
+  public JobPage cachedJobs(JobFilter filter, Paginator paginator);
+
+  /**
+   * Speculatively queries the pages before and after the supplied page in the background so that
+   * browsing to them doesn't have to wait on the database. Pending prefetches for a different
+   * filter are cancelled.
+   *
+   * @param page The page being viewed
+   */
+  public void prefetchAdjacentResults(ResultPage page);
+
+  /**
+   * Speculatively queries the pages before and after the supplied page in the background so that
+   * browsing to them doesn't have to wait on the database. Pending prefetches for a different
+   * filter are cancelled.
+   *
+   * @param page The page being viewed
+   */
+  public void prefetchAdjacentJobs(JobPage page);
+
+  /**
+   * Discards any result and job pages the console has cached so that subsequent calls to results
+   * and jobs query the database. This should be called whenever the client learns that phaser
+   * results have changed.
+   */
+  public void invalidateCachedPages();
+
+  /**
+   * Returns the ID of the most recent Phaser job matching the supplied filter. This is the ID of
+   * the first job on the first page returned by the jobs method for the same filter.
+   *
+   * @param filter The filter
+   * @return The job ID or null if no jobs match
+   * @throws CommandException If unable to query the jobs
+   */
+  public Long mostRecentJobId(JobFilter filter) throws CommandException;
+
   /**
    * Queries the results database table for the most recent correction date of each cavity having
    * result data.
@@ -45,4 +141,12 @@ public interface DatabaseConsole {
    */
   public LinkedHashSet<CavityWithLastCorrection> cavitiesWithLastCorrection()
       throws CommandException;
+
+  /**
+   * Informs the console that phase corrections were just applied to the given cavities so that
+   * subsequent calls to cavitiesWithLastCorrection reflect them without a full re-query.
+   *
+   * @param cavities The names of the corrected cavities
+   */
+  public void correctionsApplied(Collection<String> cavities);
 }
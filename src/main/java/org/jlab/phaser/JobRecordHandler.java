@@ -0,0 +1,21 @@
+package org.jlab.phaser;
+
+import java.io.IOException;
+import org.jlab.phaser.model.JobRecord;
+
+/**
+ * A contract for classes which consume Phaser jobs one at a time as they are read from the
+ * database.
+ *
+ * <p>Handlers allow every job to be exported without holding every record in memory.
+ */
+public interface JobRecordHandler {
+
+  /**
+   * Handle the next job.
+   *
+   * @param record The job
+   * @throws IOException If unable to handle the job; streaming is stopped
+   */
+  public void handleJob(JobRecord record) throws IOException;
+}
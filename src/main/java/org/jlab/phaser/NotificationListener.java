@@ -1,7 +1,7 @@
 package org.jlab.phaser;
 
-import java.util.Calendar;
-import org.jlab.phaser.model.JobSpecification;
+import org.jlab.phaser.model.CavityNotification;
+import org.jlab.phaser.model.JobNotification;
 
 /**
  * A contract for classes interested in server notifications.
@@ -25,28 +25,12 @@ public interface NotificationListener {
   /**
    * Notification of a job change.
    *
-   * <p>If the job parameter is null then all associated parameters should also be null.
+   * <p>If there is no job then the notification is JobNotification.NONE, in which all fields are
+   * null.
    *
-   * @param job The PhaserJob
-   * @param jobId The job ID
-   * @param jobStart The job start date
-   * @param paused true if the job is paused, false otherwise
-   * @param loop The current loop number
-   * @param cavity The current cavity being phased
-   * @param cavityStart The start date of the current cavity
-   * @param progress The percent complete (0-100) of the current cavity
-   * @param label The progress label
+   * @param notification The job notification
    */
-  public void jobNotification(
-      JobSpecification job,
-      Long jobId,
-      Calendar jobStart,
-      Boolean paused,
-      Integer loop,
-      String cavity,
-      Calendar cavityStart,
-      Integer progress,
-      String label);
+  public void jobNotification(JobNotification notification);
 
   /**
    * Notification of paused / not paused state.
@@ -65,10 +49,9 @@ public interface NotificationListener {
   /**
    * Notification of the start of a new cavity phasing.
    *
-   * @param start The start date
-   * @param cavity The cavity name
+   * @param notification The cavity notification
    */
-  public void cavityNotification(Calendar start, String cavity);
+  public void cavityNotification(CavityNotification notification);
 
   /**
    * Notification of current cavity progress (or waiting progress). Progress is an integer between 0
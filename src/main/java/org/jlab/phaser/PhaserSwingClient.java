@@ -7,16 +7,19 @@ import io.netty.channel.socket.SocketChannel;
 import io.netty.channel.socket.nio.NioSocketChannel;
 import io.netty.handler.codec.DelimiterBasedFrameDecoder;
 import io.netty.handler.codec.Delimiters;
-import io.netty.handler.codec.string.StringDecoder;
-import io.netty.handler.codec.string.StringEncoder;
-import io.netty.util.CharsetUtil;
+import io.netty.handler.timeout.IdleStateHandler;
 import io.netty.util.internal.logging.InternalLoggerFactory;
 import io.netty.util.internal.logging.JdkLoggerFactory;
 import java.awt.EventQueue;
 import java.awt.Frame;
 import java.io.IOException;
 import java.io.InputStream;
+import java.net.InetSocketAddress;
+import java.nio.file.Paths;
+import java.util.LinkedHashSet;
 import java.util.Properties;
+import java.util.concurrent.CountDownLatch;
+import java.util.function.BiConsumer;
 import java.util.logging.Level;
 import java.util.logging.LogManager;
 import java.util.logging.Logger;
@@ -24,9 +27,17 @@ import org.jlab.phaser.db.OracleJdbcConsole;
 import org.jlab.phaser.exception.CommandException;
 import org.jlab.phaser.exception.InitializationException;
 import org.jlab.phaser.exception.ShutdownException;
+import org.jlab.phaser.export.ElogSpool;
+import org.jlab.phaser.export.LogbookSubmitter;
+import org.jlab.phaser.network.CoalescingNotificationDispatcher;
+import org.jlab.phaser.network.ConnectionListener;
+import org.jlab.phaser.network.DispatchQueue;
+import org.jlab.phaser.network.HeartbeatHandler;
+import org.jlab.phaser.network.JsonCommandEncoder;
 import org.jlab.phaser.network.JsonDecoder;
 import org.jlab.phaser.network.NettyJsonConsole;
 import org.jlab.phaser.network.PhaserClientMessageDecoder;
+import org.jlab.phaser.network.ReconnectingChannelManager;
 import org.jlab.phaser.swing.CavityCache;
 import org.jlab.phaser.swing.generated.MaydayFrame;
 import org.jlab.phaser.swing.generated.PhaserClientFrame;
@@ -52,8 +63,6 @@ public final class PhaserSwingClient {
 
   private final int MAX_FRAME_LENGTH = 1048576;
 
-  private volatile boolean userRequestedExit = false;
-
   /**
    * Instantiates a new PhaserSwingClient which is connected to the Phaser server at the specified
    * host and port.
@@ -66,13 +75,38 @@ public final class PhaserSwingClient {
    */
   public PhaserSwingClient(String host, int port)
       throws InterruptedException, InitializationException, ShutdownException {
-    final PhaserClientMessageDecoder phaserDecoder = new PhaserClientMessageDecoder();
-    NettyJsonConsole jobConsole = new NettyJsonConsole();
+    DispatchQueue dispatchQueue =
+        new DispatchQueue(
+            Integer.parseInt(CLIENT_PROPERTIES.getProperty("notification.queue-capacity", "1000")),
+            DispatchQueue.OverflowPolicy.valueOf(
+                CLIENT_PROPERTIES.getProperty("notification.overflow-policy", "DROP_OLDEST")));
+    final PhaserClientMessageDecoder phaserDecoder = new PhaserClientMessageDecoder(dispatchQueue);
+    final NettyJsonConsole jobConsole =
+        new NettyJsonConsole(
+            Long.parseLong(
+                CLIENT_PROPERTIES.getProperty(
+                    "server.command-deadline-millis",
+                    String.valueOf(NettyJsonConsole.DEFAULT_COMMAND_DEADLINE_MILLIS))));
+    final int heartbeatSeconds =
+        Integer.parseInt(CLIENT_PROPERTIES.getProperty("server.heartbeat-seconds", "10"));
     OracleJdbcConsole dbConsole = new OracleJdbcConsole();
+    dbConsole.warmUp();
     PhaserClientFrame frame = new PhaserClientFrame(jobConsole, dbConsole);
+    CoalescingNotificationDispatcher notificationDispatcher =
+        new CoalescingNotificationDispatcher(
+            frame,
+            Integer.parseInt(
+                CLIENT_PROPERTIES.getProperty("notification.max-frames-per-second", "20")));
+    ElogSpool elogSpool = createElogSpool();
+    frame.setElogSpool(elogSpool);
+    try {
+      elogSpool.start();
+    } catch (IOException e) {
+      throw new InitializationException("Unable to create eLog spool", e);
+    }
     MultiThreadIoEventLoopGroup workerGroup =
         new MultiThreadIoEventLoopGroup(NioIoHandler.newFactory());
-    Channel channel = null;
+    ReconnectingChannelManager connection = null;
     try {
       Bootstrap boot = new Bootstrap();
       boot.group(workerGroup);
@@ -86,40 +120,50 @@ public final class PhaserSwingClient {
               channel
                   .pipeline()
                   .addLast(
+                      new IdleStateHandler(0, 0, heartbeatSeconds),
                       new DelimiterBasedFrameDecoder(
                           MAX_FRAME_LENGTH, true, Delimiters.lineDelimiter()),
-                      new StringDecoder(CharsetUtil.UTF_8),
                       new JsonDecoder(),
-                      new StringEncoder(CharsetUtil.UTF_8),
-                      phaserDecoder);
+                      new JsonCommandEncoder(),
+                      phaserDecoder,
+                      new HeartbeatHandler(jobConsole));
             }
           });
 
-      phaserDecoder.addNotificationListener(frame);
+      phaserDecoder.addNotificationListener(notificationDispatcher);
+      // Delivers held notifications before the console completes the command they preceded
+      phaserDecoder.addResponseListener(notificationDispatcher);
       phaserDecoder.addResponseListener(jobConsole);
 
-      final ChannelFuture future = boot.connect(host, port).await();
+      connection =
+          new ReconnectingChannelManager(
+              boot,
+              InetSocketAddress.createUnresolved(host, port),
+              Long.parseLong(CLIENT_PROPERTIES.getProperty("server.reconnect-seconds", "1")) * 1000,
+              Long.parseLong(CLIENT_PROPERTIES.getProperty("server.reconnect-max-seconds", "30"))
+                  * 1000);
+
+      final ChannelFuture future = connection.connect();
 
       if (!future.isSuccess()) {
         throw new InitializationException("Unable to connect to server", future.cause());
       }
 
-      channel = future.channel();
+      jobConsole.setChannel(future.channel());
 
-      jobConsole.setChannel(channel);
+      final CountDownLatch exitLatch = new CountDownLatch(1);
 
       frame.addExitListener(
           new ExitListener() {
 
             @Override
             public void exit() {
-              userRequestedExit = true;
-              future.channel().close();
+              exitLatch.countDown();
             }
           });
 
       try {
-        String serverVersion = jobConsole.serverVersion();
+        String serverVersion = frame.getPhaserServerConsole().serverVersion();
         LOGGER.log(Level.FINEST, "Server version: {0}", serverVersion);
         frame.setServerVersion(serverVersion);
       } catch (CommandException e) {
@@ -128,37 +172,126 @@ public final class PhaserSwingClient {
 
       LOGGER.log(Level.FINEST, "Fetching cavities...");
       try {
-        CavityCache.setCavities(jobConsole.cavities());
+        CavityCache.setCavities(frame.getPhaserServerConsole().cavities());
       } catch (CommandException e) {
         throw new InitializationException("Unable to fetch cavity list from server", e);
       }
       LOGGER.log(Level.FINEST, "Done Fetching cavities");
 
+      connection.addConnectionListener(new ReconnectListener(jobConsole, frame));
+
       show(frame);
 
-      // Main thread waits here until connection is closed
-      channel.closeFuture().await();
+      // Main thread waits here until the user exits; lost connections are reestablished meanwhile
+      exitLatch.await();
 
-      if (!userRequestedExit) {
-        LOGGER.log(Level.SEVERE, "Connection to server was closed without user consent");
-        MaydayFrame mayday = new MaydayFrame("Connection to the server was closed unexpectedly");
-        show(mayday);
-      }
+      ChannelFuture closeFuture = connection.close();
 
-      if (!future.isSuccess()) {
+      if (closeFuture != null && !closeFuture.await().isSuccess()) {
         throw new ShutdownException(
-            "Unable to gracefully close connection to server", future.cause());
+            "Unable to gracefully close connection to server", closeFuture.cause());
       }
     } finally {
       // Should already be closed in all but a few odd cases (exceptions)
-      if (channel != null && channel.isOpen()) {
-        channel.close().awaitUninterruptibly();
+      if (connection != null) {
+        ChannelFuture closeFuture = connection.close();
+
+        if (closeFuture != null) {
+          closeFuture.awaitUninterruptibly();
+        }
       }
       workerGroup.shutdownGracefully();
+      dispatchQueue.close();
+      LOGGER.log(
+          Level.FINE,
+          "Notifications dropped by dispatch queue: {0}",
+          dispatchQueue.getDroppedCount());
+      notificationDispatcher.close();
+      LOGGER.log(Level.FINE, "Notifications: {0}", notificationDispatcher);
+      LOGGER.log(Level.INFO, "Command latency: {0}", jobConsole.getLatency());
+      dbConsole.close();
+      elogSpool.close();
       frame.dispose();
     }
   }
 
+  /**
+   * Points the console at each new connection, shows the disconnected banner while the connection
+   * is down, and refetches the server version and cavities after a reconnect. The server sends its
+   * status and job snapshot to every new connection so the rest of the frame resynchronizes itself.
+   */
+  private static final class ReconnectListener implements ConnectionListener {
+
+    private final NettyJsonConsole jobConsole;
+    private final PhaserClientFrame frame;
+
+    private ReconnectListener(NettyJsonConsole jobConsole, PhaserClientFrame frame) {
+      this.jobConsole = jobConsole;
+      this.frame = frame;
+    }
+
+    @Override
+    public void connected(Channel channel) {
+      jobConsole.setChannel(channel);
+      frame.setServerConnected(true, null);
+
+      // Called on the event loop, so nothing here may wait for a response
+      frame
+          .getAsyncPhaserServerConsole()
+          .serverVersion()
+          .whenComplete(
+              new BiConsumer<String, Throwable>() {
+                @Override
+                public void accept(String version, Throwable cause) {
+                  if (cause == null) {
+                    frame.setServerVersion(version);
+                  } else {
+                    LOGGER.log(Level.WARNING, "Unable to query the server version", cause);
+                  }
+                }
+              });
+
+      frame
+          .getAsyncPhaserServerConsole()
+          .cavities()
+          .whenComplete(
+              new BiConsumer<LinkedHashSet<String>, Throwable>() {
+                @Override
+                public void accept(LinkedHashSet<String> cavities, Throwable cause) {
+                  if (cause == null) {
+                    CavityCache.setCavities(cavities);
+                  } else {
+                    LOGGER.log(Level.WARNING, "Unable to fetch cavity list from server", cause);
+                  }
+                }
+              });
+    }
+
+    @Override
+    public void disconnected(long delayMillis, Throwable cause) {
+      frame.setServerConnected(
+          false,
+          "Reconnecting in "
+              + Math.max(1, delayMillis / 1000)
+              + " seconds"
+              + (cause == null ? "" : " (" + cause.getMessage() + ")"));
+    }
+  }
+
+  private static ElogSpool createElogSpool() {
+    String directory =
+        CLIENT_PROPERTIES.getProperty(
+            "elog.spool.dir",
+            Paths.get(System.getProperty("user.home"), ".phaser", "elog-spool").toString());
+    long retrySeconds =
+        Long.parseLong(CLIENT_PROPERTIES.getProperty("elog.spool.retry-seconds", "5"));
+    long maxRetrySeconds =
+        Long.parseLong(CLIENT_PROPERTIES.getProperty("elog.spool.max-retry-seconds", "300"));
+
+    return new ElogSpool(
+        Paths.get(directory), new LogbookSubmitter(), retrySeconds * 1000, maxRetrySeconds * 1000);
+  }
+
   private static void show(final Frame frame) {
     EventQueue.invokeLater(
         new Runnable() {
@@ -0,0 +1,21 @@
+package org.jlab.phaser;
+
+import java.io.IOException;
+import org.jlab.phaser.model.ResultRecord;
+
+/**
+ * A contract for classes which consume phasing results one at a time as they are read from the
+ * database.
+ *
+ * <p>Handlers allow large result sets to be exported without holding every record in memory.
+ */
+public interface ResultRecordHandler {
+
+  /**
+   * Handle the next result.
+   *
+   * @param record The result
+   * @throws IOException If unable to handle the result; streaming is stopped
+   */
+  public void handleResult(ResultRecord record) throws IOException;
+}
@@ -0,0 +1,430 @@
+package org.jlab.phaser.db;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.BlockingDeque;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * A bounded pool of JDBC connections.
+ *
+ * <p>At most maxSize physical connections exist at any given time. Callers borrow a connection and
+ * return it by calling close, which hands the physical connection back to the pool instead of
+ * logging out of the database. Connections which have been idle longer than the idle validation
+ * interval are validated before they are handed out and replaced if they are no longer usable.
+ *
+ * <p>Each physical connection also keeps a small least-recently-used cache of prepared statements
+ * keyed by SQL text. Queries are built such that their text depends only on the shape of the filter
+ * (which predicates are present) with all values bound as parameters, so the set of distinct
+ * statements is small and fixed and a borrower preparing a statement usually gets back one that was
+ * already parsed. Closing a cached statement returns it to the cache instead of closing it.
+ *
+ * <p>This class has package visibility as it is intended to be used by the OracleService only.
+ */
+final class ConnectionPool {
+
+  private static final Logger LOGGER = Logger.getLogger(ConnectionPool.class.getName());
+
+  private final String url;
+  private final String user;
+  private final String password;
+  private final int maxSize;
+  private final int initialSize;
+  private final long borrowTimeoutMillis;
+  private final int validationTimeoutSeconds;
+  private final long idleValidationMillis;
+  private final int statementCacheSize;
+
+  /** Idle connections; most recently returned first so that hot connections are reused. */
+  private final BlockingDeque<PooledConnection> idle = new LinkedBlockingDeque<>();
+
+  /** One permit per physical connection which may be borrowed. */
+  private final Semaphore permits;
+
+  private final AtomicBoolean closed = new AtomicBoolean(false);
+  private final AtomicLong active = new AtomicLong();
+  private final AtomicLong borrowCount = new AtomicLong();
+  private final AtomicLong createdCount = new AtomicLong();
+  private final AtomicLong invalidatedCount = new AtomicLong();
+  private final AtomicLong totalWaitNanos = new AtomicLong();
+  private final AtomicLong maxWaitNanos = new AtomicLong();
+  private final AtomicLong totalBorrowNanos = new AtomicLong();
+  private final AtomicLong maxBorrowNanos = new AtomicLong();
+  private final AtomicLong statementCacheHits = new AtomicLong();
+  private final AtomicLong statementCacheMisses = new AtomicLong();
+
+  /**
+   * Create a new ConnectionPool. No connections are opened until the pool is warmed up or a
+   * connection is borrowed.
+   *
+   * @param url The JDBC URL
+   * @param user The database user
+   * @param password The database password
+   * @param maxSize The maximum number of physical connections
+   * @param initialSize The number of connections to open when warming up
+   * @param borrowTimeoutMillis The maximum time to wait for a connection to become available
+   * @param validationTimeoutSeconds The timeout of the connection validity check
+   * @param idleValidationMillis The idle time after which a connection is validated on borrow
+   * @param statementCacheSize The number of prepared statements cached per connection; zero to
+   *     disable
+   */
+  ConnectionPool(
+      String url,
+      String user,
+      String password,
+      int maxSize,
+      int initialSize,
+      long borrowTimeoutMillis,
+      int validationTimeoutSeconds,
+      long idleValidationMillis,
+      int statementCacheSize) {
+    if (maxSize < 1) {
+      throw new IllegalArgumentException("Pool max size must be at least 1");
+    }
+
+    this.url = url;
+    this.user = user;
+    this.password = password;
+    this.maxSize = maxSize;
+    this.initialSize = Math.max(0, Math.min(initialSize, maxSize));
+    this.borrowTimeoutMillis = borrowTimeoutMillis;
+    this.validationTimeoutSeconds = validationTimeoutSeconds;
+    this.idleValidationMillis = idleValidationMillis;
+    this.statementCacheSize = Math.max(0, statementCacheSize);
+    this.permits = new Semaphore(maxSize, true);
+  }
+
+  /**
+   * Opens the initial set of connections so that the first queries don't pay the login cost.
+   *
+   * @throws SQLException If unable to open a connection
+   */
+  void warmUp() throws SQLException {
+    long start = System.currentTimeMillis();
+
+    while (!closed.get() && idle.size() + active.get() < initialSize) {
+      if (!permits.tryAcquire()) {
+        break; // Everything is already in use so the pool is clearly warm
+      }
+      try {
+        idle.offerLast(new PooledConnection(open()));
+      } finally {
+        permits.release();
+      }
+    }
+
+    long end = System.currentTimeMillis();
+
+    LOGGER.log(
+        Level.FINEST,
+        "Connection pool warmed up with {0} connections in {1} seconds",
+        new Object[] {idle.size(), (end - start) / 1000.0});
+  }
+
+  /**
+   * Borrows a connection from the pool, waiting up to the borrow timeout for one to become
+   * available. The returned connection must be closed to return it to the pool.
+   *
+   * @return The connection
+   * @throws SQLException If the pool is closed, the wait times out, or a new connection can't be
+   *     opened
+   */
+  Connection borrow() throws SQLException {
+    if (closed.get()) {
+      throw new SQLException("Connection pool is closed");
+    }
+
+    long waitStart = System.nanoTime();
+
+    try {
+      if (!permits.tryAcquire(borrowTimeoutMillis, TimeUnit.MILLISECONDS)) {
+        throw new SQLException(
+            "Timed out waiting " + borrowTimeoutMillis + " milliseconds for a database connection");
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new SQLException("Interrupted while waiting for a database connection", e);
+    }
+
+    PooledConnection pooled;
+
+    try {
+      pooled = takeIdleOrOpen();
+    } catch (SQLException | RuntimeException e) {
+      permits.release();
+      throw e;
+    }
+
+    long waitNanos = System.nanoTime() - waitStart;
+    totalWaitNanos.addAndGet(waitNanos);
+    maxWaitNanos.accumulateAndGet(waitNanos, Math::max);
+    borrowCount.incrementAndGet();
+    active.incrementAndGet();
+
+    return pooled.lease();
+  }
+
+  private PooledConnection takeIdleOrOpen() throws SQLException {
+    PooledConnection pooled;
+
+    while ((pooled = idle.pollFirst()) != null) {
+      long idleMillis = System.currentTimeMillis() - pooled.lastReturned;
+
+      if (idleMillis < idleValidationMillis || isValid(pooled.physical)) {
+        return pooled;
+      }
+
+      invalidatedCount.incrementAndGet();
+      LOGGER.log(Level.FINE, "Discarding invalid idle database connection");
+      closeQuietly(pooled.physical);
+    }
+
+    return new PooledConnection(open());
+  }
+
+  private boolean isValid(Connection con) {
+    try {
+      return con.isValid(validationTimeoutSeconds);
+    } catch (SQLException e) {
+      return false;
+    }
+  }
+
+  private Connection open() throws SQLException {
+    long start = System.currentTimeMillis();
+    Connection con = DriverManager.getConnection(url, user, password);
+    long end = System.currentTimeMillis();
+
+    createdCount.incrementAndGet();
+
+    LOGGER.log(Level.FINEST, "Database Connection Opened in {0} seconds", (end - start) / 1000.0);
+
+    return con;
+  }
+
+  private void giveBack(PooledConnection pooled, long borrowNanos) {
+    totalBorrowNanos.addAndGet(borrowNanos);
+    maxBorrowNanos.accumulateAndGet(borrowNanos, Math::max);
+    active.decrementAndGet();
+
+    boolean reusable = !closed.get();
+
+    if (reusable) {
+      try {
+        reusable = !pooled.physical.isClosed();
+      } catch (SQLException e) {
+        reusable = false;
+      }
+    }
+
+    if (reusable) {
+      pooled.lastReturned = System.currentTimeMillis();
+      idle.offerFirst(pooled);
+    } else {
+      closeQuietly(pooled.physical);
+    }
+
+    permits.release();
+  }
+
+  /**
+   * Return a snapshot of the pool statistics.
+   *
+   * @return The statistics
+   */
+  ConnectionPoolStatistics getStatistics() {
+    return new ConnectionPoolStatistics(
+        maxSize,
+        (int) active.get(),
+        idle.size(),
+        borrowCount.get(),
+        createdCount.get(),
+        invalidatedCount.get(),
+        TimeUnit.NANOSECONDS.toMillis(totalWaitNanos.get()),
+        TimeUnit.NANOSECONDS.toMillis(maxWaitNanos.get()),
+        TimeUnit.NANOSECONDS.toMillis(totalBorrowNanos.get()),
+        TimeUnit.NANOSECONDS.toMillis(maxBorrowNanos.get()),
+        statementCacheHits.get(),
+        statementCacheMisses.get());
+  }
+
+  /**
+   * Closes all idle connections and prevents further borrowing. Connections currently borrowed are
+   * closed when they are returned.
+   */
+  void close() {
+    if (closed.compareAndSet(false, true)) {
+      PooledConnection pooled;
+      while ((pooled = idle.pollFirst()) != null) {
+        closeQuietly(pooled.physical);
+      }
+    }
+  }
+
+  private static void closeQuietly(AutoCloseable closeable) {
+    try {
+      closeable.close();
+    } catch (Exception e) {
+      LOGGER.log(Level.FINE, "Unable to close database resource", e);
+    }
+  }
+
+  /** A physical connection plus its pool bookkeeping. */
+  private final class PooledConnection {
+    private final Connection physical;
+    private volatile long lastReturned = System.currentTimeMillis();
+
+    /**
+     * Prepared statements by SQL text in least-recently-used order. Only the current borrower
+     * touches the cache and hand off between borrowers happens through the idle deque, so no
+     * additional locking is needed.
+     */
+    private final Map<String, PreparedStatement> statements =
+        new LinkedHashMap<String, PreparedStatement>(16, 0.75f, true) {
+          @Override
+          protected boolean removeEldestEntry(Map.Entry<String, PreparedStatement> eldest) {
+            if (size() > statementCacheSize) {
+              closeQuietly(eldest.getValue());
+              return true;
+            }
+            return false;
+          }
+        };
+
+    private PooledConnection(Connection physical) {
+      this.physical = physical;
+    }
+
+    /**
+     * Wraps the physical connection in a proxy whose close method returns it to the pool. Each
+     * lease is independent so closing a stale proxy twice can't return the connection twice.
+     */
+    private Connection lease() {
+      final long leaseStart = System.nanoTime();
+      final AtomicBoolean returned = new AtomicBoolean(false);
+
+      InvocationHandler handler =
+          new InvocationHandler() {
+            @Override
+            public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+              switch (method.getName()) {
+                case "close":
+                  if (returned.compareAndSet(false, true)) {
+                    giveBack(PooledConnection.this, System.nanoTime() - leaseStart);
+                  }
+                  return null;
+                case "isClosed":
+                  return returned.get() || physical.isClosed();
+                case "equals":
+                  return proxy == args[0];
+                case "hashCode":
+                  return System.identityHashCode(proxy);
+                case "toString":
+                  return "Pooled " + physical;
+                default:
+                  if (returned.get()) {
+                    throw new SQLException("Connection has been returned to the pool");
+                  }
+                  if (statementCacheSize > 0
+                      && "prepareStatement".equals(method.getName())
+                      && args.length == 1) {
+                    return prepareCached((Connection) proxy, (String) args[0]);
+                  }
+                  try {
+                    return method.invoke(physical, args);
+                  } catch (InvocationTargetException e) {
+                    throw e.getCause();
+                  }
+              }
+            }
+          };
+
+      return (Connection)
+          Proxy.newProxyInstance(
+              Connection.class.getClassLoader(), new Class<?>[] {Connection.class}, handler);
+    }
+
+    /**
+     * Returns a cached prepared statement for the SQL, preparing and caching one if necessary. The
+     * statement is wrapped in a proxy whose close method closes any open result set and clears the
+     * parameters instead of closing the statement.
+     */
+    private PreparedStatement prepareCached(final Connection connection, String sql)
+        throws SQLException {
+      PreparedStatement cached = statements.get(sql);
+
+      if (cached == null || cached.isClosed()) {
+        statementCacheMisses.incrementAndGet();
+        cached = physical.prepareStatement(sql);
+        statements.put(sql, cached);
+      } else {
+        statementCacheHits.incrementAndGet();
+      }
+
+      final PreparedStatement stmt = cached;
+      final AtomicBoolean closed = new AtomicBoolean(false);
+      final ResultSet[] lastResultSet = new ResultSet[1];
+
+      InvocationHandler handler =
+          new InvocationHandler() {
+            @Override
+            public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+              switch (method.getName()) {
+                case "close":
+                  if (closed.compareAndSet(false, true)) {
+                    if (lastResultSet[0] != null) {
+                      lastResultSet[0].close();
+                    }
+                    stmt.clearParameters();
+                  }
+                  return null;
+                case "isClosed":
+                  return closed.get() || stmt.isClosed();
+                case "getConnection":
+                  return connection;
+                case "equals":
+                  return proxy == args[0];
+                case "hashCode":
+                  return System.identityHashCode(proxy);
+                case "toString":
+                  return "Cached " + stmt;
+                default:
+                  if (closed.get()) {
+                    throw new SQLException("Statement is closed");
+                  }
+                  try {
+                    Object result = method.invoke(stmt, args);
+                    if (result instanceof ResultSet) {
+                      lastResultSet[0] = (ResultSet) result;
+                    }
+                    return result;
+                  } catch (InvocationTargetException e) {
+                    throw e.getCause();
+                  }
+              }
+            }
+          };
+
+      return (PreparedStatement)
+          Proxy.newProxyInstance(
+              PreparedStatement.class.getClassLoader(),
+              new Class<?>[] {PreparedStatement.class},
+              handler);
+    }
+  }
+}
@@ -0,0 +1,203 @@
+package org.jlab.phaser.db;
+
+/**
+ * An immutable snapshot of database connection pool statistics.
+ *
+ * <p>Wait time is the time a caller spent waiting to obtain a connection (including opening a new
+ * one if necessary) and borrow time is the time a connection was held before it was returned.
+ */
+public final class ConnectionPoolStatistics {
+
+  private final int maxSize;
+  private final int activeCount;
+  private final int idleCount;
+  private final long borrowCount;
+  private final long createdCount;
+  private final long invalidatedCount;
+  private final long totalWaitMillis;
+  private final long maxWaitMillis;
+  private final long totalBorrowMillis;
+  private final long maxBorrowMillis;
+  private final long statementCacheHits;
+  private final long statementCacheMisses;
+
+  /**
+   * Create a new ConnectionPoolStatistics.
+   *
+   * @param maxSize The maximum number of connections
+   * @param activeCount The number of connections currently borrowed
+   * @param idleCount The number of connections currently idle in the pool
+   * @param borrowCount The total number of borrows
+   * @param createdCount The total number of physical connections opened
+   * @param invalidatedCount The total number of idle connections discarded as invalid
+   * @param totalWaitMillis The cumulative wait time in milliseconds
+   * @param maxWaitMillis The longest wait time in milliseconds
+   * @param totalBorrowMillis The cumulative borrow time in milliseconds
+   * @param maxBorrowMillis The longest borrow time in milliseconds
+   * @param statementCacheHits The number of prepared statements reused from the cache
+   * @param statementCacheMisses The number of prepared statements which had to be prepared
+   */
+  public ConnectionPoolStatistics(
+      int maxSize,
+      int activeCount,
+      int idleCount,
+      long borrowCount,
+      long createdCount,
+      long invalidatedCount,
+      long totalWaitMillis,
+      long maxWaitMillis,
+      long totalBorrowMillis,
+      long maxBorrowMillis,
+      long statementCacheHits,
+      long statementCacheMisses) {
+    this.maxSize = maxSize;
+    this.activeCount = activeCount;
+    this.idleCount = idleCount;
+    this.borrowCount = borrowCount;
+    this.createdCount = createdCount;
+    this.invalidatedCount = invalidatedCount;
+    this.totalWaitMillis = totalWaitMillis;
+    this.maxWaitMillis = maxWaitMillis;
+    this.totalBorrowMillis = totalBorrowMillis;
+    this.maxBorrowMillis = maxBorrowMillis;
+    this.statementCacheHits = statementCacheHits;
+    this.statementCacheMisses = statementCacheMisses;
+  }
+
+  /**
+   * Return the maximum number of connections.
+   *
+   * @return The max size
+   */
+  public int getMaxSize() {
+    return maxSize;
+  }
+
+  /**
+   * Return the number of connections currently borrowed.
+   *
+   * @return The active count
+   */
+  public int getActiveCount() {
+    return activeCount;
+  }
+
+  /**
+   * Return the number of connections currently idle in the pool.
+   *
+   * @return The idle count
+   */
+  public int getIdleCount() {
+    return idleCount;
+  }
+
+  /**
+   * Return the total number of times a connection was borrowed.
+   *
+   * @return The borrow count
+   */
+  public long getBorrowCount() {
+    return borrowCount;
+  }
+
+  /**
+   * Return the total number of physical connections opened.
+   *
+   * @return The created count
+   */
+  public long getCreatedCount() {
+    return createdCount;
+  }
+
+  /**
+   * Return the total number of idle connections discarded because they failed validation.
+   *
+   * @return The invalidated count
+   */
+  public long getInvalidatedCount() {
+    return invalidatedCount;
+  }
+
+  /**
+   * Return the average time spent waiting for a connection.
+   *
+   * @return The average wait in milliseconds
+   */
+  public double getAverageWaitMillis() {
+    return borrowCount == 0 ? 0 : (double) totalWaitMillis / borrowCount;
+  }
+
+  /**
+   * Return the longest time spent waiting for a connection.
+   *
+   * @return The max wait in milliseconds
+   */
+  public long getMaxWaitMillis() {
+    return maxWaitMillis;
+  }
+
+  /**
+   * Return the average time a connection was held before being returned.
+   *
+   * @return The average borrow time in milliseconds
+   */
+  public double getAverageBorrowMillis() {
+    long returned = borrowCount - activeCount;
+    return returned <= 0 ? 0 : (double) totalBorrowMillis / returned;
+  }
+
+  /**
+   * Return the longest time a connection was held before being returned.
+   *
+   * @return The max borrow time in milliseconds
+   */
+  public long getMaxBorrowMillis() {
+    return maxBorrowMillis;
+  }
+
+  /**
+   * Return the number of prepared statements reused from the statement cache.
+   *
+   * @return The statement cache hits
+   */
+  public long getStatementCacheHits() {
+    return statementCacheHits;
+  }
+
+  /**
+   * Return the number of prepared statements which were not found in the statement cache.
+   *
+   * @return The statement cache misses
+   */
+  public long getStatementCacheMisses() {
+    return statementCacheMisses;
+  }
+
+  @Override
+  public String toString() {
+    return "active: "
+        + activeCount
+        + ", idle: "
+        + idleCount
+        + ", maxSize: "
+        + maxSize
+        + ", borrows: "
+        + borrowCount
+        + ", created: "
+        + createdCount
+        + ", invalidated: "
+        + invalidatedCount
+        + ", avgWaitMillis: "
+        + getAverageWaitMillis()
+        + ", maxWaitMillis: "
+        + maxWaitMillis
+        + ", avgBorrowMillis: "
+        + getAverageBorrowMillis()
+        + ", maxBorrowMillis: "
+        + maxBorrowMillis
+        + ", statementCacheHits: "
+        + statementCacheHits
+        + ", statementCacheMisses: "
+        + statementCacheMisses;
+  }
+}
@@ -0,0 +1,114 @@
+package org.jlab.phaser.db;
+
+import java.sql.SQLException;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import org.jlab.phaser.model.CavityWithLastCorrection;
+
+/**
+ * A client-side index of the last phase correction date of each cavity.
+ *
+ * <p>The index is loaded with a full group by query the first time it is refreshed. After that,
+ * only corrections made on or after the high-water mark (the newest correction date seen in the
+ * database) are queried, which is a range scan of the RESULT_CORRECTION_DATE_IX index regardless of
+ * how large the result table has grown.
+ *
+ * <p>Corrections applied by this client are recorded as provisional dates, kept apart from the
+ * dates read from the database. The server may not have written its correction dates yet when the
+ * next refresh runs, so that refresh still shows a provisional date for any cavity the database has
+ * no newer date for; after that the provisional dates are discarded. A cavity the server didn't
+ * actually correct therefore reverts to its real date instead of keeping the client's guess.
+ *
+ * <p>This class has package visibility as it is intended to be used by the OracleJdbcConsole only.
+ */
+final class LastCorrectionIndex {
+
+  private static final Logger LOGGER = Logger.getLogger(LastCorrectionIndex.class.getName());
+
+  private final OracleService service;
+  private final Map<String, Date> lastCorrections = new HashMap<>();
+  private final Map<String, Date> provisionalCorrections = new HashMap<>();
+
+  /** The newest correction date obtained from the database, or null if not yet loaded. */
+  private Date highWaterMark;
+
+  private boolean loaded = false;
+
+  /**
+   * Create a new LastCorrectionIndex.
+   *
+   * @param service The OracleService used to query corrections
+   */
+  LastCorrectionIndex(OracleService service) {
+    this.service = service;
+  }
+
+  /**
+   * Brings the index up-to-date with the database and returns a snapshot of it.
+   *
+   * @return A map of cavity name to last correction date
+   * @throws SQLException If unable to query the database
+   */
+  synchronized Map<String, Date> refresh() throws SQLException {
+    long start = System.currentTimeMillis();
+
+    List<CavityWithLastCorrection> changes;
+
+    if (loaded) {
+      changes = service.findCavitiesWithLastCorrection(highWaterMark);
+    } else {
+      changes = service.findCavitiesWithLastCorrection(null);
+    }
+
+    for (CavityWithLastCorrection correction : changes) {
+      Date date = correction.getLastCorrection();
+
+      lastCorrections.put(correction.getName(), date);
+
+      if (date != null && (highWaterMark == null || date.after(highWaterMark))) {
+        highWaterMark = date;
+      }
+    }
+
+    long end = System.currentTimeMillis();
+
+    LOGGER.log(
+        Level.FINEST,
+        "Last correction index {0} with {1} cavities in {2} seconds",
+        new Object[] {loaded ? "refreshed" : "loaded", changes.size(), (end - start) / 1000.0});
+
+    loaded = true;
+
+    Map<String, Date> snapshot = new HashMap<>(lastCorrections);
+
+    for (Map.Entry<String, Date> provisional : provisionalCorrections.entrySet()) {
+      Date recorded = snapshot.get(provisional.getKey());
+
+      if (recorded == null || recorded.before(provisional.getValue())) {
+        snapshot.put(provisional.getKey(), provisional.getValue());
+      }
+    }
+
+    // Provisional dates only bridge the gap until the server has written the real ones
+    provisionalCorrections.clear();
+
+    return snapshot;
+  }
+
+  /**
+   * Records that corrections were just applied to the given cavities. The dates are provisional:
+   * they are shown by the next refresh only and never replace dates read from the database.
+   *
+   * @param cavities The cavity names
+   * @param date The approximate correction date
+   */
+  synchronized void recordCorrections(Iterable<String> cavities, Date date) {
+    for (String cavity : cavities) {
+      provisionalCorrections.put(cavity, date);
+    }
+  }
+}
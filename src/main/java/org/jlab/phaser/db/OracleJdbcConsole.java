@@ -1,10 +1,19 @@
 package org.jlab.phaser.db;
 
+import java.io.IOException;
 import java.sql.SQLException;
-import java.util.HashMap;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
 import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 import org.jlab.phaser.DatabaseConsole;
+import org.jlab.phaser.JobRecordHandler;
+import org.jlab.phaser.PhaserSwingClient;
+import org.jlab.phaser.ResultRecordHandler;
 import org.jlab.phaser.exception.CommandException;
 import org.jlab.phaser.model.CavityWithLastCorrection;
 import org.jlab.phaser.model.JobFilter;
@@ -20,21 +29,135 @@ import org.jlab.phaser.swing.CavityCache;
  * Provides access to the Phaser database.
  *
  * <p>This class delegates the heavy lifting to the OracleService, but provides services of its own
- * including serializing access to the database and wrapping exceptions in CommandExceptions.
+ * including wrapping exceptions in CommandExceptions.
  *
- * <p>To serialize access to the database all of the methods are synchronized. This will prevent
- * competing SwingWorker threads from executing database queries concurrently.
+ * <p>The methods are not synchronized: competing SwingWorker threads may query the database
+ * concurrently, each on its own pooled connection. The number of concurrent queries is bounded by
+ * the size of the connection pool (db.pool.max-size) and additional callers wait for a connection
+ * to be returned.
  *
  * @author ryans
  */
 public class OracleJdbcConsole implements DatabaseConsole {
 
+  private static final Logger LOGGER = Logger.getLogger(OracleJdbcConsole.class.getName());
+
   private final OracleService service = new OracleService();
 
+  /**
+   * The number of connections a partitioned export fetches over. At least one pooled connection is
+   * always left for page queries and prefetches, which would otherwise wait out the borrow timeout
+   * and fail for as long as a large export runs.
+   */
+  private final int exportParallelism =
+      exportParallelism(
+          (int) longProperty("db.export.parallelism", 2), service.getMaxConnections());
+
+  /** Last correction date of each cavity; loaded once and then refreshed incrementally. */
+  private final LastCorrectionIndex lastCorrectionIndex = new LastCorrectionIndex(service);
+
+  private final PageCache<ResultFilter, ResultPage> resultPageCache =
+      new PageCache<>(
+          "Result page cache",
+          longProperty("db.page-cache.max-records", 5000),
+          longProperty("db.page-cache.ttl-seconds", 120));
+
+  private final PageCache<JobFilter, JobPage> jobPageCache =
+      new PageCache<>(
+          "Job page cache",
+          longProperty("db.page-cache.max-records", 5000),
+          longProperty("db.page-cache.ttl-seconds", 120));
+
+  private static final int RESULT_CHANNEL = 0;
+  private static final int JOB_CHANNEL = 1;
+
+  /** Queries the pages adjacent to the one being viewed, or null if prefetch is disabled. */
+  private final PagePrefetcher prefetcher =
+      "false"
+              .equalsIgnoreCase(
+                  PhaserSwingClient.CLIENT_PROPERTIES.getProperty("db.page-prefetch", "true"))
+          ? null
+          : new PagePrefetcher(2);
+
+  /**
+   * Whether a page and its total count are fetched with a single analytic query instead of a count
+   * query followed by a page query.
+   */
+  private final boolean combinedPageQuery =
+      !"false"
+          .equalsIgnoreCase(
+              PhaserSwingClient.CLIENT_PROPERTIES.getProperty("db.page-query.combined", "true"));
+
+  /**
+   * Opens the initial pooled database connections on a background thread so that the first query is
+   * bound by query time instead of login time. Failure is logged and otherwise ignored as
+   * connections will simply be opened on demand.
+   */
+  public void warmUp() {
+    Thread thread =
+        new Thread(
+            new Runnable() {
+              @Override
+              public void run() {
+                try {
+                  service.warmUp();
+                } catch (SQLException e) {
+                  LOGGER.log(Level.WARNING, "Unable to warm up database connection pool", e);
+                }
+              }
+            },
+            "database-pool-warm-up");
+    thread.setDaemon(true);
+    thread.start();
+  }
+
+  /**
+   * Return a snapshot of the database connection pool statistics including wait time, borrow time,
+   * and active/idle counts.
+   *
+   * @return The statistics
+   */
+  public ConnectionPoolStatistics getPoolStatistics() {
+    return service.getPoolStatistics();
+  }
+
+  /** Closes the pooled database connections. */
+  public void close() {
+    if (prefetcher != null) {
+      prefetcher.close();
+    }
+    LOGGER.log(Level.FINE, "Database connection pool statistics: {0}", getPoolStatistics());
+    LOGGER.log(Level.FINE, "{0}", resultPageCache);
+    LOGGER.log(Level.FINE, "{0}", jobPageCache);
+    service.close();
+  }
+
   @Override
-  public synchronized ResultPage results(ResultFilter filter, Paginator paginator)
+  public ResultPage results(ResultFilter filter, Paginator paginator) throws CommandException {
+    ResultPage page = resultPageCache.get(filter, paginator.getOffset(), paginator.getMaxPerPage());
+
+    if (page == null) {
+      long generation = resultPageCache.getGeneration();
+      page = queryResults(filter, paginator);
+      resultPageCache.put(
+          filter,
+          paginator.getOffset(),
+          paginator.getMaxPerPage(),
+          page,
+          page.getRecords().size(),
+          generation);
+    }
+
+    return page;
+  }
+
+  private ResultPage queryResults(ResultFilter filter, Paginator paginator)
       throws CommandException {
     try {
+      if (combinedPageQuery) {
+        return service.findResultPage(filter, paginator);
+      }
+
       long count = service.countResults(filter);
       List<ResultRecord> records = service.findResults(filter, paginator);
       return new ResultPage(
@@ -45,8 +168,30 @@ public class OracleJdbcConsole implements DatabaseConsole {
   }
 
   @Override
-  public synchronized JobPage jobs(JobFilter filter, Paginator paginator) throws CommandException {
+  public JobPage jobs(JobFilter filter, Paginator paginator) throws CommandException {
+    JobPage page = jobPageCache.get(filter, paginator.getOffset(), paginator.getMaxPerPage());
+
+    if (page == null) {
+      long generation = jobPageCache.getGeneration();
+      page = queryJobs(filter, paginator);
+      jobPageCache.put(
+          filter,
+          paginator.getOffset(),
+          paginator.getMaxPerPage(),
+          page,
+          page.getRecords().size(),
+          generation);
+    }
+
+    return page;
+  }
+
+  private JobPage queryJobs(JobFilter filter, Paginator paginator) throws CommandException {
     try {
+      if (combinedPageQuery) {
+        return service.findJobPage(filter, paginator);
+      }
+
       long count = service.countJobs(filter);
       List<JobRecord> records = service.findJobs(filter, paginator);
       return new JobPage(
@@ -57,37 +202,206 @@ public class OracleJdbcConsole implements DatabaseConsole {
   }
 
   @Override
-  public synchronized LinkedHashSet<CavityWithLastCorrection> cavitiesWithLastCorrection()
+  public long countResults(ResultFilter filter) throws CommandException {
+    try {
+      return service.countResults(filter);
+    } catch (SQLException e) {
+      throw new CommandException("Unable to query phasing results", e);
+    }
+  }
+
+  @Override
+  public long streamResults(ResultFilter filter, long maxRecords, ResultRecordHandler handler)
+      throws CommandException, IOException {
+    try {
+      return new PartitionedResultFetch(
+              service,
+              exportParallelism,
+              longProperty("db.export.partition-min-records", 100000),
+              (int) longProperty("db.export.partition-buffer-records", 10000))
+          .stream(filter, maxRecords, handler);
+    } catch (SQLException e) {
+      throw new CommandException("Unable to query phasing results", e);
+    }
+  }
+
+  @Override
+  public long streamJobs(JobFilter filter, long maxRecords, JobRecordHandler handler)
+      throws CommandException, IOException {
+    try {
+      return service.streamJobs(filter, maxRecords, handler);
+    } catch (SQLException e) {
+      throw new CommandException("Unable to query jobs", e);
+    }
+  }
+
+  @Override
+  public ResultPage cachedResults(ResultFilter filter, Paginator paginator) {
+    return resultPageCache.peek(filter, paginator.getOffset(), paginator.getMaxPerPage());
+  }
+
+  @Override
+  public JobPage cachedJobs(JobFilter filter, Paginator paginator) {
+    return jobPageCache.peek(filter, paginator.getOffset(), paginator.getMaxPerPage());
+  }
+
+  @Override
+  public void prefetchAdjacentResults(ResultPage page) {
+    if (prefetcher == null) {
+      return;
+    }
+
+    final ResultFilter filter = page.getFilter();
+    Paginator paginator = page.getPaginator();
+
+    // Next first as browsing forward is the common case
+    for (final Paginator adjacent : adjacentPages(paginator)) {
+      prefetcher.prefetch(
+          RESULT_CHANNEL,
+          filter,
+          new PagePrefetcher.PrefetchTask() {
+            @Override
+            public void run() throws Exception {
+              if (!resultPageCache.contains(
+                  filter, adjacent.getOffset(), adjacent.getMaxPerPage())) {
+                long generation = resultPageCache.getGeneration();
+                ResultPage prefetched = queryResults(filter, adjacent);
+                resultPageCache.put(
+                    filter,
+                    adjacent.getOffset(),
+                    adjacent.getMaxPerPage(),
+                    prefetched,
+                    prefetched.getRecords().size(),
+                    generation);
+              }
+            }
+          });
+    }
+  }
+
+  @Override
+  public void prefetchAdjacentJobs(JobPage page) {
+    if (prefetcher == null) {
+      return;
+    }
+
+    final JobFilter filter = page.getFilter();
+    Paginator paginator = page.getPaginator();
+
+    for (final Paginator adjacent : adjacentPages(paginator)) {
+      prefetcher.prefetch(
+          JOB_CHANNEL,
+          filter,
+          new PagePrefetcher.PrefetchTask() {
+            @Override
+            public void run() throws Exception {
+              if (!jobPageCache.contains(filter, adjacent.getOffset(), adjacent.getMaxPerPage())) {
+                long generation = jobPageCache.getGeneration();
+                JobPage prefetched = queryJobs(filter, adjacent);
+                jobPageCache.put(
+                    filter,
+                    adjacent.getOffset(),
+                    adjacent.getMaxPerPage(),
+                    prefetched,
+                    prefetched.getRecords().size(),
+                    generation);
+              }
+            }
+          });
+    }
+  }
+
+  private static List<Paginator> adjacentPages(Paginator paginator) {
+    List<Paginator> adjacent = new ArrayList<>();
+
+    if (paginator.isNext()) {
+      adjacent.add(paginator.nextPage());
+    }
+
+    if (paginator.isPrevious()) {
+      adjacent.add(paginator.previousPage());
+    }
+
+    return adjacent;
+  }
+
+  @Override
+  public void invalidateCachedPages() {
+    if (prefetcher != null) {
+      prefetcher.cancelAll();
+    }
+
+    resultPageCache.invalidate();
+    jobPageCache.invalidate();
+  }
+
+  @Override
+  public Long mostRecentJobId(JobFilter filter) throws CommandException {
+    try {
+      return service.findMostRecentJobId(filter);
+    } catch (SQLException e) {
+      throw new CommandException("Unable to query jobs", e);
+    }
+  }
+
+  @Override
+  public LinkedHashSet<CavityWithLastCorrection> cavitiesWithLastCorrection()
       throws CommandException {
 
     LinkedHashSet<CavityWithLastCorrection> records = new LinkedHashSet<>();
 
     LinkedHashSet<String> allCavityNames = CavityCache.getCavities();
 
-    List<CavityWithLastCorrection> dbList;
+    Map<String, Date> lastCorrections;
 
     try {
-      dbList = service.findCavitiesWithLastCorrection();
+      lastCorrections = lastCorrectionIndex.refresh();
     } catch (SQLException e) {
-      throw new CommandException("Unable to query phasing results");
+      throw new CommandException("Unable to query phasing results", e);
+    }
+
+    for (String cavity : allCavityNames) {
+      records.add(new CavityWithLastCorrection(cavity, lastCorrections.get(cavity)));
     }
 
-    HashMap<String, CavityWithLastCorrection> dbMap = new HashMap<>();
+    return records;
+  }
+
+  @Override
+  public void correctionsApplied(Collection<String> cavities) {
+    lastCorrectionIndex.recordCorrections(cavities, new Date());
+  }
 
-    for (CavityWithLastCorrection correction : dbList) {
-      dbMap.put(correction.getName(), correction);
+  private static int exportParallelism(int configured, int maxConnections) {
+    int limit = Math.max(1, maxConnections - 1);
+
+    if (configured > limit) {
+      LOGGER.log(
+          Level.WARNING,
+          "db.export.parallelism {0} would use every pooled connection (db.pool.max-size {1});"
+              + " using {2}",
+          new Object[] {configured, maxConnections, limit});
+      return limit;
     }
 
-    for (String cavity : allCavityNames) {
-      CavityWithLastCorrection correction = dbMap.get(cavity);
+    return configured;
+  }
 
-      if (correction == null) {
-        correction = new CavityWithLastCorrection(cavity, null);
-      }
+  private static long longProperty(String name, long defaultValue) {
+    String value = PhaserSwingClient.CLIENT_PROPERTIES.getProperty(name);
+    long result = defaultValue;
 
-      records.add(correction);
+    if (value != null && !value.trim().isEmpty()) {
+      try {
+        result = Long.parseLong(value.trim());
+      } catch (NumberFormatException e) {
+        LOGGER.log(
+            Level.WARNING,
+            "Invalid integer for property {0}; using default {1}",
+            new Object[] {name, defaultValue});
+      }
     }
 
-    return records;
+    return result;
   }
 }
@@ -1,29 +1,41 @@
 package org.jlab.phaser.db;
 
+import java.io.IOException;
+import java.math.BigDecimal;
 import java.math.BigInteger;
 import java.sql.Connection;
-import java.sql.DriverManager;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.Timestamp;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Date;
+import java.util.EnumMap;
 import java.util.List;
+import java.util.Map;
 import java.util.logging.Level;
 import java.util.logging.Logger;
+import org.jlab.phaser.JobRecordHandler;
 import org.jlab.phaser.PhaserSwingClient;
+import org.jlab.phaser.ResultRecordHandler;
 import org.jlab.phaser.model.CavityWithLastCorrection;
 import org.jlab.phaser.model.JobFilter;
+import org.jlab.phaser.model.JobPage;
 import org.jlab.phaser.model.JobRecord;
 import org.jlab.phaser.model.Paginator;
 import org.jlab.phaser.model.PhaserOutcome;
 import org.jlab.phaser.model.ResultFilter;
+import org.jlab.phaser.model.ResultPage;
 import org.jlab.phaser.model.ResultRecord;
 
 /**
  * Manages connections and queries the Oracle database used to store the Phaser results and jobs.
- * This class has package visibility as it is intended to be used by the OracleJdbcConsole only and
- * is final because it isn't intended to be extended.
+ * Connections are borrowed from a bounded pool configured with the db.pool.* client properties so
+ * that queries don't each pay the cost of a database login.
+ *
+ * <p>This class has package visibility as it is intended to be used by the OracleJdbcConsole only
+ * and is final because it isn't intended to be extended.
  *
  * @author ryans
  */
@@ -31,13 +43,84 @@ final class OracleService {
 
   private static final Logger LOGGER = Logger.getLogger(OracleService.class.getName());
 
-  private Connection getConnection() throws SQLException {
+  private final ConnectionPool pool;
+
+  /** The maximum number of pooled connections. */
+  private final int maxConnections;
+
+  /** The number of rows fetched per round trip when streaming results. */
+  private final int exportFetchSize;
+
+  /** Whether returned pages carry key cursors so that adjacent pages are fetched by seeking. */
+  private final boolean seekPagination;
+
+  /**
+   * Create a new OracleService with a connection pool configured from the client properties. The
+   * pool is not warmed up until warmUp is called.
+   */
+  OracleService() {
     String url = PhaserSwingClient.CLIENT_PROPERTIES.getProperty("db.url");
     String user = PhaserSwingClient.CLIENT_PROPERTIES.getProperty("db.user");
     String password = PhaserSwingClient.CLIENT_PROPERTIES.getProperty("db.password");
 
+    int maxSize = intProperty("db.pool.max-size", 4);
+    int initialSize = intProperty("db.pool.initial-size", 2);
+    long borrowTimeoutMillis = intProperty("db.pool.borrow-timeout-seconds", 30) * 1000L;
+    int validationTimeoutSeconds = intProperty("db.pool.validation-timeout-seconds", 5);
+    long idleValidationMillis = intProperty("db.pool.idle-validation-seconds", 60) * 1000L;
+    int statementCacheSize = intProperty("db.pool.statement-cache-size", 20);
+
+    maxConnections = maxSize;
+    exportFetchSize = intProperty("db.export.fetch-size", 1000);
+
+    seekPagination =
+        !"false"
+            .equalsIgnoreCase(
+                PhaserSwingClient.CLIENT_PROPERTIES.getProperty("db.page-query.seek", "true"));
+
+    pool =
+        new ConnectionPool(
+            url,
+            user,
+            password,
+            maxSize,
+            initialSize,
+            borrowTimeoutMillis,
+            validationTimeoutSeconds,
+            idleValidationMillis,
+            statementCacheSize);
+  }
+
+  /**
+   * Return the maximum number of pooled connections.
+   *
+   * @return The maximum number of connections
+   */
+  int getMaxConnections() {
+    return maxConnections;
+  }
+
+  private static int intProperty(String name, int defaultValue) {
+    String value = PhaserSwingClient.CLIENT_PROPERTIES.getProperty(name);
+    int result = defaultValue;
+
+    if (value != null && !value.trim().isEmpty()) {
+      try {
+        result = Integer.parseInt(value.trim());
+      } catch (NumberFormatException e) {
+        LOGGER.log(
+            Level.WARNING,
+            "Invalid integer for property {0}; using default {1}",
+            new Object[] {name, defaultValue});
+      }
+    }
+
+    return result;
+  }
+
+  private Connection getConnection() throws SQLException {
     long start = System.currentTimeMillis();
-    Connection con = DriverManager.getConnection(url, user, password);
+    Connection con = pool.borrow();
     long end = System.currentTimeMillis();
 
     LOGGER.log(Level.FINEST, "Database Connection Obtained in {0} seconds", (end - start) / 1000.0);
@@ -45,6 +128,496 @@ final class OracleService {
     return con;
   }
 
+  /**
+   * Opens the initial pooled connections so that the first query doesn't pay the login cost.
+   *
+   * @throws SQLException If unable to open a connection
+   */
+  void warmUp() throws SQLException {
+    pool.warmUp();
+  }
+
+  /**
+   * Return a snapshot of the connection pool statistics.
+   *
+   * @return The statistics
+   */
+  ConnectionPoolStatistics getPoolStatistics() {
+    return pool.getStatistics();
+  }
+
+  /** Closes the pooled connections. */
+  void close() {
+    pool.close();
+  }
+
+  /**
+   * Wraps the supplied ordered query such that only the rows on a page are returned. The page
+   * bounds are bind parameters (see assignPageParameters) so that the statement text depends only
+   * on the shape of the filter and can be reused from page to page.
+   *
+   * @param query The ordered query
+   * @return The paginated query
+   */
+  private static String paginate(String query) {
+    return "select * from (select z.*, ROWNUM rnum from ("
+        + query
+        + ") z where ROWNUM <= ?) where rnum > ?";
+  }
+
+  /**
+   * Assigns the page bound parameters of a query returned from paginate.
+   *
+   * @param stmt The PreparedStatement
+   * @param parameterIndex The index of the first page bound parameter
+   * @param paginator The paginator
+   * @throws SQLException If unable to assign the parameters
+   */
+  private static void assignPageParameters(
+      PreparedStatement stmt, int parameterIndex, Paginator paginator) throws SQLException {
+    stmt.setLong(parameterIndex, paginator.getOffset() + paginator.getMaxPerPage());
+    stmt.setLong(parameterIndex + 1, paginator.getOffset());
+  }
+
+  /**
+   * Joins a page of jobs to aggregates of their results. The page is factored into a subquery which
+   * is referenced twice: once as the rows to return and once to restrict the grouped scan of the
+   * RESULT table to the page's job IDs, so results are aggregated only for the jobs on the page and
+   * in a single pass. The rows are returned in descending job ID order regardless of the order of
+   * the page query.
+   *
+   * @param pageQuery The query returning the page of JOB rows
+   * @return The query returning the page of JOB rows plus result aggregate columns
+   */
+  private static String withResultAggregates(String pageQuery) {
+    StringBuilder outcomeCounts = new StringBuilder();
+    StringBuilder outcomeColumns = new StringBuilder();
+
+    for (PhaserOutcome outcome : PhaserOutcome.values()) {
+      String column = "num_" + outcome.name().toLowerCase();
+      outcomeCounts
+          .append(", count(case when outcome = '")
+          .append(outcome.name())
+          .append("' then 1 end) ")
+          .append(column);
+      outcomeColumns.append(", nvl(a.").append(column).append(", 0) ").append(column);
+    }
+
+    return "with page as ("
+        + pageQuery
+        + ") select page.*, nvl(a.num_records, 0) num_records, a.largest_phase_error"
+        + outcomeColumns
+        + " from page left join (select job_id, count(*) num_records,"
+        + " max(abs(phase_error)) largest_phase_error"
+        + outcomeCounts
+        + " from phaser_owner.result where job_id in (select job_id from page) group by job_id) a"
+        + " on a.job_id = page.job_id order by page.job_id desc";
+  }
+
+  /**
+   * Creates a ResultRecord from the current row of a result set over the RESULT table.
+   *
+   * @param rs The result set
+   * @return The record
+   * @throws SQLException If unable to read the row
+   */
+  private static ResultRecord toResultRecord(ResultSet rs) throws SQLException {
+    BigInteger resultId = rs.getBigDecimal("RESULT_ID").toBigInteger();
+    Date startDate = rs.getDate("START_DATE");
+    Date endDate = rs.getDate("END_DATE");
+    Date correctionDate = rs.getDate("CORRECTION_DATE");
+    String cavity = rs.getString("CAVITY");
+    Float phase = rs.getFloat("PHASE"); // JDBC API for null is weird as hell (returns 0)
+    if (rs.wasNull()) {
+      phase = null;
+    }
+    Float phaseError = rs.getFloat("PHASE_ERROR");
+    if (rs.wasNull()) {
+      phaseError = null;
+    }
+    PhaserOutcome outcome = PhaserOutcome.valueOf(rs.getString("OUTCOME"));
+    String correctionErrorReason = rs.getString("CORRECTION_ERROR_REASON");
+
+    return new ResultRecord(
+        resultId,
+        startDate,
+        endDate,
+        correctionDate,
+        cavity,
+        phase,
+        phaseError,
+        outcome,
+        correctionErrorReason);
+  }
+
+  /**
+   * Creates a JobRecord from the current row of a result set over the JOB table which also includes
+   * the result aggregate columns added by withResultAggregates.
+   *
+   * @param rs The result set
+   * @return The record
+   * @throws SQLException If unable to read the row
+   */
+  private static JobRecord toJobRecord(ResultSet rs) throws SQLException {
+    long jobId = rs.getLong("JOB_ID");
+    Date startDate = rs.getDate("START_DATE");
+    Date endDate = rs.getDate("END_DATE");
+    float maxPhaseError = rs.getFloat("MAX_PHASE_ERROR");
+    float maxMomentumError = rs.getFloat("MAX_MOMENTUM_ERROR");
+    int kickSamples = rs.getInt("KICK_SAMPLES");
+    boolean continuous = "Y".equals(rs.getString("CONTINUOUS_YN"));
+    boolean correct = "Y".equals(rs.getString("CORRECT_INCREMENTALLY_YN"));
+    long numRecords = rs.getLong("NUM_RECORDS");
+    Float largestPhaseError = rs.getFloat("LARGEST_PHASE_ERROR");
+    if (rs.wasNull()) {
+      largestPhaseError = null;
+    }
+    Map<PhaserOutcome, Long> outcomeCounts = new EnumMap<>(PhaserOutcome.class);
+    for (PhaserOutcome outcome : PhaserOutcome.values()) {
+      outcomeCounts.put(outcome, rs.getLong("NUM_" + outcome.name()));
+    }
+
+    return new JobRecord(
+        jobId,
+        startDate,
+        endDate,
+        continuous,
+        correct,
+        maxPhaseError,
+        maxMomentumError,
+        kickSamples,
+        numRecords,
+        outcomeCounts,
+        largestPhaseError);
+  }
+
+  /**
+   * Appends the seek predicate on the key column to the supplied where clause.
+   *
+   * @param where The filter where clause, which may be empty
+   * @param keyColumn The key column
+   * @param seek The seek
+   * @return The where clause including the seek predicate
+   */
+  private static String seekWhereClause(String where, String keyColumn, Paginator.Seek seek) {
+    String operator;
+
+    switch (seek) {
+      case AFTER_LAST_KEY:
+        operator = " < ?";
+        break;
+      case BEFORE_FIRST_KEY:
+        operator = " > ?";
+        break;
+      default:
+        operator = " <= ?";
+        break;
+    }
+
+    return (where.isEmpty() ? " where " : where + " and ") + keyColumn + operator;
+  }
+
+  /**
+   * Returns the order by clause for a seek. Pages are displayed in descending key order, but the
+   * page before the first key must be read in ascending order to find the nearest keys first.
+   *
+   * @param keyColumn The key column
+   * @param seek The seek
+   * @return The order by clause
+   */
+  private static String seekOrderBy(String keyColumn, Paginator.Seek seek) {
+    return " order by " + keyColumn + (seek == Paginator.Seek.BEFORE_FIRST_KEY ? " asc" : " desc");
+  }
+
+  /**
+   * Returns the key to bind to the seek predicate.
+   *
+   * @param paginator The paginator
+   * @return The key
+   */
+  private static BigDecimal seekKey(Paginator paginator) {
+    BigInteger key =
+        paginator.getSeek() == Paginator.Seek.AFTER_LAST_KEY
+            ? paginator.getLastKey()
+            : paginator.getFirstKey();
+    return new BigDecimal(key);
+  }
+
+  /**
+   * Create the paginator returned with a page of records.
+   *
+   * @param count The total number of records
+   * @param paginator The requested paginator
+   * @param firstKey The key of the first record on the page or null if none
+   * @param lastKey The key of the last record on the page or null if none
+   * @return The paginator
+   */
+  private Paginator pagePaginator(
+      long count, Paginator paginator, BigInteger firstKey, BigInteger lastKey) {
+    if (!seekPagination) {
+      firstKey = null;
+      lastKey = null;
+    }
+
+    return new Paginator(
+        count, paginator.getOffset(), paginator.getMaxPerPage(), firstKey, lastKey);
+  }
+
+  /**
+   * Queries the database for the page of results adjacent to the keys of the supplied paginator.
+   * The seek predicate and a stop key limit allow the database to walk the primary key index
+   * directly to the page so the cost doesn't grow with the page number. The total count is carried
+   * forward from the supplied paginator.
+   *
+   * @param filter The filter
+   * @param paginator The paginator
+   * @return The page of results or null if no records were found adjacent to the keys
+   * @throws SQLException If unable to query the database
+   */
+  private ResultPage seekResultPage(ResultFilter filter, Paginator paginator) throws SQLException {
+    List<ResultRecord> records = new ArrayList<>();
+
+    String where = seekWhereClause(filter.toSqlWhereClause(), "result_id", paginator.getSeek());
+    String query =
+        "select * from (select * from phaser_owner.result"
+            + where
+            + seekOrderBy("result_id", paginator.getSeek())
+            + ") where ROWNUM <= ?";
+
+    LOGGER.log(Level.FINEST, "Executing query: {0}", query);
+
+    try (Connection con = getConnection();
+        PreparedStatement stmt = con.prepareStatement(query)) {
+      int parameterIndex = filter.assignStatementParameters(stmt);
+      stmt.setBigDecimal(parameterIndex, seekKey(paginator));
+      stmt.setLong(parameterIndex + 1, paginator.getMaxPerPage());
+
+      long start = System.currentTimeMillis();
+      ResultSet rs = stmt.executeQuery();
+      long end = System.currentTimeMillis();
+
+      LOGGER.log(Level.FINEST, "Query Result Obtained in {0} seconds", (end - start) / 1000.0);
+
+      while (rs.next()) {
+        records.add(toResultRecord(rs));
+      }
+    }
+
+    if (records.isEmpty()) {
+      return null;
+    }
+
+    if (paginator.getSeek() == Paginator.Seek.BEFORE_FIRST_KEY) {
+      Collections.reverse(records);
+    }
+
+    return new ResultPage(
+        records,
+        pagePaginator(
+            paginator.getTotalRecords(),
+            paginator,
+            records.get(0).getResultId(),
+            records.get(records.size() - 1).getResultId()),
+        filter);
+  }
+
+  /**
+   * Queries the database for the page of jobs adjacent to the keys of the supplied paginator. The
+   * total count is carried forward from the supplied paginator.
+   *
+   * @param filter The filter
+   * @param paginator The paginator
+   * @return The page of jobs or null if no records were found adjacent to the keys
+   * @throws SQLException If unable to query the database
+   */
+  private JobPage seekJobPage(JobFilter filter, Paginator paginator) throws SQLException {
+    List<JobRecord> records = new ArrayList<>();
+
+    String where = seekWhereClause(filter.toSqlWhereClause(), "job_id", paginator.getSeek());
+    String pageQuery =
+        "select * from (select * from phaser_owner.job"
+            + where
+            + seekOrderBy("job_id", paginator.getSeek())
+            + ") where ROWNUM <= ?";
+    String query = withResultAggregates(pageQuery);
+
+    LOGGER.log(Level.FINEST, "Executing query: {0}", query);
+
+    try (Connection con = getConnection();
+        PreparedStatement stmt = con.prepareStatement(query)) {
+      int parameterIndex = filter.assignStatementParameters(stmt);
+      stmt.setBigDecimal(parameterIndex, seekKey(paginator));
+      stmt.setLong(parameterIndex + 1, paginator.getMaxPerPage());
+
+      long start = System.currentTimeMillis();
+      ResultSet rs = stmt.executeQuery();
+      long end = System.currentTimeMillis();
+
+      LOGGER.log(Level.FINEST, "Query Result Obtained in {0} seconds", (end - start) / 1000.0);
+
+      while (rs.next()) {
+        records.add(toJobRecord(rs));
+      }
+    }
+
+    if (records.isEmpty()) {
+      return null;
+    }
+
+    return new JobPage(
+        records,
+        pagePaginator(
+            paginator.getTotalRecords(),
+            paginator,
+            BigInteger.valueOf(records.get(0).getId()),
+            BigInteger.valueOf(records.get(records.size() - 1).getId())),
+        filter);
+  }
+
+  /**
+   * Queries the database for a page of results and the total count of results matching the filter
+   * in a single statement using an analytic window count. If the requested page is past the end of
+   * the filtered set then no rows carry the count and a separate count query is issued.
+   *
+   * <p>If the paginator seeks relative to a key then the page is instead found by seeking and the
+   * count is carried forward. If nothing is found adjacent to the key (the records were removed)
+   * then the first page is returned.
+   *
+   * @param filter The filter
+   * @param paginator The paginator
+   * @return The page of results
+   * @throws SQLException If unable to query the database
+   */
+  ResultPage findResultPage(ResultFilter filter, Paginator paginator) throws SQLException {
+    if (paginator.getSeek() != null) {
+      ResultPage page = seekResultPage(filter, paginator);
+
+      if (page != null) {
+        return page;
+      }
+
+      paginator = new Paginator(0, 0, paginator.getMaxPerPage());
+    }
+
+    List<ResultRecord> records = new ArrayList<>();
+    long count = 0L;
+
+    String where = filter.toSqlWhereClause();
+    String query =
+        "select r.*, count(*) over () total_records from phaser_owner.result r"
+            + where
+            + " order by result_id desc";
+    String paginatedQuery = paginate(query);
+
+    LOGGER.log(Level.FINEST, "Executing query: {0}", paginatedQuery);
+
+    try (Connection con = getConnection();
+        PreparedStatement stmt = con.prepareStatement(paginatedQuery)) {
+      int parameterIndex = filter.assignStatementParameters(stmt);
+      assignPageParameters(stmt, parameterIndex, paginator);
+
+      long start = System.currentTimeMillis();
+      ResultSet rs = stmt.executeQuery();
+      long end = System.currentTimeMillis();
+
+      LOGGER.log(Level.FINEST, "Query Result Obtained in {0} seconds", (end - start) / 1000.0);
+
+      while (rs.next()) {
+        count = rs.getLong("TOTAL_RECORDS");
+        records.add(toResultRecord(rs));
+      }
+    }
+
+    if (records.isEmpty()) {
+      if (paginator.getOffset() > 0) {
+        count = countResults(filter);
+      }
+
+      return new ResultPage(records, pagePaginator(count, paginator, null, null), filter);
+    }
+
+    return new ResultPage(
+        records,
+        pagePaginator(
+            count,
+            paginator,
+            records.get(0).getResultId(),
+            records.get(records.size() - 1).getResultId()),
+        filter);
+  }
+
+  /**
+   * Queries the database for a page of jobs and the total count of jobs matching the filter in a
+   * single statement using an analytic window count. If the requested page is past the end of the
+   * filtered set then no rows carry the count and a separate count query is issued.
+   *
+   * <p>If the paginator seeks relative to a key then the page is instead found by seeking and the
+   * count is carried forward. If nothing is found adjacent to the key (the records were removed)
+   * then the first page is returned.
+   *
+   * @param filter The filter
+   * @param paginator The paginator
+   * @return The page of jobs
+   * @throws SQLException If unable to query the database
+   */
+  JobPage findJobPage(JobFilter filter, Paginator paginator) throws SQLException {
+    if (paginator.getSeek() != null) {
+      JobPage page = seekJobPage(filter, paginator);
+
+      if (page != null) {
+        return page;
+      }
+
+      paginator = new Paginator(0, 0, paginator.getMaxPerPage());
+    }
+
+    List<JobRecord> records = new ArrayList<>();
+    long count = 0L;
+
+    String where = filter.toSqlWhereClause();
+    String query =
+        "select j.*, count(*) over () total_records from phaser_owner.job j"
+            + where
+            + " order by job_id desc";
+    String paginatedQuery = withResultAggregates(paginate(query));
+
+    LOGGER.log(Level.FINEST, "Executing query: {0}", paginatedQuery);
+
+    try (Connection con = getConnection();
+        PreparedStatement stmt = con.prepareStatement(paginatedQuery)) {
+      int parameterIndex = filter.assignStatementParameters(stmt);
+      assignPageParameters(stmt, parameterIndex, paginator);
+
+      long start = System.currentTimeMillis();
+      ResultSet rs = stmt.executeQuery();
+      long end = System.currentTimeMillis();
+
+      LOGGER.log(Level.FINEST, "Query Result Obtained in {0} seconds", (end - start) / 1000.0);
+
+      while (rs.next()) {
+        count = rs.getLong("TOTAL_RECORDS");
+        records.add(toJobRecord(rs));
+      }
+    }
+
+    if (records.isEmpty()) {
+      if (paginator.getOffset() > 0) {
+        count = countJobs(filter);
+      }
+
+      return new JobPage(records, pagePaginator(count, paginator, null, null), filter);
+    }
+
+    return new JobPage(
+        records,
+        pagePaginator(
+            count,
+            paginator,
+            BigInteger.valueOf(records.get(0).getId()),
+            BigInteger.valueOf(records.get(records.size() - 1).getId())),
+        filter);
+  }
+
   /**
    * Queries the database for a count of results based on the supplied filter.
    *
@@ -60,9 +633,8 @@ final class OracleService {
 
     LOGGER.log(Level.FINEST, "Executing query: {0}", query);
 
-    try (Connection con = getConnection()) {
-      PreparedStatement stmt = con.prepareStatement(query);
-
+    try (Connection con = getConnection();
+        PreparedStatement stmt = con.prepareStatement(query)) {
       filter.assignStatementParameters(stmt);
 
       long start = System.currentTimeMillis();
@@ -92,20 +664,14 @@ final class OracleService {
 
     String where = filter.toSqlWhereClause();
     String query = "select * from phaser_owner.result" + where + " order by result_id desc";
-    String paginatedQuery =
-        "select * from (select z.*, ROWNUM rnum from ("
-            + query
-            + ") z where ROWNUM <= "
-            + (paginator.getOffset() + paginator.getMaxPerPage())
-            + ") where rnum > "
-            + paginator.getOffset();
+    String paginatedQuery = paginate(query);
 
     LOGGER.log(Level.FINEST, "Executing query: {0}", paginatedQuery);
 
-    try (Connection con = getConnection()) {
-      PreparedStatement stmt = con.prepareStatement(paginatedQuery);
-
-      filter.assignStatementParameters(stmt);
+    try (Connection con = getConnection();
+        PreparedStatement stmt = con.prepareStatement(paginatedQuery)) {
+      int parameterIndex = filter.assignStatementParameters(stmt);
+      assignPageParameters(stmt, parameterIndex, paginator);
 
       long start = System.currentTimeMillis();
       ResultSet rs = stmt.executeQuery();
@@ -114,39 +680,232 @@ final class OracleService {
       LOGGER.log(Level.FINEST, "Query Result Obtained in {0} seconds", (end - start) / 1000.0);
 
       while (rs.next()) {
-        BigInteger resultId = rs.getBigDecimal("RESULT_ID").toBigInteger();
-        Date startDate = rs.getDate("START_DATE");
-        Date endDate = rs.getDate("END_DATE");
-        Date correctionDate = rs.getDate("CORRECTION_DATE");
-        String cavity = rs.getString("CAVITY");
-        Float phase = rs.getFloat("PHASE"); // JDBC API for null is weird as hell (returns 0)
-        if (rs.wasNull()) {
-          phase = null;
-        }
-        Float phaseError = rs.getFloat("PHASE_ERROR");
-        if (rs.wasNull()) {
-          phaseError = null;
-        }
-        PhaserOutcome outcome = PhaserOutcome.valueOf(rs.getString("OUTCOME"));
-        String correctionErrorReason = rs.getString("CORRECTION_ERROR_REASON");
-
-        records.add(
-            new ResultRecord(
-                resultId,
-                startDate,
-                endDate,
-                correctionDate,
-                cavity,
-                phase,
-                phaseError,
-                outcome,
-                correctionErrorReason));
+        records.add(toResultRecord(rs));
       }
     }
 
     return records;
   }
 
+  /**
+   * Streams the results matching the supplied filter, most recent first, to a handler. Records are
+   * read through a cursor with a large fetch size and handed off one at a time so that memory use
+   * doesn't depend on how many records match and the handler can write early records while later
+   * ones are still being transferred.
+   *
+   * @param filter The filter
+   * @param maxRecords The maximum number of records to stream
+   * @param handler The handler
+   * @return The number of records streamed
+   * @throws SQLException If unable to query the database
+   * @throws IOException If the handler is unable to handle a record
+   */
+  long streamResults(ResultFilter filter, long maxRecords, ResultRecordHandler handler)
+      throws SQLException, IOException {
+    long count = 0;
+
+    String where = filter.toSqlWhereClause();
+    String query =
+        "select * from (select * from phaser_owner.result"
+            + where
+            + " order by result_id desc) where ROWNUM <= ?";
+
+    LOGGER.log(Level.FINEST, "Executing query: {0}", query);
+
+    try (Connection con = getConnection();
+        PreparedStatement stmt = con.prepareStatement(query)) {
+      int parameterIndex = filter.assignStatementParameters(stmt);
+      stmt.setLong(parameterIndex, maxRecords);
+      stmt.setFetchSize(exportFetchSize);
+
+      long start = System.currentTimeMillis();
+      ResultSet rs = stmt.executeQuery();
+      rs.setFetchSize(exportFetchSize);
+
+      while (rs.next()) {
+        handler.handleResult(toResultRecord(rs));
+        count++;
+      }
+
+      long end = System.currentTimeMillis();
+
+      LOGGER.log(
+          Level.FINEST,
+          "Streamed {0} results in {1} seconds",
+          new Object[] {count, (end - start) / 1000.0});
+    }
+
+    return count;
+  }
+
+  /**
+   * Streams the jobs matching the supplied filter, most recent first, along with their result
+   * aggregates to a handler. Like streamResults the records are read through a cursor with a large
+   * fetch size so that memory use doesn't depend on how many jobs match.
+   *
+   * @param filter The filter
+   * @param maxRecords The maximum number of records to stream
+   * @param handler The handler
+   * @return The number of records streamed
+   * @throws SQLException If unable to query the database
+   * @throws IOException If the handler is unable to handle a record
+   */
+  long streamJobs(JobFilter filter, long maxRecords, JobRecordHandler handler)
+      throws SQLException, IOException {
+    long count = 0;
+
+    String where = filter.toSqlWhereClause();
+    String query =
+        withResultAggregates(
+            "select * from (select * from phaser_owner.job"
+                + where
+                + " order by job_id desc) where ROWNUM <= ?");
+
+    LOGGER.log(Level.FINEST, "Executing query: {0}", query);
+
+    try (Connection con = getConnection();
+        PreparedStatement stmt = con.prepareStatement(query)) {
+      int parameterIndex = filter.assignStatementParameters(stmt);
+      stmt.setLong(parameterIndex, maxRecords);
+      stmt.setFetchSize(exportFetchSize);
+
+      long start = System.currentTimeMillis();
+      ResultSet rs = stmt.executeQuery();
+      rs.setFetchSize(exportFetchSize);
+
+      while (rs.next()) {
+        handler.handleJob(toJobRecord(rs));
+        count++;
+      }
+
+      long end = System.currentTimeMillis();
+
+      LOGGER.log(
+          Level.FINEST,
+          "Streamed {0} jobs in {1} seconds",
+          new Object[] {count, (end - start) / 1000.0});
+    }
+
+    return count;
+  }
+
+  /**
+   * Queries the smallest and largest result IDs and the number of results matching the supplied
+   * filter. This is used to split a large result set into ID range partitions.
+   *
+   * @param filter The filter
+   * @return The range
+   * @throws SQLException If unable to query the database
+   */
+  ResultIdRange findResultIdRange(ResultFilter filter) throws SQLException {
+    String where = filter.toSqlWhereClause();
+    String query =
+        "select min(result_id) min_id, max(result_id) max_id, count(*) num_records"
+            + " from phaser_owner.result"
+            + where;
+
+    LOGGER.log(Level.FINEST, "Executing query: {0}", query);
+
+    try (Connection con = getConnection();
+        PreparedStatement stmt = con.prepareStatement(query)) {
+      filter.assignStatementParameters(stmt);
+
+      ResultSet rs = stmt.executeQuery();
+      rs.next();
+
+      BigDecimal min = rs.getBigDecimal("MIN_ID");
+      BigDecimal max = rs.getBigDecimal("MAX_ID");
+      long count = rs.getLong("NUM_RECORDS");
+
+      return new ResultIdRange(
+          min == null ? null : min.toBigInteger(), max == null ? null : max.toBigInteger(), count);
+    }
+  }
+
+  /**
+   * Streams the results matching the supplied filter with a result ID in the inclusive range [low,
+   * high], most recent first, to a handler.
+   *
+   * @param filter The filter
+   * @param low The smallest result ID
+   * @param high The largest result ID
+   * @param handler The handler
+   * @return The number of records streamed
+   * @throws SQLException If unable to query the database
+   * @throws IOException If the handler is unable to handle a record
+   */
+  long streamResultRange(
+      ResultFilter filter, BigInteger low, BigInteger high, ResultRecordHandler handler)
+      throws SQLException, IOException {
+    long count = 0;
+
+    String where = filter.toSqlWhereClause();
+    String query =
+        "select * from phaser_owner.result"
+            + (where.isEmpty() ? " where " : where + " and ")
+            + "result_id between ? and ? order by result_id desc";
+
+    LOGGER.log(Level.FINEST, "Executing query: {0}", query);
+
+    try (Connection con = getConnection();
+        PreparedStatement stmt = con.prepareStatement(query)) {
+      int parameterIndex = filter.assignStatementParameters(stmt);
+      stmt.setBigDecimal(parameterIndex++, new BigDecimal(low));
+      stmt.setBigDecimal(parameterIndex, new BigDecimal(high));
+      stmt.setFetchSize(exportFetchSize);
+
+      ResultSet rs = stmt.executeQuery();
+      rs.setFetchSize(exportFetchSize);
+
+      while (rs.next()) {
+        handler.handleResult(toResultRecord(rs));
+        count++;
+      }
+    }
+
+    return count;
+  }
+
+  /** The smallest and largest result IDs and the number of results matching a filter. */
+  static final class ResultIdRange {
+    private final BigInteger min;
+    private final BigInteger max;
+    private final long count;
+
+    private ResultIdRange(BigInteger min, BigInteger max, long count) {
+      this.min = min;
+      this.max = max;
+      this.count = count;
+    }
+
+    /**
+     * Return the smallest result ID.
+     *
+     * @return The ID or null if there are no results
+     */
+    BigInteger getMin() {
+      return min;
+    }
+
+    /**
+     * Return the largest result ID.
+     *
+     * @return The ID or null if there are no results
+     */
+    BigInteger getMax() {
+      return max;
+    }
+
+    /**
+     * Return the number of results.
+     *
+     * @return The count
+     */
+    long getCount() {
+      return count;
+    }
+  }
+
   /**
    * Queries the database for a count of jobs based on the supplied filter.
    *
@@ -162,9 +921,8 @@ final class OracleService {
 
     LOGGER.log(Level.FINEST, "Executing query: {0}", query);
 
-    try (Connection con = getConnection()) {
-      PreparedStatement stmt = con.prepareStatement(query);
-
+    try (Connection con = getConnection();
+        PreparedStatement stmt = con.prepareStatement(query)) {
       filter.assignStatementParameters(stmt);
 
       long start = System.currentTimeMillis();
@@ -193,24 +951,15 @@ final class OracleService {
     List<JobRecord> records = new ArrayList<>();
 
     String where = filter.toSqlWhereClause();
-    String query =
-        "select j.*, (select count(*) from phaser_owner.result r where r.job_id = j.job_id) num_records from phaser_owner.job j"
-            + where
-            + " order by job_id desc";
-    String paginatedQuery =
-        "select * from (select z.*, ROWNUM rnum from ("
-            + query
-            + ") z where ROWNUM <= "
-            + (paginator.getOffset() + paginator.getMaxPerPage())
-            + ") where rnum > "
-            + paginator.getOffset();
+    String query = "select * from phaser_owner.job" + where + " order by job_id desc";
+    String paginatedQuery = withResultAggregates(paginate(query));
 
     LOGGER.log(Level.FINEST, "Executing query: {0}", paginatedQuery);
 
-    try (Connection con = getConnection()) {
-      PreparedStatement stmt = con.prepareStatement(paginatedQuery);
-
-      filter.assignStatementParameters(stmt);
+    try (Connection con = getConnection();
+        PreparedStatement stmt = con.prepareStatement(paginatedQuery)) {
+      int parameterIndex = filter.assignStatementParameters(stmt);
+      assignPageParameters(stmt, parameterIndex, paginator);
 
       long start = System.currentTimeMillis();
       ResultSet rs = stmt.executeQuery();
@@ -219,51 +968,78 @@ final class OracleService {
       LOGGER.log(Level.FINEST, "Query Result Obtained in {0} seconds", (end - start) / 1000.0);
 
       while (rs.next()) {
-        long jobId = rs.getLong("JOB_ID");
-        Date startDate = rs.getDate("START_DATE");
-        Date endDate = rs.getDate("END_DATE");
-        float maxPhaseError = rs.getFloat("MAX_PHASE_ERROR");
-        float maxMomentumError = rs.getFloat("MAX_MOMENTUM_ERROR");
-        int kickSamples = rs.getInt("KICK_SAMPLES");
-        boolean continuous = "Y".equals(rs.getString("CONTINUOUS_YN"));
-        boolean correct = "Y".equals(rs.getString("CORRECT_INCREMENTALLY_YN"));
-        long numRecords = rs.getLong("NUM_RECORDS");
-
-        records.add(
-            new JobRecord(
-                jobId,
-                startDate,
-                endDate,
-                continuous,
-                correct,
-                maxPhaseError,
-                maxMomentumError,
-                kickSamples,
-                numRecords));
+        records.add(toJobRecord(rs));
       }
     }
 
     return records;
   }
 
+  /**
+   * Queries the database for the ID of the most recent job matching the supplied filter. This is
+   * answered from the primary key index without visiting the RESULT table.
+   *
+   * @param filter The filter
+   * @return The job ID or null if no jobs match
+   * @throws SQLException If unable to query the database
+   */
+  Long findMostRecentJobId(JobFilter filter) throws SQLException {
+    Long jobId = null;
+
+    String where = filter.toSqlWhereClause();
+    String query = "select max(job_id) from phaser_owner.job" + where;
+
+    LOGGER.log(Level.FINEST, "Executing query: {0}", query);
+
+    try (Connection con = getConnection();
+        PreparedStatement stmt = con.prepareStatement(query)) {
+      filter.assignStatementParameters(stmt);
+
+      long start = System.currentTimeMillis();
+      ResultSet rs = stmt.executeQuery();
+      long end = System.currentTimeMillis();
+
+      LOGGER.log(Level.FINEST, "Query Result Obtained in {0} seconds", (end - start) / 1000.0);
+
+      if (rs.next()) {
+        jobId = rs.getLong(1);
+        if (rs.wasNull()) {
+          jobId = null;
+        }
+      }
+    }
+
+    return jobId;
+  }
+
   /**
    * Queries the results database table for the most recent correction date of each cavity having
-   * result data.
+   * result data. If a since date is provided only corrections made on or after that date are
+   * considered, which allows a caller to keep an index up-to-date incrementally.
    *
+   * @param since The earliest correction date of interest, or null for all
    * @return A list of cavities with their last correction date
    * @throws SQLException If unable to query the results
    */
-  List<CavityWithLastCorrection> findCavitiesWithLastCorrection() throws SQLException {
+  List<CavityWithLastCorrection> findCavitiesWithLastCorrection(Date since) throws SQLException {
     List<CavityWithLastCorrection> records = new ArrayList<>();
 
     String query =
-        "select cavity, max(correction_date) as "
-            + "correction_date from phaser_owner.result group by cavity";
+        "select cavity, max(correction_date) as correction_date from phaser_owner.result";
+
+    if (since != null) {
+      query = query + " where correction_date >= ?";
+    }
+
+    query = query + " group by cavity";
 
     LOGGER.log(Level.FINEST, "Executing query: {0}", query);
 
-    try (Connection con = getConnection()) {
-      PreparedStatement stmt = con.prepareStatement(query);
+    try (Connection con = getConnection();
+        PreparedStatement stmt = con.prepareStatement(query)) {
+      if (since != null) {
+        stmt.setTimestamp(1, new Timestamp(since.getTime()));
+      }
 
       long start = System.currentTimeMillis();
       ResultSet rs = stmt.executeQuery();
@@ -273,9 +1049,11 @@ final class OracleService {
 
       while (rs.next()) {
         String cavity = rs.getString("CAVITY");
-        Date correctionDate = rs.getDate("CORRECTION_DATE");
+        Timestamp correctionDate = rs.getTimestamp("CORRECTION_DATE");
 
-        records.add(new CavityWithLastCorrection(cavity, correctionDate));
+        records.add(
+            new CavityWithLastCorrection(
+                cavity, correctionDate == null ? null : new Date(correctionDate.getTime())));
       }
     }
 
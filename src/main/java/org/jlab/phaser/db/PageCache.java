@@ -0,0 +1,254 @@
+package org.jlab.phaser.db;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A bounded least-recently-used cache of query pages keyed by filter and page position.
+ *
+ * <p>The cache is bounded by the total number of records held rather than the number of pages so
+ * that memory use doesn't depend on the page size. Entries expire after a time-to-live so that rows
+ * written by the server are eventually visible even without an explicit invalidation, and the whole
+ * cache can be invalidated when the client knows the underlying data changed.
+ *
+ * <p>Each invalidation starts a new generation. A caller reads the generation before running its
+ * query and passes it to put, so a page queried before an invalidation but stored after it is
+ * discarded rather than resurrecting stale data.
+ *
+ * <p>This class has package visibility as it is intended to be used by the OracleJdbcConsole only.
+ *
+ * @param <F> The filter type, which must have value equality
+ * @param <P> The page type
+ */
+final class PageCache<F, P> {
+
+  private final String name;
+  private final long maxRecords;
+  private final long ttlNanos;
+
+  private final LinkedHashMap<PageKey<F>, CachedPage<P>> pages =
+      new LinkedHashMap<>(16, 0.75f, true);
+
+  private long cachedRecords = 0;
+  private long generation = 0;
+
+  private final AtomicLong hitCount = new AtomicLong();
+  private final AtomicLong missCount = new AtomicLong();
+
+  /**
+   * Create a new PageCache.
+   *
+   * @param name The name used when logging
+   * @param maxRecords The maximum number of records held across all pages; zero to disable
+   * @param ttlSeconds The number of seconds a page is served from the cache
+   */
+  PageCache(String name, long maxRecords, long ttlSeconds) {
+    this.name = name;
+    this.maxRecords = Math.max(0, maxRecords);
+    this.ttlNanos = TimeUnit.SECONDS.toNanos(ttlSeconds);
+  }
+
+  /**
+   * Return the cached page for the filter and page position, or null if it isn't cached or has
+   * expired. A null return is counted as a miss.
+   *
+   * @param filter The filter
+   * @param offset The page offset
+   * @param maxPerPage The page size
+   * @return The page or null
+   */
+  synchronized P get(F filter, long offset, long maxPerPage) {
+    P page = lookup(filter, offset, maxPerPage);
+
+    if (page == null) {
+      missCount.incrementAndGet();
+    }
+
+    return page;
+  }
+
+  /**
+   * Return the cached page for the filter and page position, or null if it isn't cached or has
+   * expired. Unlike get a null return isn't counted as a miss, which makes this suitable for
+   * checking whether a query can be avoided before deciding how to run it.
+   *
+   * @param filter The filter
+   * @param offset The page offset
+   * @param maxPerPage The page size
+   * @return The page or null
+   */
+  synchronized P peek(F filter, long offset, long maxPerPage) {
+    return lookup(filter, offset, maxPerPage);
+  }
+
+  private P lookup(F filter, long offset, long maxPerPage) {
+    if (maxRecords == 0) {
+      return null;
+    }
+
+    PageKey<F> key = new PageKey<>(filter, offset, maxPerPage);
+    CachedPage<P> cached = pages.get(key);
+
+    if (cached != null && System.nanoTime() - cached.created > ttlNanos) {
+      remove(key);
+      cached = null;
+    }
+
+    if (cached == null) {
+      return null;
+    }
+
+    hitCount.incrementAndGet();
+    return cached.page;
+  }
+
+  /**
+   * Return whether an unexpired page for the filter and page position is cached. Neither a hit nor
+   * a miss is counted.
+   *
+   * @param filter The filter
+   * @param offset The page offset
+   * @param maxPerPage The page size
+   * @return true if cached
+   */
+  synchronized boolean contains(F filter, long offset, long maxPerPage) {
+    CachedPage<P> cached = pages.get(new PageKey<>(filter, offset, maxPerPage));
+    return cached != null && System.nanoTime() - cached.created <= ttlNanos;
+  }
+
+  /**
+   * Return the current generation, which changes whenever the cache is invalidated. Read it before
+   * querying a page to be put.
+   *
+   * @return The generation
+   */
+  synchronized long getGeneration() {
+    return generation;
+  }
+
+  /**
+   * Add a page to the cache, evicting the least recently used pages as necessary to stay within the
+   * record bound. The page is ignored if the cache has been invalidated since the given generation
+   * was read, as it may then hold data from before the invalidation.
+   *
+   * @param filter The filter
+   * @param offset The page offset
+   * @param maxPerPage The page size
+   * @param page The page
+   * @param recordCount The number of records on the page
+   * @param queryGeneration The generation read before the page was queried
+   */
+  synchronized void put(
+      F filter, long offset, long maxPerPage, P page, int recordCount, long queryGeneration) {
+    if (queryGeneration != generation || recordCount > maxRecords) {
+      return;
+    }
+
+    PageKey<F> key = new PageKey<>(filter, offset, maxPerPage);
+
+    remove(key);
+
+    pages.put(key, new CachedPage<>(page, recordCount));
+    cachedRecords = cachedRecords + recordCount;
+
+    Iterator<CachedPage<P>> iterator = pages.values().iterator();
+
+    while (cachedRecords > maxRecords && iterator.hasNext()) {
+      cachedRecords = cachedRecords - iterator.next().recordCount;
+      iterator.remove();
+    }
+  }
+
+  /** Discards all cached pages and starts a new generation. */
+  synchronized void invalidate() {
+    generation++;
+    pages.clear();
+    cachedRecords = 0;
+  }
+
+  /**
+   * Return the number of lookups served from the cache.
+   *
+   * @return The hit count
+   */
+  long getHitCount() {
+    return hitCount.get();
+  }
+
+  /**
+   * Return the number of lookups which had to query the database.
+   *
+   * @return The miss count
+   */
+  long getMissCount() {
+    return missCount.get();
+  }
+
+  private void remove(PageKey<F> key) {
+    CachedPage<P> removed = pages.remove(key);
+
+    if (removed != null) {
+      cachedRecords = cachedRecords - removed.recordCount;
+    }
+  }
+
+  @Override
+  public synchronized String toString() {
+    return name
+        + " pages: "
+        + pages.size()
+        + ", records: "
+        + cachedRecords
+        + ", hits: "
+        + hitCount.get()
+        + ", misses: "
+        + missCount.get();
+  }
+
+  /** A cached page along with its size and creation time. */
+  private static final class CachedPage<P> {
+    private final P page;
+    private final int recordCount;
+    private final long created = System.nanoTime();
+
+    private CachedPage(P page, int recordCount) {
+      this.page = page;
+      this.recordCount = recordCount;
+    }
+  }
+
+  /** The position of a page within the records matching a filter. */
+  private static final class PageKey<F> {
+    private final F filter;
+    private final long offset;
+    private final long maxPerPage;
+
+    private PageKey(F filter, long offset, long maxPerPage) {
+      this.filter = filter;
+      this.offset = offset;
+      this.maxPerPage = maxPerPage;
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(filter, offset, maxPerPage);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+      if (this == obj) {
+        return true;
+      }
+      if (!(obj instanceof PageKey)) {
+        return false;
+      }
+      PageKey<?> other = (PageKey<?>) obj;
+      return offset == other.offset
+          && maxPerPage == other.maxPerPage
+          && Objects.equals(filter, other.filter);
+    }
+  }
+}
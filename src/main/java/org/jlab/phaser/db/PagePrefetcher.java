@@ -0,0 +1,167 @@
+package org.jlab.phaser.db;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Speculatively runs page queries on a single low priority background thread.
+ *
+ * <p>Prefetches are grouped by channel (for example result pages and job pages) and each channel
+ * tracks the filter it is currently prefetching for. When a prefetch is requested with a different
+ * filter the pending prefetches for the old filter are cancelled, since the user is no longer
+ * browsing those pages. The queue is bounded and the oldest pending prefetch is discarded when it
+ * is full, so a user paging quickly never builds up a backlog. Prefetched pages are stored in the
+ * page cache, which bounds their memory.
+ *
+ * <p>This class has package visibility as it is intended to be used by the OracleJdbcConsole only.
+ */
+final class PagePrefetcher {
+
+  private static final Logger LOGGER = Logger.getLogger(PagePrefetcher.class.getName());
+
+  private final ThreadPoolExecutor executor =
+      new ThreadPoolExecutor(
+          1,
+          1,
+          0L,
+          TimeUnit.MILLISECONDS,
+          new ArrayBlockingQueue<Runnable>(4),
+          new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable r) {
+              Thread thread = new Thread(r, "database-page-prefetch");
+              thread.setDaemon(true);
+              thread.setPriority(Thread.MIN_PRIORITY);
+              return thread;
+            }
+          },
+          new RejectedExecutionHandler() {
+            @Override
+            public void rejectedExecution(Runnable r, ThreadPoolExecutor e) {
+              if (!e.isShutdown()) {
+                Runnable oldest = e.getQueue().poll();
+                if (oldest instanceof Future) {
+                  ((Future<?>) oldest).cancel(false);
+                }
+                e.execute(r);
+              }
+            }
+          });
+
+  private final Channel[] channels;
+
+  /**
+   * Create a new PagePrefetcher.
+   *
+   * @param channelCount The number of independent channels
+   */
+  PagePrefetcher(int channelCount) {
+    channels = new Channel[channelCount];
+
+    for (int i = 0; i < channelCount; i++) {
+      channels[i] = new Channel();
+    }
+  }
+
+  /**
+   * Queues a prefetch. If the filter differs from the filter of the previous prefetch on the same
+   * channel then pending prefetches on that channel are cancelled first.
+   *
+   * @param channel The channel index
+   * @param filter The filter the prefetch is for
+   * @param task The query to run
+   */
+  void prefetch(int channel, Object filter, final PrefetchTask task) {
+    final Channel c = channels[channel];
+
+    synchronized (c) {
+      if (!Objects.equals(c.filter, filter)) {
+        c.cancelPending();
+        c.filter = filter;
+      }
+
+      c.prune();
+
+      if (executor.isShutdown()) {
+        return;
+      }
+
+      c.pending.add(
+          executor.submit(
+              new Runnable() {
+                @Override
+                public void run() {
+                  try {
+                    task.run();
+                  } catch (Exception e) {
+                    LOGGER.log(Level.FINE, "Unable to prefetch page", e);
+                  }
+                }
+              }));
+    }
+  }
+
+  /**
+   * Cancels pending prefetches on every channel, for example because the pages they would query are
+   * out of date. A prefetch already running finishes, but the page cache discards its page if the
+   * cache was invalidated while it ran.
+   */
+  void cancelAll() {
+    for (Channel c : channels) {
+      synchronized (c) {
+        c.cancelPending();
+        c.filter = null;
+      }
+    }
+
+    executor.purge(); // Free the queue slots held by the cancelled prefetches
+  }
+
+  /** Cancels pending prefetches and stops the background thread. */
+  void close() {
+    executor.shutdownNow();
+  }
+
+  /** A speculative page query. */
+  interface PrefetchTask {
+    /**
+     * Run the query and cache the page.
+     *
+     * @throws Exception If unable to query the page
+     */
+    void run() throws Exception;
+  }
+
+  /** The prefetch state of one kind of page. */
+  private static final class Channel {
+    private Object filter;
+    private final List<Future<?>> pending = new ArrayList<>();
+
+    private void cancelPending() {
+      for (Future<?> future : pending) {
+        future.cancel(false); // Don't interrupt a query in progress; it just won't be used
+      }
+      pending.clear();
+    }
+
+    private void prune() {
+      Iterator<Future<?>> iterator = pending.iterator();
+
+      while (iterator.hasNext()) {
+        if (iterator.next().isDone()) {
+          iterator.remove();
+        }
+      }
+    }
+  }
+}
@@ -0,0 +1,243 @@
+package org.jlab.phaser.db;
+
+import java.io.IOException;
+import java.math.BigInteger;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import org.jlab.phaser.ResultRecordHandler;
+import org.jlab.phaser.model.ResultFilter;
+import org.jlab.phaser.model.ResultRecord;
+
+/**
+ * Streams a large result set by fetching result ID range partitions concurrently over several
+ * pooled connections and merging them back into descending result ID order.
+ *
+ * <p>The ID range of the filtered results is split into equal partitions, several per fetch thread,
+ * which are queued to the fetch threads from highest IDs to lowest. Each partition fetches into its
+ * own bounded buffer and the calling thread drains the buffers in partition order into the handler.
+ * While the handler works through one partition the following partitions are already being fetched,
+ * so throughput scales with the number of database sessions. Only as many partitions as there are
+ * fetch threads are queued at once, and the next is queued only when the calling thread finishes
+ * draining one, so a partition which fetches faster than it is drained can't leave its full buffer
+ * behind while its thread moves on. Memory is therefore bounded by the number of fetch threads
+ * times the buffer capacity.
+ *
+ * <p>This class has package visibility as it is intended to be used by the OracleJdbcConsole only.
+ */
+final class PartitionedResultFetch {
+
+  private static final Logger LOGGER = Logger.getLogger(PartitionedResultFetch.class.getName());
+
+  /** Partitions per fetch thread; more partitions balance uneven ID distributions better. */
+  private static final int PARTITIONS_PER_THREAD = 4;
+
+  /** Marks the end of a partition; compared by identity. */
+  private static final Object END = new Object();
+
+  private final OracleService service;
+  private final int parallelism;
+  private final long minRecords;
+  private final int bufferCapacity;
+
+  private volatile boolean stopped = false;
+
+  /**
+   * Create a new PartitionedResultFetch.
+   *
+   * @param service The OracleService
+   * @param parallelism The number of concurrent fetch threads (and connections)
+   * @param minRecords The minimum number of results before the fetch is partitioned
+   * @param bufferCapacity The number of records buffered per partition
+   */
+  PartitionedResultFetch(
+      OracleService service, int parallelism, long minRecords, int bufferCapacity) {
+    this.service = service;
+    this.parallelism = parallelism;
+    this.minRecords = minRecords;
+    this.bufferCapacity = bufferCapacity;
+  }
+
+  /**
+   * Streams the results matching the filter, most recent first, to a handler. Small result sets are
+   * streamed over a single cursor.
+   *
+   * @param filter The filter
+   * @param maxRecords The maximum number of records to stream
+   * @param handler The handler
+   * @return The number of records streamed
+   * @throws SQLException If unable to query the database
+   * @throws IOException If the handler is unable to handle a record
+   */
+  long stream(ResultFilter filter, long maxRecords, ResultRecordHandler handler)
+      throws SQLException, IOException {
+    OracleService.ResultIdRange range = service.findResultIdRange(filter);
+
+    if (range.getCount() < minRecords || parallelism < 2) {
+      return service.streamResults(filter, maxRecords, handler);
+    }
+
+    List<Partition> partitions =
+        split(filter, range.getMin(), range.getMax(), parallelism * PARTITIONS_PER_THREAD);
+
+    LOGGER.log(
+        Level.FINEST,
+        "Fetching {0} results in {1} partitions over {2} connections",
+        new Object[] {range.getCount(), partitions.size(), parallelism});
+
+    ExecutorService executor =
+        Executors.newFixedThreadPool(
+            parallelism,
+            new ThreadFactory() {
+              private final AtomicInteger number = new AtomicInteger();
+
+              @Override
+              public Thread newThread(Runnable r) {
+                Thread thread = new Thread(r, "export-fetch-" + number.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+              }
+            });
+
+    long count = 0;
+
+    try {
+      // A fixed pool runs tasks in submission order so the partitions needed first start first
+      int window = Math.min(parallelism, partitions.size());
+
+      for (int i = 0; i < window; i++) {
+        executor.execute(partitions.get(i));
+      }
+
+      for (int i = 0; i < partitions.size(); i++) {
+        Partition partition = partitions.get(i);
+        Object item;
+
+        while ((item = partition.take()) != END) {
+          if (count >= maxRecords) {
+            return count;
+          }
+
+          handler.handleResult((ResultRecord) item);
+          count++;
+        }
+
+        // The partition is drained so its buffer is released; start the next one in its place
+        if (i + window < partitions.size()) {
+          executor.execute(partitions.get(i + window));
+        }
+      }
+
+      return count;
+    } finally {
+      stopped = true;
+      executor.shutdownNow();
+    }
+  }
+
+  private List<Partition> split(
+      ResultFilter filter, BigInteger min, BigInteger max, int partitionCount) {
+    List<Partition> partitions = new ArrayList<>();
+
+    BigInteger span = max.subtract(min).add(BigInteger.ONE);
+    BigInteger size =
+        span.add(BigInteger.valueOf(partitionCount - 1)).divide(BigInteger.valueOf(partitionCount));
+
+    BigInteger high = max;
+
+    while (high.compareTo(min) >= 0) {
+      BigInteger low = high.subtract(size).add(BigInteger.ONE).max(min);
+      partitions.add(new Partition(filter, low, high));
+      high = low.subtract(BigInteger.ONE);
+    }
+
+    return partitions;
+  }
+
+  /** One result ID range, fetched into a bounded buffer. */
+  private final class Partition implements Runnable {
+    private final ResultFilter filter;
+    private final BigInteger low;
+    private final BigInteger high;
+    private final BlockingQueue<Object> buffer = new ArrayBlockingQueue<>(bufferCapacity);
+    private volatile Exception failure;
+
+    private Partition(ResultFilter filter, BigInteger low, BigInteger high) {
+      this.filter = filter;
+      this.low = low;
+      this.high = high;
+    }
+
+    @Override
+    public void run() {
+      if (stopped) {
+        return;
+      }
+
+      try {
+        service.streamResultRange(
+            filter,
+            low,
+            high,
+            new ResultRecordHandler() {
+              @Override
+              public void handleResult(ResultRecord record) {
+                put(record);
+              }
+            });
+
+        put(END);
+      } catch (CancellationException e) {
+        // Stopped; nobody is waiting for this partition
+      } catch (SQLException | IOException | RuntimeException e) {
+        failure = e;
+      }
+    }
+
+    /** Buffers an item, giving up (which closes the cursor) if the fetch is stopped. */
+    private void put(Object item) {
+      try {
+        while (!buffer.offer(item, 100, TimeUnit.MILLISECONDS)) {
+          if (stopped) {
+            throw new CancellationException("Partitioned fetch stopped");
+          }
+        }
+      } catch (InterruptedException e) {
+        throw new CancellationException("Partitioned fetch interrupted");
+      }
+    }
+
+    /** Takes the next item, rethrowing a fetch failure. */
+    private Object take() throws SQLException, IOException {
+      try {
+        Object item;
+
+        while ((item = buffer.poll(100, TimeUnit.MILLISECONDS)) == null) {
+          Exception e = failure;
+          if (e instanceof SQLException) {
+            throw (SQLException) e;
+          } else if (e instanceof IOException) {
+            throw (IOException) e;
+          } else if (e instanceof RuntimeException) {
+            throw (RuntimeException) e;
+          }
+        }
+
+        return item;
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new CancellationException("Partitioned fetch interrupted");
+      }
+    }
+  }
+}
@@ -0,0 +1,281 @@
+package org.jlab.phaser.export;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.zip.GZIPOutputStream;
+import org.jlab.phaser.DatabaseConsole;
+import org.jlab.phaser.JobRecordHandler;
+import org.jlab.phaser.ResultRecordHandler;
+import org.jlab.phaser.exception.CommandException;
+import org.jlab.phaser.model.JobFilter;
+import org.jlab.phaser.model.JobRecord;
+import org.jlab.phaser.model.PhaserOutcome;
+import org.jlab.phaser.model.ResultFilter;
+import org.jlab.phaser.model.ResultRecord;
+
+/**
+ * Exports Phaser results and jobs as comma or tab separated values, optionally gzip compressed.
+ *
+ * <p>The output is intended for scripts rather than people: there is a single header row, numbers
+ * are written without grouping separators, and dates are written in a sortable format. Results and
+ * jobs are streamed from the database through an ExportPipeline into a large buffer in front of a
+ * FileChannel so that export runs at roughly the speed of the disk (or the compressor) regardless
+ * of the number of rows.
+ *
+ * <p>Each export creates its own date formatter, so a single instance of this class may be shared
+ * by multiple threads.
+ */
+public class DelimitedResultsService {
+
+  /** The sortable date format used in exported files. */
+  public static final String DATE_FORMAT = "yyyy-MM-dd HH:mm:ss";
+
+  private static final int BUFFER_SIZE = 64 * 1024;
+
+  /** The supported output formats. */
+  public enum Format {
+    /** Comma separated values with RFC 4180 quoting. */
+    CSV(',', "csv"),
+    /** Tab separated values with tabs and line breaks in values replaced by spaces. */
+    TSV('\t', "tsv");
+
+    private final char delimiter;
+    private final String extension;
+
+    Format(char delimiter, String extension) {
+      this.delimiter = delimiter;
+      this.extension = extension;
+    }
+
+    /**
+     * Return the file name extension (without the dot).
+     *
+     * @return The extension
+     */
+    public String getExtension() {
+      return extension;
+    }
+  }
+
+  /**
+   * Export the results matching a filter to a file.
+   *
+   * @param pipeline The pipeline which fetches and writes the records
+   * @param console The database console
+   * @param filter The filter
+   * @param maxRecords The maximum number of records to export
+   * @param file The file
+   * @param format The format
+   * @param gzip true to gzip compress the file
+   * @return The number of results exported
+   * @throws CommandException If unable to query the results
+   * @throws IOException If unable to write the file
+   */
+  public long exportResults(
+      ExportPipeline pipeline,
+      DatabaseConsole console,
+      ResultFilter filter,
+      long maxRecords,
+      Path file,
+      Format format,
+      boolean gzip)
+      throws CommandException, IOException {
+    try (Writer writer = open(file, gzip)) {
+      final RowWriter rows = new RowWriter(writer, format);
+
+      rows.value("RESULT_ID")
+          .value("CAVITY")
+          .value("PHASE_ERROR")
+          .value("OUTCOME")
+          .value("PHASE")
+          .value("START_DATE")
+          .value("END_DATE")
+          .value("CORRECTION_DATE")
+          .value("CORRECTION_ERROR_REASON")
+          .endRow();
+
+      return pipeline.run(
+          console,
+          filter,
+          maxRecords,
+          new ResultRecordHandler() {
+            @Override
+            public void handleResult(ResultRecord record) throws IOException {
+              rows.value(record.getResultId())
+                  .value(record.getCavity())
+                  .value(record.getPhaseError())
+                  .value(record.getOutcome())
+                  .value(record.getPhase())
+                  .value(record.getStartDate())
+                  .value(record.getEndDate())
+                  .value(record.getCorrectionDate())
+                  .value(record.getCorrectionErrorReason())
+                  .endRow();
+            }
+          });
+    }
+  }
+
+  /**
+   * Export the jobs matching a filter to a file.
+   *
+   * @param pipeline The pipeline which fetches and writes the records
+   * @param console The database console
+   * @param filter The filter
+   * @param maxRecords The maximum number of records to export
+   * @param file The file
+   * @param format The format
+   * @param gzip true to gzip compress the file
+   * @return The number of jobs exported
+   * @throws CommandException If unable to query the jobs
+   * @throws IOException If unable to write the file
+   */
+  public long exportJobs(
+      ExportPipeline pipeline,
+      DatabaseConsole console,
+      JobFilter filter,
+      long maxRecords,
+      Path file,
+      Format format,
+      boolean gzip)
+      throws CommandException, IOException {
+    try (Writer writer = open(file, gzip)) {
+      final RowWriter rows = new RowWriter(writer, format);
+
+      rows.value("JOB_ID")
+          .value("START_DATE")
+          .value("END_DATE")
+          .value("CONTINUOUS")
+          .value("CORRECT")
+          .value("MAX_PHASE_ERROR")
+          .value("MAX_MOMENTUM_ERROR")
+          .value("KICK_SAMPLES")
+          .value("NUM_RESULTS")
+          .value("LARGEST_PHASE_ERROR");
+
+      for (PhaserOutcome outcome : PhaserOutcome.values()) {
+        rows.value("NUM_" + outcome.name());
+      }
+
+      rows.endRow();
+
+      return pipeline.run(
+          console,
+          filter,
+          maxRecords,
+          new JobRecordHandler() {
+            @Override
+            public void handleJob(JobRecord record) throws IOException {
+              rows.value(record.getId())
+                  .value(record.getStartDate())
+                  .value(record.getEndDate())
+                  .value(record.isContinuous())
+                  .value(record.isCorrect())
+                  .value(record.getMaxPhaseError())
+                  .value(record.getMaxMomentumError())
+                  .value(record.getKickSamples())
+                  .value(record.getCount())
+                  .value(record.getLargestPhaseError());
+
+              for (PhaserOutcome outcome : PhaserOutcome.values()) {
+                rows.value(record.getOutcomeCount(outcome));
+              }
+
+              rows.endRow();
+            }
+          });
+    }
+  }
+
+  private Writer open(Path file, boolean gzip) throws IOException {
+    FileChannel channel =
+        FileChannel.open(
+            file,
+            StandardOpenOption.CREATE,
+            StandardOpenOption.TRUNCATE_EXISTING,
+            StandardOpenOption.WRITE);
+
+    OutputStream out = Channels.newOutputStream(channel);
+
+    try {
+      if (gzip) {
+        out = new GZIPOutputStream(out, BUFFER_SIZE);
+      } else {
+        out = new BufferedOutputStream(out, BUFFER_SIZE);
+      }
+    } catch (IOException e) {
+      out.close();
+      throw e;
+    }
+
+    return new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), BUFFER_SIZE);
+  }
+
+  /** Writes delimited values one row at a time. Not thread safe. */
+  private static final class RowWriter {
+    private final Writer writer;
+    private final Format format;
+    private final SimpleDateFormat dateFormatter = new SimpleDateFormat(DATE_FORMAT);
+    private boolean firstInRow = true;
+
+    private RowWriter(Writer writer, Format format) {
+      this.writer = writer;
+      this.format = format;
+    }
+
+    private RowWriter value(Object value) throws IOException {
+      if (!firstInRow) {
+        writer.write(format.delimiter);
+      }
+
+      firstInRow = false;
+
+      if (value == null) {
+        return this;
+      }
+
+      if (value instanceof Date) {
+        writer.write(dateFormatter.format((Date) value));
+      } else if (value instanceof Number || value instanceof Boolean) {
+        writer.write(value.toString());
+      } else if (value instanceof Enum) {
+        writer.write(((Enum<?>) value).name());
+      } else {
+        text(value.toString());
+      }
+
+      return this;
+    }
+
+    private void text(String value) throws IOException {
+      if (format == Format.TSV) {
+        writer.write(value.replace('\t', ' ').replace('\r', ' ').replace('\n', ' '));
+      } else if (value.indexOf(',') >= 0
+          || value.indexOf('"') >= 0
+          || value.indexOf('\r') >= 0
+          || value.indexOf('\n') >= 0) {
+        writer.write('"');
+        writer.write(value.replace("\"", "\"\""));
+        writer.write('"');
+      } else {
+        writer.write(value);
+      }
+    }
+
+    private void endRow() throws IOException {
+      writer.write('\n');
+      firstInRow = true;
+    }
+  }
+}
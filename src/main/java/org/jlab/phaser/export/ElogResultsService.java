@@ -1,13 +1,12 @@
 package org.jlab.phaser.export;
 
+import java.io.IOException;
 import java.text.DecimalFormat;
 import java.text.SimpleDateFormat;
-import org.jlab.jlog.Body;
-import org.jlab.jlog.LogEntry;
-import org.jlab.jlog.exception.LogCertificateException;
-import org.jlab.jlog.exception.LogIOException;
-import org.jlab.jlog.exception.LogRuntimeException;
+import org.jlab.phaser.DatabaseConsole;
+import org.jlab.phaser.exception.CommandException;
 import org.jlab.phaser.model.Paginator;
+import org.jlab.phaser.model.ResultFilter;
 import org.jlab.phaser.model.ResultPage;
 import org.jlab.phaser.model.ResultRecord;
 import org.jlab.phaser.swing.generated.PhaserClientFrame;
@@ -15,47 +14,120 @@ import org.jlab.phaser.swing.generated.PhaserClientFrame;
 /**
  * Exports Phaser results to the Jefferson Lab electronic logbook.
  *
+ * <p>The entry body is an HTML table of at most a summary number of the most recent results so that
+ * entries stay quick to build, submit, and render no matter how many results match. When more
+ * results match than fit in the summary the full set is streamed into a gzip compressed CSV file
+ * which is attached to the entry. Entries are written to an ElogSpool rather than submitted
+ * directly, so exporting never waits on the logbook server.
+ *
  * @author ryans
  */
 public class ElogResultsService {
 
+  private static final String TITLE = "Phaser Results";
+
+  private static final String ATTACHMENT_NAME = "phaser-results.csv.gz";
+
+  /** The default maximum number of results shown in the entry body. */
+  public static final int DEFAULT_SUMMARY_ROWS = 100;
+
   /**
-   * Convert results in the form of a ResultPage into an eLog.
+   * Spool an eLog entry for the results matching a filter. The entry is submitted in the background
+   * by the spool.
    *
-   * @param page The ResultPage
+   * @param pipeline The pipeline which fetches and writes the attachment
+   * @param console The database console
+   * @param filter The filter
+   * @param summaryRows The maximum number of results shown in the entry body
+   * @param spool The spool
    * @param logbooks The logbooks to post to
-   * @return The logId
-   * @throws LogRuntimeException If unable to export the results to eLog with no recourse by the API
-   *     user
-   * @throws LogCertificateException If unable to accept the logbook server certificate
-   * @throws LogIOException If unable to export the results to eLog
+   * @return The number of results in the entry, including the attachment
+   * @throws CommandException If unable to query the results
+   * @throws IOException If unable to write the entry to the spool
    */
-  public Long export(ResultPage page, String logbooks)
-      throws LogRuntimeException, LogCertificateException, LogIOException {
-    String title = "Phaser Results";
-    LogEntry entry = new LogEntry(title, logbooks);
-    StringBuilder html = new StringBuilder();
+  public long export(
+      ExportPipeline pipeline,
+      DatabaseConsole console,
+      ResultFilter filter,
+      int summaryRows,
+      ElogSpool spool,
+      String logbooks)
+      throws CommandException, IOException {
+    ResultPage page = console.results(filter, new Paginator(0, 0, summaryRows));
+
+    long count = page.getRecords().size();
+    String attachmentName = null;
+
+    ElogSpool.Draft draft = spool.createDraft();
+
+    try {
+      if (page.getPaginator().getTotalRecords() > count) {
+        attachmentName = ATTACHMENT_NAME;
+        count =
+            new DelimitedResultsService()
+                .exportResults(
+                    pipeline,
+                    console,
+                    filter,
+                    Long.MAX_VALUE,
+                    draft.getDirectory().resolve(attachmentName),
+                    DelimitedResultsService.Format.CSV,
+                    true);
+      }
+
+      spool.enqueue(draft, TITLE, logbooks, toHtml(page, attachmentName), attachmentName);
+    } catch (CommandException | IOException | RuntimeException e) {
+      draft.discard();
+      throw e;
+    }
+
+    return count;
+  }
+
+  /**
+   * Render a page of results as the HTML entry body.
+   *
+   * @param page The ResultPage
+   * @param attachmentName The name of the attached full results file or null if none
+   * @return The HTML
+   */
+  String toHtml(ResultPage page, String attachmentName) {
+    StringBuilder html = new StringBuilder(1024 + page.getRecords().size() * 512);
 
     String count;
     String where = page.getFilter().toHumanWhereClause(PhaserClientFrame.TIMESTAMP_FORMAT);
     Paginator paginator = page.getPaginator();
 
-    if (paginator.getTotalRecords() <= paginator.getMaxPerPage()) {
+    if (paginator.getTotalRecords() <= page.getRecords().size()) {
       count = "{" + paginator.getTotalRecords() + "}";
     } else {
       count =
           "{"
               + paginator.getStartNumber()
               + " - "
-              + paginator.getEndNumber()
+              + (paginator.getStartNumber() + page.getRecords().size() - 1)
               + " of "
               + paginator.getTotalRecords()
               + "}";
     }
 
-    html.append("<h4>Results ").append(escapeXml(where)).append(escapeXml(count)).append("</h4>\n");
+    html.append("<h4>Results ");
+    appendEscaped(html, where);
+    appendEscaped(html, count);
+    html.append("</h4>\n");
     html.append("\n");
 
+    if (attachmentName != null) {
+      html.append("<p>Showing the ")
+          .append(page.getRecords().size())
+          .append(" most recent results; all ")
+          .append(paginator.getTotalRecords())
+          .append(" results are attached as ");
+      appendEscaped(html, attachmentName);
+      html.append(".</p>\n");
+      html.append("\n");
+    }
+
     html.append("<table style=\"border: 1px solid black; box-shadow: 8px 8px 8px #979797;\">\n");
     html.append("<thead>\n");
     html.append("<tr style=\"border-bottom: 1px solid black; background-color: #e8f7ff;\">\n");
@@ -78,79 +150,79 @@ public class ElogResultsService {
     for (ResultRecord record : page.getRecords()) {
       html.append("<tr>\n");
 
-      html.append("<td>").append(escapeXml(record.getCavity())).append("</td>\n");
-
-      String phaseErrorStr = "";
-
-      if (record.getPhaseError() != null) {
-        phaseErrorStr = floatStyle.format(record.getPhaseError());
-      }
-
-      html.append("<td style=\"text-align: right;\">")
-          .append(escapeXml(phaseErrorStr))
-          .append("</td>\n");
-
-      html.append("<td>").append(escapeXml(record.getOutcome().name())).append("</td>\n");
-
-      String phaseStr = "";
-
-      if (record.getPhase() != null) {
-        phaseStr = floatStyle.format(record.getPhase());
-      }
-
-      html.append("<td style=\"text-align: right;\">")
-          .append(escapeXml(phaseStr))
-          .append("</td>\n");
-
-      html.append("<td>")
-          .append(escapeXml(dateStyle.format(record.getStartDate())))
-          .append("</td>\n");
+      appendCell(html, null, record.getCavity());
+      appendCell(
+          html,
+          "right",
+          record.getPhaseError() == null ? "" : floatStyle.format(record.getPhaseError()));
+      appendCell(html, null, record.getOutcome().name());
+      appendCell(
+          html, "right", record.getPhase() == null ? "" : floatStyle.format(record.getPhase()));
+      appendCell(html, null, dateStyle.format(record.getStartDate()));
 
       double duration = (record.getEndDate().getTime() - record.getStartDate().getTime()) / 1000.0;
 
-      html.append("<td style=\"text-align: right;\">")
-          .append(escapeXml(integerStyle.format(duration)))
-          .append("</td>\n");
-
-      String correctionDateStr = "";
-
-      if (record.getCorrectionDate() != null) {
-        correctionDateStr = dateStyle.format(record.getCorrectionDate());
-      }
-
-      html.append("<td>").append(escapeXml(correctionDateStr)).append("</td>\n");
-
-      String correctionErrorReasonStr = "";
+      appendCell(html, "right", integerStyle.format(duration));
+      appendCell(
+          html,
+          null,
+          record.getCorrectionDate() == null ? "" : dateStyle.format(record.getCorrectionDate()));
+      appendCell(html, null, record.getCorrectionErrorReason());
 
-      if (record.getCorrectionErrorReason() != null) {
-        correctionErrorReasonStr = record.getCorrectionErrorReason();
-      }
-
-      html.append("<td>").append(escapeXml(correctionErrorReasonStr)).append("</td>\n");
       html.append("</tr>\n");
     }
 
     html.append("</tbody>\n");
     html.append("</table>\n");
 
-    entry.setBody(html.toString(), Body.ContentType.HTML);
+    return html.toString();
+  }
 
-    Long logId = entry.submitNow();
+  private static void appendCell(StringBuilder html, String align, String value) {
+    if (align == null) {
+      html.append("<td>");
+    } else {
+      html.append("<td style=\"text-align: ").append(align).append(";\">");
+    }
 
-    return logId;
+    appendEscaped(html, value);
+    html.append("</td>\n");
   }
 
-  private String escapeXml(String input) {
-    String output = input;
+  /**
+   * Appends a value with XML special characters replaced by numeric character references, in a
+   * single pass over the value. Appends nothing for null.
+   *
+   * @param out The builder
+   * @param value The value
+   */
+  static void appendEscaped(StringBuilder out, String value) {
+    if (value == null) {
+      return;
+    }
 
-    if (input != null) {
-      output =
-          output.replace("&", "&#038;"); // Must do this one first as & within other replacements
-      output = output.replace("\"", "&#034;");
-      output = output.replace("'", "&#039;");
-      output = output.replace("<", "&#060;");
-      output = output.replace(">", "&#062;");
+    for (int i = 0; i < value.length(); i++) {
+      char c = value.charAt(i);
+
+      switch (c) {
+        case '&':
+          out.append("&#038;");
+          break;
+        case '"':
+          out.append("&#034;");
+          break;
+        case '\'':
+          out.append("&#039;");
+          break;
+        case '<':
+          out.append("&#060;");
+          break;
+        case '>':
+          out.append("&#062;");
+          break;
+        default:
+          out.append(c);
+      }
     }
-    return output;
   }
 }
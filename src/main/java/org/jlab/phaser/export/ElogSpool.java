@@ -0,0 +1,426 @@
+package org.jlab.phaser.export;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import org.jlab.jlog.exception.LogException;
+import org.jlab.jlog.exception.LogRuntimeException;
+
+/**
+ * A persistent local queue of eLog entries drained by a background submitter.
+ *
+ * <p>Each entry is a directory in the spool directory holding the entry properties, the HTML body,
+ * and an optional attachment. Entries are prepared in a draft directory and renamed into the queue
+ * once complete, so a crash never leaves a half written entry queued. Queued entries survive
+ * restarts and are submitted oldest first. When the logbook server can't be reached the oldest
+ * entry is retried with a delay which doubles up to a maximum; entries the server rejects outright
+ * are moved to the failed subdirectory so they don't block the queue.
+ *
+ * <p>All submission work happens on a single daemon thread so callers never wait on the logbook
+ * server.
+ */
+public class ElogSpool {
+
+  private static final Logger LOGGER = Logger.getLogger(ElogSpool.class.getName());
+
+  private static final String DRAFT_PREFIX = "draft-";
+  private static final String FAILED_DIRECTORY = "failed";
+  private static final String PROPERTIES_FILE = "entry.properties";
+  private static final String BODY_FILE = "body.html";
+
+  private final Path directory;
+  private final ElogSubmitter submitter;
+  private final long initialRetryMillis;
+  private final long maxRetryMillis;
+  private final List<ElogSpoolListener> listeners = new CopyOnWriteArrayList<>();
+  private final AtomicInteger sequence = new AtomicInteger();
+  private final ScheduledExecutorService executor =
+      Executors.newSingleThreadScheduledExecutor(
+          new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable r) {
+              Thread thread = new Thread(r, "elog-submitter");
+              thread.setDaemon(true);
+              return thread;
+            }
+          });
+
+  private volatile int pending = 0;
+
+  // The following are confined to the submitter thread
+  private ScheduledFuture<?> retry = null;
+  private long retryMillis;
+  private String problem = null;
+
+  /**
+   * Create a new ElogSpool. Call start to submit entries left over from a previous run.
+   *
+   * @param directory The spool directory, which is created if necessary
+   * @param submitter The submitter
+   * @param initialRetryMillis The delay before the first retry of an entry in milliseconds
+   * @param maxRetryMillis The maximum delay between retries in milliseconds
+   */
+  public ElogSpool(
+      Path directory, ElogSubmitter submitter, long initialRetryMillis, long maxRetryMillis) {
+    this.directory = directory;
+    this.submitter = submitter;
+    this.initialRetryMillis = initialRetryMillis;
+    this.maxRetryMillis = maxRetryMillis;
+    this.retryMillis = initialRetryMillis;
+  }
+
+  /**
+   * Create the spool directory, discard abandoned drafts, and start submitting queued entries.
+   *
+   * @throws IOException If unable to create the spool directory
+   */
+  public void start() throws IOException {
+    Files.createDirectories(directory.resolve(FAILED_DIRECTORY));
+
+    try (DirectoryStream<Path> drafts = Files.newDirectoryStream(directory, DRAFT_PREFIX + "*")) {
+      for (Path draft : drafts) {
+        LOGGER.log(Level.INFO, "Discarding abandoned eLog draft {0}", draft);
+        deleteEntry(draft);
+      }
+    }
+
+    wake();
+  }
+
+  /**
+   * Add a listener.
+   *
+   * @param listener The listener
+   */
+  public void addListener(ElogSpoolListener listener) {
+    listeners.add(listener);
+  }
+
+  /**
+   * Return the number of entries waiting to be submitted.
+   *
+   * @return The number of entries
+   */
+  public int getPendingCount() {
+    return pending;
+  }
+
+  /**
+   * Create a draft directory for a new entry; attachments are written into it before the entry is
+   * queued.
+   *
+   * @return The draft
+   * @throws IOException If unable to create the draft directory
+   */
+  public Draft createDraft() throws IOException {
+    return new Draft(Files.createTempDirectory(directory, DRAFT_PREFIX));
+  }
+
+  /**
+   * Complete a draft and queue it for submission. Returns immediately.
+   *
+   * @param draft The draft
+   * @param title The entry title
+   * @param logbooks The logbooks to post to
+   * @param html The HTML body
+   * @param attachmentName The name of the attachment file in the draft directory or null if none
+   * @throws IOException If unable to write the entry
+   */
+  public void enqueue(
+      Draft draft, String title, String logbooks, String html, String attachmentName)
+      throws IOException {
+    Properties properties = new Properties();
+    properties.setProperty("title", title);
+    properties.setProperty("logbooks", logbooks);
+
+    if (attachmentName != null) {
+      properties.setProperty("attachment", attachmentName);
+    }
+
+    try (OutputStream out = Files.newOutputStream(draft.getDirectory().resolve(PROPERTIES_FILE))) {
+      properties.store(out, null);
+    }
+
+    Files.write(draft.getDirectory().resolve(BODY_FILE), html.getBytes(StandardCharsets.UTF_8));
+
+    String name =
+        String.format("%013d-%06d", System.currentTimeMillis(), sequence.incrementAndGet());
+
+    Files.move(draft.getDirectory(), directory.resolve(name), StandardCopyOption.ATOMIC_MOVE);
+
+    wake();
+  }
+
+  /** Stop submitting. Queued entries remain in the spool for the next run. */
+  public void close() {
+    executor.shutdownNow();
+  }
+
+  private void wake() {
+    executor.execute(
+        new Runnable() {
+          @Override
+          public void run() {
+            // A pending retry is waiting out its backoff; don't hammer an unavailable server
+            if (retry == null) {
+              drain();
+            } else {
+              try {
+                pending = listQueued().size();
+                fireSpoolChanged(problem);
+              } catch (IOException e) {
+                LOGGER.log(Level.SEVERE, "Unable to list eLog spool " + directory, e);
+              }
+            }
+          }
+        });
+  }
+
+  private void drain() {
+    List<Path> queued;
+
+    try {
+      queued = listQueued();
+    } catch (IOException e) {
+      LOGGER.log(Level.SEVERE, "Unable to list eLog spool " + directory, e);
+      return;
+    }
+
+    pending = queued.size();
+
+    if (!queued.isEmpty()) {
+      fireSpoolChanged(problem);
+    }
+
+    for (Path entryDirectory : queued) {
+      SpooledEntry entry;
+
+      try {
+        entry = load(entryDirectory);
+      } catch (IOException e) {
+        LOGGER.log(Level.SEVERE, "Unable to read spooled eLog entry " + entryDirectory, e);
+        setAside(entryDirectory);
+        continue;
+      }
+
+      try {
+        long logId = submitter.submit(entry);
+
+        LOGGER.log(
+            Level.FINE,
+            "Submitted spooled eLog entry {0} as {1}",
+            new Object[] {entryDirectory, logId});
+
+        deleteEntry(entryDirectory);
+        retryMillis = initialRetryMillis;
+        pending--;
+
+        for (ElogSpoolListener listener : listeners) {
+          listener.entrySubmitted(entry.getTitle(), logId);
+        }
+        fireSpoolChanged(null);
+      } catch (LogException e) {
+        LOGGER.log(
+            Level.WARNING,
+            "Unable to submit eLog entry; retrying in {0} ms: {1}",
+            new Object[] {retryMillis, e.getMessage()});
+
+        fireSpoolChanged(e.getMessage());
+        scheduleRetry();
+        return;
+      } catch (LogRuntimeException e) {
+        LOGGER.log(Level.SEVERE, "eLog entry " + entryDirectory + " rejected", e);
+        setAside(entryDirectory);
+      }
+    }
+  }
+
+  private void scheduleRetry() {
+    retry =
+        executor.schedule(
+            new Runnable() {
+              @Override
+              public void run() {
+                retry = null;
+                drain();
+              }
+            },
+            retryMillis,
+            TimeUnit.MILLISECONDS);
+
+    retryMillis = Math.min(retryMillis * 2, maxRetryMillis);
+  }
+
+  private void setAside(Path entryDirectory) {
+    try {
+      Files.move(
+          entryDirectory,
+          directory.resolve(FAILED_DIRECTORY).resolve(entryDirectory.getFileName()));
+    } catch (IOException e) {
+      LOGGER.log(Level.SEVERE, "Unable to set aside eLog entry " + entryDirectory, e);
+    }
+
+    pending--;
+    fireSpoolChanged("An entry was rejected and moved to " + directory.resolve(FAILED_DIRECTORY));
+  }
+
+  private void fireSpoolChanged(String problem) {
+    this.problem = problem;
+
+    for (ElogSpoolListener listener : listeners) {
+      listener.spoolChanged(pending, problem);
+    }
+  }
+
+  private List<Path> listQueued() throws IOException {
+    List<Path> queued = new ArrayList<>();
+
+    try (DirectoryStream<Path> entries = Files.newDirectoryStream(directory, "[0-9]*-[0-9]*")) {
+      for (Path entry : entries) {
+        queued.add(entry);
+      }
+    }
+
+    // Names start with a fixed width timestamp so name order is queue order
+    Collections.sort(queued);
+
+    return queued;
+  }
+
+  private SpooledEntry load(Path entryDirectory) throws IOException {
+    Properties properties = new Properties();
+
+    try (InputStream in = Files.newInputStream(entryDirectory.resolve(PROPERTIES_FILE))) {
+      properties.load(in);
+    }
+
+    String html =
+        new String(Files.readAllBytes(entryDirectory.resolve(BODY_FILE)), StandardCharsets.UTF_8);
+    String attachmentName = properties.getProperty("attachment");
+
+    return new SpooledEntry(
+        entryDirectory,
+        properties.getProperty("title"),
+        properties.getProperty("logbooks"),
+        html,
+        attachmentName == null ? null : entryDirectory.resolve(attachmentName));
+  }
+
+  private static void deleteEntry(Path entryDirectory) {
+    try {
+      try (DirectoryStream<Path> files = Files.newDirectoryStream(entryDirectory)) {
+        for (Path file : files) {
+          Files.delete(file);
+        }
+      }
+
+      Files.delete(entryDirectory);
+    } catch (IOException e) {
+      LOGGER.log(Level.WARNING, "Unable to delete eLog entry " + entryDirectory, e);
+    }
+  }
+
+  /** A directory in which a new entry is prepared before it is queued. */
+  public static final class Draft {
+    private final Path directory;
+
+    private Draft(Path directory) {
+      this.directory = directory;
+    }
+
+    /**
+     * Return the draft directory.
+     *
+     * @return The directory
+     */
+    public Path getDirectory() {
+      return directory;
+    }
+
+    /** Delete the draft and everything written into it. */
+    public void discard() {
+      deleteEntry(directory);
+    }
+  }
+
+  /** An entry read back from the spool. */
+  public static final class SpooledEntry {
+    private final Path directory;
+    private final String title;
+    private final String logbooks;
+    private final String html;
+    private final Path attachment;
+
+    private SpooledEntry(
+        Path directory, String title, String logbooks, String html, Path attachment) {
+      this.directory = directory;
+      this.title = title;
+      this.logbooks = logbooks;
+      this.html = html;
+      this.attachment = attachment;
+    }
+
+    /**
+     * Return the directory holding the entry.
+     *
+     * @return The directory
+     */
+    public Path getDirectory() {
+      return directory;
+    }
+
+    /**
+     * Return the entry title.
+     *
+     * @return The title
+     */
+    public String getTitle() {
+      return title;
+    }
+
+    /**
+     * Return the logbooks to post to.
+     *
+     * @return The logbooks
+     */
+    public String getLogbooks() {
+      return logbooks;
+    }
+
+    /**
+     * Return the HTML body.
+     *
+     * @return The HTML
+     */
+    public String getHtml() {
+      return html;
+    }
+
+    /**
+     * Return the attachment.
+     *
+     * @return The attachment file or null if none
+     */
+    public Path getAttachment() {
+      return attachment;
+    }
+  }
+}
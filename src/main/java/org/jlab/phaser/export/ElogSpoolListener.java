@@ -0,0 +1,22 @@
+package org.jlab.phaser.export;
+
+/** Receives ElogSpool status changes. Methods are called from the spool's background thread. */
+public interface ElogSpoolListener {
+
+  /**
+   * The number of entries waiting in the spool, or the reason they are waiting, changed.
+   *
+   * @param pending The number of entries waiting to be submitted
+   * @param problem A description of why the oldest entry could not be submitted, or null if there
+   *     is no problem
+   */
+  void spoolChanged(int pending, String problem);
+
+  /**
+   * An entry was submitted.
+   *
+   * @param title The entry title
+   * @param logId The logId
+   */
+  void entrySubmitted(String title, long logId);
+}
@@ -0,0 +1,22 @@
+package org.jlab.phaser.export;
+
+import org.jlab.jlog.exception.LogException;
+import org.jlab.jlog.exception.LogRuntimeException;
+
+/**
+ * Submits spooled entries to an electronic logbook.
+ *
+ * <p>The ElogSpool calls a submitter from its background thread only, one entry at a time.
+ */
+public interface ElogSubmitter {
+
+  /**
+   * Submit an entry.
+   *
+   * @param entry The entry
+   * @return The logId
+   * @throws LogException If unable to submit the entry now; the entry will be retried
+   * @throws LogRuntimeException If the entry can never be submitted; the entry will be set aside
+   */
+  long submit(ElogSpool.SpooledEntry entry) throws LogException, LogRuntimeException;
+}
@@ -2,97 +2,188 @@ package org.jlab.phaser.export;
 
 import java.io.IOException;
 import java.io.OutputStream;
+import java.text.DecimalFormat;
+import java.text.SimpleDateFormat;
+import java.util.Date;
 import org.apache.poi.ss.usermodel.Cell;
 import org.apache.poi.ss.usermodel.CellStyle;
 import org.apache.poi.ss.usermodel.CreationHelper;
 import org.apache.poi.ss.usermodel.Row;
 import org.apache.poi.ss.usermodel.Sheet;
 import org.apache.poi.ss.usermodel.Workbook;
-import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+import org.jlab.phaser.DatabaseConsole;
+import org.jlab.phaser.ResultRecordHandler;
+import org.jlab.phaser.exception.CommandException;
 import org.jlab.phaser.model.Paginator;
-import org.jlab.phaser.model.ResultPage;
+import org.jlab.phaser.model.ResultFilter;
 import org.jlab.phaser.model.ResultRecord;
 import org.jlab.phaser.swing.generated.PhaserClientFrame;
 
 /**
  * Exports Phaser results to Microsoft Excel format.
  *
+ * <p>Workbooks are written in streaming mode: only a small window of rows is held in memory and
+ * older rows are flushed to a compressed temporary file, so memory use is bounded regardless of the
+ * number of results. Column widths are computed from the widest value seen in each column as rows
+ * are written instead of having POI re-measure every cell at the end, which keeps export time
+ * linear in the number of rows.
+ *
  * @author ryans
  */
 public class ExcelResultsService {
 
+  /** The number of rows held in memory before older rows are flushed to disk. */
+  private static final int ROW_ACCESS_WINDOW = 100;
+
+  /** The last column written. */
+  private static final int LAST_COLUMN = 8;
+
+  /** Excel rejects columns wider than 255 characters. */
+  private static final int MAX_COLUMN_CHARS = 255;
+
   /**
-   * Convert results in the form of a ResultPage into an Excel formatted output stream.
+   * Export the results matching a filter into an Excel formatted output stream. Records are
+   * streamed from the database into the workbook through the pipeline rather than queried as a
+   * single page, so they are never all held as records in memory at once.
    *
-   * @param page The ResultPage
+   * @param pipeline The pipeline which fetches and writes the records
+   * @param console The database console
+   * @param filter The filter
+   * @param maxRecords The maximum number of records to export
    * @param out The output stream
+   * @return The number of results exported
+   * @throws CommandException If unable to query the results
    * @throws IOException If unable to export the results to Excel format
    */
-  public void export(ResultPage page, OutputStream out) throws IOException {
-    Workbook wb = new XSSFWorkbook();
-    Sheet sheet1 = wb.createSheet("Phaser Results");
-
-    String count;
-    String where = page.getFilter().toHumanWhereClause(PhaserClientFrame.TIMESTAMP_FORMAT);
-    Paginator paginator = page.getPaginator();
-
-    if (paginator.getTotalRecords() <= paginator.getMaxPerPage()) {
-      count = "{" + paginator.getTotalRecords() + "}";
-    } else {
-      count =
-          "{"
-              + paginator.getStartNumber()
-              + " - "
-              + paginator.getEndNumber()
-              + " of "
-              + paginator.getTotalRecords()
-              + "}";
+  public long export(
+      ExportPipeline pipeline,
+      DatabaseConsole console,
+      ResultFilter filter,
+      long maxRecords,
+      OutputStream out)
+      throws CommandException, IOException {
+    long total = console.countResults(filter);
+
+    try (SXSSFWorkbook wb = newWorkbook()) { // Closing deletes the temporary files
+      Sheet sheet1 = wb.createSheet("Phaser Results");
+
+      final RowWriter writer = new RowWriter(wb, sheet1);
+      writer.writeHeader(filter, new Paginator(total, 0, maxRecords));
+
+      long count =
+          pipeline.run(
+              console,
+              filter,
+              maxRecords,
+              new ResultRecordHandler() {
+                @Override
+                public void handleResult(ResultRecord record) {
+                  writer.write(record);
+                }
+              });
+
+      writer.sizeColumns();
+
+      wb.write(out);
+
+      return count;
     }
+  }
 
-    int rownum = 0;
-    Row row = sheet1.createRow(rownum++);
-    row.createCell(0).setCellValue("Results " + where + count);
+  private SXSSFWorkbook newWorkbook() {
+    SXSSFWorkbook wb = new SXSSFWorkbook(ROW_ACCESS_WINDOW);
+    wb.setCompressTempFiles(true);
+    return wb;
+  }
 
-    sheet1.createRow(rownum++); // spacer row
+  /**
+   * Appends rows using cell styles shared by every row and tracks the widest value written to each
+   * column.
+   */
+  private static final class RowWriter {
+    private final Sheet sheet;
+    private final CellStyle integerStyle;
+    private final CellStyle floatStyle;
+    private final CellStyle dateStyle;
+    private final int[] maxChars = new int[LAST_COLUMN + 1];
+    private final int dateChars;
+    private double maxPhaseError = 0;
+    private double maxPhase = 0;
+    private double maxDuration = 0;
+    private int rownum = 0;
+
+    private RowWriter(Workbook wb, Sheet sheet) {
+      this.sheet = sheet;
+
+      CreationHelper createHelper = wb.getCreationHelper();
+      integerStyle = wb.createCellStyle();
+      integerStyle.setDataFormat(createHelper.createDataFormat().getFormat("#,###,##0"));
+      floatStyle = wb.createCellStyle();
+      floatStyle.setDataFormat(createHelper.createDataFormat().getFormat("#,###,##0.00"));
+      dateStyle = wb.createCellStyle();
+      dateStyle.setDataFormat(
+          createHelper.createDataFormat().getFormat(PhaserClientFrame.TIMESTAMP_FORMAT));
+
+      // Every date renders with the same number of characters
+      dateChars =
+          new SimpleDateFormat(PhaserClientFrame.TIMESTAMP_FORMAT).format(new Date()).length();
+    }
 
-    row = sheet1.createRow(rownum++);
-    row.createCell(1).setCellValue("CAVITY");
-    row.createCell(2).setCellValue("PHASE ERROR (DEGREES)");
-    row.createCell(3).setCellValue("OUTCOME");
-    row.createCell(4).setCellValue("PHASE (DEGREES)");
-    row.createCell(5).setCellValue("START DATE");
-    row.createCell(6).setCellValue("DURATION (SECONDS)");
-    row.createCell(7).setCellValue("CORRECTION DATE");
-    row.createCell(8).setCellValue("CORRECTION ERROR REASON");
+    /** Writes the title, spacer, and column heading rows. */
+    private void writeHeader(ResultFilter filter, Paginator paginator) {
+      String count;
+      String where = filter.toHumanWhereClause(PhaserClientFrame.TIMESTAMP_FORMAT);
+
+      if (paginator.getTotalRecords() <= paginator.getMaxPerPage()) {
+        count = "{" + paginator.getTotalRecords() + "}";
+      } else {
+        count =
+            "{"
+                + paginator.getStartNumber()
+                + " - "
+                + paginator.getEndNumber()
+                + " of "
+                + paginator.getTotalRecords()
+                + "}";
+      }
+
+      Row row = sheet.createRow(rownum++);
+      row.createCell(0).setCellValue("Results " + where + count);
 
-    CreationHelper createHelper = wb.getCreationHelper();
-    CellStyle integerStyle = wb.createCellStyle();
-    integerStyle.setDataFormat(createHelper.createDataFormat().getFormat("#,###,##0"));
-    CellStyle floatStyle = wb.createCellStyle();
-    floatStyle.setDataFormat(createHelper.createDataFormat().getFormat("#,###,##0.00"));
-    CellStyle dateStyle = wb.createCellStyle();
-    dateStyle.setDataFormat(
-        createHelper.createDataFormat().getFormat(PhaserClientFrame.TIMESTAMP_FORMAT));
+      sheet.createRow(rownum++); // spacer row
 
-    Cell c;
+      row = sheet.createRow(rownum++);
+      text(row, 1, "CAVITY");
+      text(row, 2, "PHASE ERROR (DEGREES)");
+      text(row, 3, "OUTCOME");
+      text(row, 4, "PHASE (DEGREES)");
+      text(row, 5, "START DATE");
+      text(row, 6, "DURATION (SECONDS)");
+      text(row, 7, "CORRECTION DATE");
+      text(row, 8, "CORRECTION ERROR REASON");
+    }
 
-    for (ResultRecord record : page.getRecords()) {
-      row = sheet1.createRow(rownum++);
+    private void write(ResultRecord record) {
+      Row row = sheet.createRow(rownum++);
+      Cell c;
 
-      row.createCell(1).setCellValue(record.getCavity());
+      text(row, 1, record.getCavity());
 
       c = row.createCell(2);
       c.setCellStyle(floatStyle);
       if (record.getPhaseError() != null) {
         c.setCellValue(record.getPhaseError());
+        maxPhaseError = Math.max(maxPhaseError, Math.abs(record.getPhaseError()));
       }
 
-      row.createCell(3).setCellValue(record.getOutcome().name());
+      text(row, 3, record.getOutcome().name());
 
       c = row.createCell(4);
       c.setCellStyle(floatStyle);
       if (record.getPhase() != null) {
         c.setCellValue(record.getPhase());
+        maxPhase = Math.max(maxPhase, Math.abs(record.getPhase()));
       }
 
       c = row.createCell(5);
@@ -103,6 +194,7 @@ public class ExcelResultsService {
       c.setCellStyle(integerStyle);
       double duration = (record.getEndDate().getTime() - record.getStartDate().getTime()) / 1000.0;
       c.setCellValue(duration);
+      maxDuration = Math.max(maxDuration, Math.abs(duration));
 
       c = row.createCell(7);
       c.setCellStyle(dateStyle);
@@ -110,21 +202,39 @@ public class ExcelResultsService {
         c.setCellValue(record.getCorrectionDate());
       }
 
-      c = row.createCell(8);
       if (record.getCorrectionErrorReason() != null) {
-        c.setCellValue(record.getCorrectionErrorReason());
+        text(row, 8, record.getCorrectionErrorReason());
+      } else {
+        row.createCell(8);
       }
     }
 
-    sheet1.autoSizeColumn(1);
-    sheet1.autoSizeColumn(2);
-    sheet1.autoSizeColumn(3);
-    sheet1.autoSizeColumn(4);
-    sheet1.autoSizeColumn(5);
-    sheet1.autoSizeColumn(6);
-    sheet1.autoSizeColumn(7);
-    sheet1.autoSizeColumn(8);
+    private void text(Row row, int column, String value) {
+      row.createCell(column).setCellValue(value);
+
+      if (value != null) {
+        maxChars[column] = Math.max(maxChars[column], value.length());
+      }
+    }
 
-    wb.write(out);
+    /**
+     * Sets each column width from the widest value written. Numeric columns only track their
+     * largest magnitude so that just one value per column has to be formatted.
+     */
+    private void sizeColumns() {
+      DecimalFormat integerFormat = new DecimalFormat("-#,###,##0");
+      DecimalFormat floatFormat = new DecimalFormat("-#,###,##0.00");
+
+      maxChars[2] = Math.max(maxChars[2], floatFormat.format(maxPhaseError).length());
+      maxChars[4] = Math.max(maxChars[4], floatFormat.format(maxPhase).length());
+      maxChars[5] = Math.max(maxChars[5], dateChars);
+      maxChars[6] = Math.max(maxChars[6], integerFormat.format(maxDuration).length());
+      maxChars[7] = Math.max(maxChars[7], dateChars);
+
+      for (int i = 1; i <= LAST_COLUMN; i++) {
+        int chars = Math.min(MAX_COLUMN_CHARS, maxChars[i] + 2);
+        sheet.setColumnWidth(i, chars * 256);
+      }
+    }
   }
 }
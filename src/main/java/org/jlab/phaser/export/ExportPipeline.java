@@ -0,0 +1,287 @@
+package org.jlab.phaser.export;
+
+import java.io.IOException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+import org.jlab.phaser.DatabaseConsole;
+import org.jlab.phaser.JobRecordHandler;
+import org.jlab.phaser.ResultRecordHandler;
+import org.jlab.phaser.exception.CommandException;
+import org.jlab.phaser.model.JobFilter;
+import org.jlab.phaser.model.JobRecord;
+import org.jlab.phaser.model.ResultFilter;
+import org.jlab.phaser.model.ResultRecord;
+
+/**
+ * Runs an export as two overlapping stages connected by a bounded queue.
+ *
+ * <p>The fetch stage runs on the calling thread and streams results or jobs from the database into
+ * the queue. The write stage runs on its own thread, draining the queue into a handler which
+ * formats and writes each record. The database round trips and the formatting and disk writes
+ * therefore happen at the same time instead of one after the other, and the bounded queue keeps a
+ * fast database from buffering more than a fixed number of records ahead of a slow writer.
+ *
+ * <p>An export can be cancelled from any thread. Cancellation stops the fetch stage at the next
+ * record, which closes the database cursor, and the run method throws a CancellationException. The
+ * caller is responsible for deleting any partially written output.
+ */
+public final class ExportPipeline {
+
+  /** The default number of records which may be queued between the stages. */
+  public static final int DEFAULT_QUEUE_CAPACITY = 1024;
+
+  /** How often progress is reported. */
+  private static final long PROGRESS_INTERVAL_NANOS = TimeUnit.MILLISECONDS.toNanos(250);
+
+  /** Marks the end of the stream; compared by identity. */
+  private static final Object END = new Object();
+
+  private final int queueCapacity;
+  private final ExportProgressListener listener;
+  private volatile boolean cancelled = false;
+
+  /**
+   * Create a new ExportPipeline.
+   *
+   * @param queueCapacity The number of records which may be queued between the stages
+   * @param listener The progress listener, or null if none
+   */
+  public ExportPipeline(int queueCapacity, ExportProgressListener listener) {
+    this.queueCapacity = queueCapacity;
+    this.listener = listener;
+  }
+
+  /** Requests that the export stop as soon as possible. */
+  public void cancel() {
+    cancelled = true;
+  }
+
+  /**
+   * Return whether the export was cancelled.
+   *
+   * @return true if cancelled
+   */
+  public boolean isCancelled() {
+    return cancelled;
+  }
+
+  /**
+   * Streams the results matching the filter through the pipeline into the writer.
+   *
+   * @param console The database console
+   * @param filter The filter
+   * @param maxRecords The maximum number of records
+   * @param writer The handler which writes each record
+   * @return The number of records written
+   * @throws CommandException If unable to query the results
+   * @throws IOException If unable to write a record
+   * @throws CancellationException If the export was cancelled
+   */
+  public long run(
+      final DatabaseConsole console,
+      final ResultFilter filter,
+      final long maxRecords,
+      final ResultRecordHandler writer)
+      throws CommandException, IOException {
+    return run(
+        new FetchStage() {
+          @Override
+          public void fetch(final Stage next) throws CommandException, IOException {
+            console.streamResults(
+                filter,
+                maxRecords,
+                new ResultRecordHandler() {
+                  @Override
+                  public void handleResult(ResultRecord record) throws IOException {
+                    next.accept(record);
+                  }
+                });
+          }
+        },
+        new Stage() {
+          @Override
+          public void accept(Object record) throws IOException {
+            writer.handleResult((ResultRecord) record);
+          }
+        });
+  }
+
+  /**
+   * Streams the jobs matching the filter through the pipeline into the writer.
+   *
+   * @param console The database console
+   * @param filter The filter
+   * @param maxRecords The maximum number of records
+   * @param writer The handler which writes each record
+   * @return The number of records written
+   * @throws CommandException If unable to query the jobs
+   * @throws IOException If unable to write a record
+   * @throws CancellationException If the export was cancelled
+   */
+  public long run(
+      final DatabaseConsole console,
+      final JobFilter filter,
+      final long maxRecords,
+      final JobRecordHandler writer)
+      throws CommandException, IOException {
+    return run(
+        new FetchStage() {
+          @Override
+          public void fetch(final Stage next) throws CommandException, IOException {
+            console.streamJobs(
+                filter,
+                maxRecords,
+                new JobRecordHandler() {
+                  @Override
+                  public void handleJob(JobRecord record) throws IOException {
+                    next.accept(record);
+                  }
+                });
+          }
+        },
+        new Stage() {
+          @Override
+          public void accept(Object record) throws IOException {
+            writer.handleJob((JobRecord) record);
+          }
+        });
+  }
+
+  private long run(FetchStage fetch, Stage write) throws CommandException, IOException {
+    final BlockingQueue<Object> queue = new ArrayBlockingQueue<>(queueCapacity);
+    final FutureTask<Long> writeStage = new FutureTask<>(new WriteStage(queue, write));
+
+    Thread thread = new Thread(writeStage, "export-writer");
+    thread.setDaemon(true);
+    thread.start();
+
+    boolean finished = false;
+
+    try {
+      fetch.fetch(
+          new Stage() {
+            @Override
+            public void accept(Object record) {
+              enqueue(queue, writeStage, record);
+            }
+          });
+
+      enqueue(queue, writeStage, END);
+
+      long count = awaitWriteStage(writeStage);
+      finished = true;
+      return count;
+    } catch (CancellationException e) {
+      // The write stage may have failed, which is the real cause
+      if (!cancelled && writeStage.isDone()) {
+        awaitWriteStage(writeStage);
+      }
+      throw e;
+    } finally {
+      if (!finished) {
+        cancelled = true;
+        thread.interrupt();
+      }
+    }
+  }
+
+  /**
+   * Puts an item on the queue, giving up if the export is cancelled or the write stage has stopped
+   * (in which case nothing will ever drain the queue).
+   */
+  private void enqueue(BlockingQueue<Object> queue, FutureTask<Long> writeStage, Object item) {
+    try {
+      while (!queue.offer(item, 100, TimeUnit.MILLISECONDS)) {
+        if (cancelled || writeStage.isDone()) {
+          throw new CancellationException("Export cancelled");
+        }
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new CancellationException("Export interrupted");
+    }
+
+    if (cancelled) {
+      throw new CancellationException("Export cancelled");
+    }
+  }
+
+  private long awaitWriteStage(FutureTask<Long> writeStage) throws IOException {
+    try {
+      return writeStage.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new CancellationException("Export interrupted");
+    } catch (ExecutionException e) {
+      Throwable cause = e.getCause();
+      if (cause instanceof IOException) {
+        throw (IOException) cause;
+      } else if (cause instanceof RuntimeException) {
+        throw (RuntimeException) cause;
+      } else if (cause instanceof Error) {
+        throw (Error) cause;
+      }
+      throw new IOException("Unable to write export", cause);
+    }
+  }
+
+  /** Drains the queue into the writer and reports progress. */
+  private final class WriteStage implements Callable<Long> {
+    private final BlockingQueue<Object> queue;
+    private final Stage writer;
+
+    private WriteStage(BlockingQueue<Object> queue, Stage writer) {
+      this.queue = queue;
+      this.writer = writer;
+    }
+
+    @Override
+    public Long call() throws IOException, InterruptedException {
+      long start = System.nanoTime();
+      long lastReport = start;
+      long count = 0;
+
+      Object item;
+
+      while ((item = queue.take()) != END) {
+        if (cancelled) {
+          throw new CancellationException("Export cancelled");
+        }
+
+        writer.accept(item);
+        count++;
+
+        long now = System.nanoTime();
+        if (listener != null && now - lastReport >= PROGRESS_INTERVAL_NANOS) {
+          listener.exportProgress(count, rate(count, now - start));
+          lastReport = now;
+        }
+      }
+
+      if (listener != null) {
+        listener.exportProgress(count, rate(count, System.nanoTime() - start));
+      }
+
+      return count;
+    }
+
+    private double rate(long count, long elapsedNanos) {
+      return elapsedNanos == 0 ? 0 : count / (elapsedNanos / 1e9);
+    }
+  }
+
+  /** Accepts the records of an export one at a time. */
+  private interface Stage {
+    void accept(Object record) throws IOException;
+  }
+
+  /** Queries the records of an export and hands each to the next stage. */
+  private interface FetchStage {
+    void fetch(Stage next) throws CommandException, IOException;
+  }
+}
@@ -0,0 +1,14 @@
+package org.jlab.phaser.export;
+
+/** A contract for classes interested in the progress of an export. */
+public interface ExportProgressListener {
+
+  /**
+   * Notification of export progress. This is called from the thread writing the export, not the
+   * event dispatch thread.
+   *
+   * @param rows The number of rows written so far
+   * @param rowsPerSecond The average number of rows written per second
+   */
+  public void exportProgress(long rows, double rowsPerSecond);
+}
@@ -0,0 +1,22 @@
+package org.jlab.phaser.export;
+
+import org.jlab.jlog.Body;
+import org.jlab.jlog.LogEntry;
+import org.jlab.jlog.exception.LogException;
+import org.jlab.jlog.exception.LogRuntimeException;
+
+/** Submits spooled entries to the Jefferson Lab electronic logbook server. */
+public class LogbookSubmitter implements ElogSubmitter {
+
+  @Override
+  public long submit(ElogSpool.SpooledEntry entry) throws LogException, LogRuntimeException {
+    LogEntry logEntry = new LogEntry(entry.getTitle(), entry.getLogbooks());
+    logEntry.setBody(entry.getHtml(), Body.ContentType.HTML);
+
+    if (entry.getAttachment() != null) {
+      logEntry.addAttachment(entry.getAttachment().toString());
+    }
+
+    return logEntry.submitNow();
+  }
+}
@@ -0,0 +1,44 @@
+package org.jlab.phaser.model;
+
+import java.time.Instant;
+
+/** An immutable server notification of the start of a new cavity phasing. */
+public final class CavityNotification {
+
+  private final Instant start;
+  private final String cavity;
+
+  /**
+   * Create a new CavityNotification.
+   *
+   * @param start The start or null
+   * @param cavity The cavity name or null
+   */
+  public CavityNotification(Instant start, String cavity) {
+    this.start = start;
+    this.cavity = cavity;
+  }
+
+  /**
+   * Return the start.
+   *
+   * @return The start or null
+   */
+  public Instant getStart() {
+    return start;
+  }
+
+  /**
+   * Return the cavity name.
+   *
+   * @return The cavity name or null
+   */
+  public String getCavity() {
+    return cavity;
+  }
+
+  @Override
+  public String toString() {
+    return "cavity: " + cavity + ", start: " + start;
+  }
+}
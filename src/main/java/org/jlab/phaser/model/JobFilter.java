@@ -6,12 +6,14 @@ import java.text.SimpleDateFormat;
 import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
+import java.util.Objects;
 
 /**
  * An immutable job query filter.
  *
  * <p>Individual filter parameters are ignored if null. The parameters which are not null are
- * combined with SQL "and".
+ * combined with SQL "and". Filters with the same parameters are equal, so a filter may be used as
+ * part of a cache key.
  *
  * @author ryans
  */
@@ -148,9 +150,10 @@ public final class JobFilter {
    * Assigns prepared statement parameters for the SQL where clause returned from toSqlWhereClause.
    *
    * @param stmt The PreparedStatement
+   * @return The index of the next parameter after the filter parameters
    * @throws SQLException If unable to assign the parameter
    */
-  public void assignStatementParameters(PreparedStatement stmt) throws SQLException {
+  public int assignStatementParameters(PreparedStatement stmt) throws SQLException {
     int parameterIndex = 1;
 
     if (getJobId() != null) {
@@ -164,5 +167,40 @@ public final class JobFilter {
     if (getMaxJobStartDate() != null) {
       stmt.setDate(parameterIndex++, new java.sql.Date(getMaxJobStartDate().getTime()));
     }
+
+    return parameterIndex;
+  }
+
+  @Override
+  public int hashCode() {
+    int hash = 7;
+    hash = 53 * hash + Objects.hashCode(this.jobId);
+    hash = 53 * hash + Objects.hashCode(this.minJobStartDate);
+    hash = 53 * hash + Objects.hashCode(this.maxJobStartDate);
+    return hash;
+  }
+
+  @Override
+  public boolean equals(Object obj) {
+    if (this == obj) {
+      return true;
+    }
+    if (obj == null) {
+      return false;
+    }
+    if (getClass() != obj.getClass()) {
+      return false;
+    }
+    final JobFilter other = (JobFilter) obj;
+    if (!Objects.equals(this.jobId, other.jobId)) {
+      return false;
+    }
+    if (!Objects.equals(this.minJobStartDate, other.minJobStartDate)) {
+      return false;
+    }
+    if (!Objects.equals(this.maxJobStartDate, other.maxJobStartDate)) {
+      return false;
+    }
+    return true;
   }
 }
@@ -0,0 +1,145 @@
+package org.jlab.phaser.model;
+
+import java.time.Instant;
+
+/**
+ * An immutable server notification of a job change, carrying a snapshot of the job state.
+ *
+ * <p>When there is no job every field is null; use NONE rather than creating such a notification.
+ */
+public final class JobNotification {
+
+  /** The notification that there is no job. */
+  public static final JobNotification NONE =
+      new JobNotification(null, null, null, null, null, null, null, null, null);
+
+  private final JobSpecification job;
+  private final Long jobId;
+  private final Instant jobStart;
+  private final Boolean paused;
+  private final Integer loop;
+  private final String cavity;
+  private final Instant cavityStart;
+  private final Integer progress;
+  private final String label;
+
+  /**
+   * Create a new JobNotification.
+   *
+   * @param job The job specification
+   * @param jobId The job ID or null
+   * @param jobStart The job start or null
+   * @param paused true if the job is paused, false otherwise, or null
+   * @param loop The current loop number or null
+   * @param cavity The current cavity being phased or null
+   * @param cavityStart The start of the current cavity or null
+   * @param progress The percent complete (0-100) of the current cavity or null
+   * @param label The progress label or null
+   */
+  public JobNotification(
+      JobSpecification job,
+      Long jobId,
+      Instant jobStart,
+      Boolean paused,
+      Integer loop,
+      String cavity,
+      Instant cavityStart,
+      Integer progress,
+      String label) {
+    this.job = job;
+    this.jobId = jobId;
+    this.jobStart = jobStart;
+    this.paused = paused;
+    this.loop = loop;
+    this.cavity = cavity;
+    this.cavityStart = cavityStart;
+    this.progress = progress;
+    this.label = label;
+  }
+
+  /**
+   * Return the job specification.
+   *
+   * @return The job or null if there is no job
+   */
+  public JobSpecification getJob() {
+    return job;
+  }
+
+  /**
+   * Return the job ID.
+   *
+   * @return The job ID or null
+   */
+  public Long getJobId() {
+    return jobId;
+  }
+
+  /**
+   * Return the job start.
+   *
+   * @return The job start or null
+   */
+  public Instant getJobStart() {
+    return jobStart;
+  }
+
+  /**
+   * Return whether the job is paused.
+   *
+   * @return true if paused, false if not, null if there is no job
+   */
+  public Boolean getPaused() {
+    return paused;
+  }
+
+  /**
+   * Return the current loop number.
+   *
+   * @return The loop number or null
+   */
+  public Integer getLoop() {
+    return loop;
+  }
+
+  /**
+   * Return the current cavity being phased.
+   *
+   * @return The cavity name or null
+   */
+  public String getCavity() {
+    return cavity;
+  }
+
+  /**
+   * Return the start of the current cavity.
+   *
+   * @return The cavity start or null
+   */
+  public Instant getCavityStart() {
+    return cavityStart;
+  }
+
+  /**
+   * Return the percent complete (0-100) of the current cavity.
+   *
+   * @return The progress or null
+   */
+  public Integer getProgress() {
+    return progress;
+  }
+
+  /**
+   * Return the progress label.
+   *
+   * @return The label or null
+   */
+  public String getLabel() {
+    return label;
+  }
+
+  @Override
+  public String toString() {
+    return "job: " + jobId + ", start: " + jobStart + ", cavity: " + cavity;
+  }
+}
@@ -1,12 +1,16 @@
 package org.jlab.phaser.model;
 
+import java.util.Collections;
 import java.util.Date;
+import java.util.EnumMap;
+import java.util.Map;
 
 /**
  * An immutable job record.
  *
- * <p>This class represents a row of data from the JOB table of the Phaser database plus a count of
- * results associated with the job.
+ * <p>This class represents a row of data from the JOB table of the Phaser database plus aggregates
+ * of the results associated with the job: a count, a count per outcome, and the largest phase
+ * error.
  *
  * @author ryans
  */
@@ -21,6 +25,8 @@ public final class JobRecord {
   private final float maxMomentumError;
   private final int kickSamples;
   private final long count;
+  private final Map<PhaserOutcome, Long> outcomeCounts;
+  private final Float largestPhaseError;
 
   /**
    * Create a new JobRecord.
@@ -45,6 +51,47 @@ public final class JobRecord {
       float maxMomentumError,
       int kickSamples,
       long count) {
+    this(
+        id,
+        startDate,
+        endDate,
+        continuous,
+        correct,
+        maxPhaseError,
+        maxMomentumError,
+        kickSamples,
+        count,
+        null,
+        null);
+  }
+
+  /**
+   * Create a new JobRecord including result aggregates.
+   *
+   * @param id The job ID
+   * @param startDate The job start date
+   * @param endDate The job end date
+   * @param correct true to correct, false to measure only
+   * @param continuous true for continuous running, false for once-and-done
+   * @param maxPhaseError The maximum phase angle error
+   * @param maxMomentumError The maximum momentum error (dp/p)
+   * @param kickSamples The number of samples per kick
+   * @param count The number of results
+   * @param outcomeCounts The number of results per outcome or null if unknown
+   * @param largestPhaseError The largest absolute phase angle error of the results or null if none
+   */
+  public JobRecord(
+      long id,
+      Date startDate,
+      Date endDate,
+      boolean continuous,
+      boolean correct,
+      float maxPhaseError,
+      float maxMomentumError,
+      int kickSamples,
+      long count,
+      Map<PhaserOutcome, Long> outcomeCounts,
+      Float largestPhaseError) {
     this.id = id;
     this.startDate = startDate == null ? null : new Date(startDate.getTime());
     this.endDate = endDate == null ? null : new Date(endDate.getTime());
@@ -54,6 +101,11 @@ public final class JobRecord {
     this.maxMomentumError = maxMomentumError;
     this.kickSamples = kickSamples;
     this.count = count;
+    this.outcomeCounts = new EnumMap<>(PhaserOutcome.class);
+    if (outcomeCounts != null) {
+      this.outcomeCounts.putAll(outcomeCounts);
+    }
+    this.largestPhaseError = largestPhaseError;
   }
 
   /**
@@ -136,4 +188,34 @@ public final class JobRecord {
   public long getCount() {
     return count;
   }
+
+  /**
+   * Return a count of the number of results associated with this job having the specified outcome.
+   *
+   * @param outcome The outcome
+   * @return The count
+   */
+  public long getOutcomeCount(PhaserOutcome outcome) {
+    Long outcomeCount = outcomeCounts.get(outcome);
+    return outcomeCount == null ? 0L : outcomeCount;
+  }
+
+  /**
+   * Return the count of results associated with this job by outcome. Outcomes without results may
+   * be absent.
+   *
+   * @return The unmodifiable outcome counts
+   */
+  public Map<PhaserOutcome, Long> getOutcomeCounts() {
+    return Collections.unmodifiableMap(outcomeCounts);
+  }
+
+  /**
+   * Return the largest absolute phase angle error of the results associated with this job.
+   *
+   * @return The largest phase angle error (degrees) or null if no result has a phase error
+   */
+  public Float getLargestPhaseError() {
+    return largestPhaseError;
+  }
 }
@@ -1,15 +1,36 @@
 package org.jlab.phaser.model;
 
+import java.math.BigInteger;
+
 /**
  * An immutable paginator.
  *
+ * <p>A paginator returned with a page of records may also carry the keys of the first and last
+ * records on the page (records are ordered by descending key). The nextPage, previousPage, and
+ * currentPage methods use these keys to create a paginator which seeks relative to a key instead of
+ * skipping over offset rows, so that fetching a page deep into the record set costs the same as
+ * fetching the first page.
+ *
  * @author ryans
  */
 public final class Paginator {
 
+  /** How a paginator seeks relative to the keys of the page it was created from. */
+  public enum Seek {
+    /** Records with a key less than the last key (the following page). */
+    AFTER_LAST_KEY,
+    /** Records with a key greater than the first key (the preceding page). */
+    BEFORE_FIRST_KEY,
+    /** Records with a key less than or equal to the first key (the same page). */
+    FROM_FIRST_KEY
+  }
+
   private final long offset;
   private final long maxPerPage;
   private final long totalRecords;
+  private final BigInteger firstKey;
+  private final BigInteger lastKey;
+  private final Seek seek;
 
   /**
    * Create a new Paginator.
@@ -19,9 +40,111 @@ public final class Paginator {
    * @param maxPerPage The maximum number of records per page
    */
   public Paginator(long totalRecords, long offset, long maxPerPage) {
+    this(totalRecords, offset, maxPerPage, null, null, null);
+  }
+
+  /**
+   * Create a new Paginator which carries the keys of the first and last records on the page.
+   *
+   * @param totalRecords The total number of records in the result set
+   * @param offset The offset into the result set
+   * @param maxPerPage The maximum number of records per page
+   * @param firstKey The key of the first record on the page or null if none
+   * @param lastKey The key of the last record on the page or null if none
+   */
+  public Paginator(
+      long totalRecords, long offset, long maxPerPage, BigInteger firstKey, BigInteger lastKey) {
+    this(totalRecords, offset, maxPerPage, firstKey, lastKey, null);
+  }
+
+  private Paginator(
+      long totalRecords,
+      long offset,
+      long maxPerPage,
+      BigInteger firstKey,
+      BigInteger lastKey,
+      Seek seek) {
     this.totalRecords = totalRecords;
     this.offset = offset;
     this.maxPerPage = maxPerPage;
+    this.firstKey = firstKey;
+    this.lastKey = lastKey;
+    this.seek = seek;
+  }
+
+  /**
+   * Return the key of the first record on the page.
+   *
+   * @return The first key or null if unknown
+   */
+  public BigInteger getFirstKey() {
+    return firstKey;
+  }
+
+  /**
+   * Return the key of the last record on the page.
+   *
+   * @return The last key or null if unknown
+   */
+  public BigInteger getLastKey() {
+    return lastKey;
+  }
+
+  /**
+   * Return how this paginator seeks relative to its keys.
+   *
+   * @return The seek or null if the page is located by offset
+   */
+  public Seek getSeek() {
+    return seek;
+  }
+
+  /**
+   * Return a paginator for the following page. The returned paginator seeks after the last key if
+   * known, otherwise it uses the next offset.
+   *
+   * @return The next page paginator
+   */
+  public Paginator nextPage() {
+    if (lastKey == null) {
+      return new Paginator(totalRecords, getNextOffset(), maxPerPage);
+    }
+
+    return new Paginator(
+        totalRecords, offset + maxPerPage, maxPerPage, firstKey, lastKey, Seek.AFTER_LAST_KEY);
+  }
+
+  /**
+   * Return a paginator for the preceding page. The returned paginator seeks before the first key if
+   * known, otherwise it uses the previous offset. The first page is always located by offset so
+   * that the total is refreshed.
+   *
+   * @return The previous page paginator
+   */
+  public Paginator previousPage() {
+    long previousOffset = getPreviousOffset();
+
+    if (firstKey == null || previousOffset == 0) {
+      return new Paginator(totalRecords, previousOffset, maxPerPage);
+    }
+
+    return new Paginator(
+        totalRecords, previousOffset, maxPerPage, firstKey, lastKey, Seek.BEFORE_FIRST_KEY);
+  }
+
+  /**
+   * Return a paginator for refreshing the current page. The returned paginator seeks from the first
+   * key if known, otherwise it uses the current offset. The first page is always located by offset
+   * so that newly added records and the total are picked up.
+   *
+   * @return The current page paginator
+   */
+  public Paginator currentPage() {
+    if (firstKey == null || offset == 0) {
+      return new Paginator(totalRecords, offset, maxPerPage);
+    }
+
+    return new Paginator(totalRecords, offset, maxPerPage, firstKey, lastKey, Seek.FROM_FIRST_KEY);
   }
 
   /**
@@ -143,6 +266,17 @@ public final class Paginator {
 
   @Override
   public String toString() {
-    return "totalRecords: " + totalRecords + ", offset: " + offset + ", maxPerPage: " + maxPerPage;
+    return "totalRecords: "
+        + totalRecords
+        + ", offset: "
+        + offset
+        + ", maxPerPage: "
+        + maxPerPage
+        + ", firstKey: "
+        + firstKey
+        + ", lastKey: "
+        + lastKey
+        + ", seek: "
+        + seek;
   }
 }
@@ -7,12 +7,14 @@ import java.text.SimpleDateFormat;
 import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
+import java.util.Objects;
 
 /**
  * An immutable result query filter.
  *
  * <p>Individual filter parameters are ignored if null. The parameters which are not null are
- * combined with SQL "and".
+ * combined with SQL "and". Filters with the same parameters are equal, so a filter may be used as
+ * part of a cache key.
  *
  * @author ryans
  */
@@ -224,9 +226,10 @@ public final class ResultFilter {
    * Assigns prepared statement parameters for the SQL where clause returned from toSqlWhereClause.
    *
    * @param stmt The PreparedStatement
+   * @return The index of the next parameter after the filter parameters
    * @throws SQLException If unable to assign the parameter
    */
-  public void assignStatementParameters(PreparedStatement stmt) throws SQLException {
+  public int assignStatementParameters(PreparedStatement stmt) throws SQLException {
     int parameterIndex = 1;
 
     if (getJobId() != null) {
@@ -252,5 +255,52 @@ public final class ResultFilter {
     if (getOutcome() != null) {
       stmt.setString(parameterIndex++, getOutcome().name());
     }
+
+    return parameterIndex;
+  }
+
+  @Override
+  public int hashCode() {
+    int hash = 7;
+    hash = 53 * hash + Objects.hashCode(this.jobId);
+    hash = 53 * hash + Objects.hashCode(this.minCavityStartDate);
+    hash = 53 * hash + Objects.hashCode(this.maxCavityStartDate);
+    hash = 53 * hash + Objects.hashCode(this.cavityName);
+    hash = 53 * hash + Objects.hashCode(this.minPhaseError);
+    hash = 53 * hash + Objects.hashCode(this.outcome);
+    return hash;
+  }
+
+  @Override
+  public boolean equals(Object obj) {
+    if (this == obj) {
+      return true;
+    }
+    if (obj == null) {
+      return false;
+    }
+    if (getClass() != obj.getClass()) {
+      return false;
+    }
+    final ResultFilter other = (ResultFilter) obj;
+    if (!Objects.equals(this.jobId, other.jobId)) {
+      return false;
+    }
+    if (!Objects.equals(this.minCavityStartDate, other.minCavityStartDate)) {
+      return false;
+    }
+    if (!Objects.equals(this.maxCavityStartDate, other.maxCavityStartDate)) {
+      return false;
+    }
+    if (!Objects.equals(this.cavityName, other.cavityName)) {
+      return false;
+    }
+    if (!Objects.equals(this.minPhaseError, other.minPhaseError)) {
+      return false;
+    }
+    if (!Objects.equals(this.outcome, other.outcome)) {
+      return false;
+    }
+    return true;
   }
 }
@@ -0,0 +1,90 @@
+package org.jlab.phaser.network;
+
+import java.math.BigInteger;
+import java.util.LinkedHashSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import org.jlab.phaser.AsyncPhaserServerConsole;
+import org.jlab.phaser.PhaserServerConsole;
+import org.jlab.phaser.exception.CommandException;
+import org.jlab.phaser.model.JobSpecification;
+
+/**
+ * Adapts an AsyncPhaserServerConsole to the synchronous PhaserServerConsole contract by waiting for
+ * each command's future. Timeouts are left to the asynchronous console.
+ */
+public class BlockingPhaserServerConsole implements PhaserServerConsole {
+
+  private final AsyncPhaserServerConsole console;
+
+  /**
+   * Create a new BlockingPhaserServerConsole.
+   *
+   * @param console The asynchronous console which does the work
+   */
+  public BlockingPhaserServerConsole(AsyncPhaserServerConsole console) {
+    this.console = console;
+  }
+
+  /**
+   * Waits for a command to complete.
+   *
+   * @param <T> The type of the result
+   * @param future The future of the command
+   * @return The result
+   * @throws CommandException If the command failed or the wait was interrupted
+   */
+  private static <T> T await(CompletableFuture<T> future) throws CommandException {
+    try {
+      return future.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new CommandException("Interrupted while waiting for server response", e);
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof CommandException) {
+        throw (CommandException) e.getCause();
+      }
+      throw new CommandException("Unable to execute command", e.getCause());
+    }
+  }
+
+  @Override
+  public LinkedHashSet<String> cavities() throws CommandException {
+    return await(console.cavities());
+  }
+
+  @Override
+  public void applyCorrections(BigInteger[] resultIdArray) throws CommandException {
+    await(console.applyCorrections(resultIdArray));
+  }
+
+  @Override
+  public void start(JobSpecification job) throws CommandException {
+    await(console.start(job));
+  }
+
+  @Override
+  public void pause() throws CommandException {
+    await(console.pause());
+  }
+
+  @Override
+  public void resume() throws CommandException {
+    await(console.resume());
+  }
+
+  @Override
+  public String serverVersion() throws CommandException {
+    return await(console.serverVersion());
+  }
+
+  @Override
+  public void stop() throws CommandException {
+    await(console.stop());
+  }
+
+  @Override
+  public void skip() throws CommandException {
+    await(console.skip());
+  }
+}
@@ -0,0 +1,346 @@
+package org.jlab.phaser.network;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import javax.json.JsonObject;
+import org.jlab.phaser.NotificationListener;
+import org.jlab.phaser.model.CavityNotification;
+import org.jlab.phaser.model.JobNotification;
+
+/**
+ * A NotificationListener which coalesces bursts of server notifications before passing them on to
+ * another listener, typically the user interface, at a bounded rate.
+ *
+ * <p>The dispatcher is also a ResponseListener. Registered ahead of the console which completes
+ * commands, it delivers held notifications before each response is passed on, so that when a
+ * command completes the notifications which preceded its response have been dispatched as the
+ * server consoles promise. This delivery doesn't wait out the period; responses are rare enough
+ * that the rate is still bounded in practice.
+ *
+ * <p>Only the latest notification of each type is kept between deliveries; a newer notification
+ * replaces (merges with) an undelivered one of the same type. A job notification carries the paused
+ * state, loop count and progress, so it also supersedes (drops) undelivered notifications of those
+ * types. Kept notifications are delivered in the order their latest version arrived so that, for
+ * example, a cavity notification which followed a job notification is still applied after it.
+ *
+ * <p>A notification arriving after a quiet period is delivered immediately; further notifications
+ * are held until a minimum period has passed since the previous delivery. Delivery happens on a
+ * single daemon thread, never the network thread.
+ */
+public class CoalescingNotificationDispatcher implements NotificationListener, ResponseListener {
+
+  private static final Logger LOGGER =
+      Logger.getLogger(CoalescingNotificationDispatcher.class.getName());
+
+  /** Notification types; one undelivered notification of each type is kept. */
+  private enum Type {
+    STATUS,
+    JOB,
+    PAUSED,
+    LOOP,
+    CAVITY,
+    PROGRESS
+  }
+
+  private final NotificationListener target;
+  private final long periodNanos;
+  private final ScheduledExecutorService executor =
+      Executors.newSingleThreadScheduledExecutor(
+          new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable r) {
+              Thread thread = new Thread(r, "notification-dispatcher");
+              thread.setDaemon(true);
+              return thread;
+            }
+          });
+
+  private final AtomicLong receivedCount = new AtomicLong();
+  private final AtomicLong deliveredCount = new AtomicLong();
+  private final AtomicLong mergedCount = new AtomicLong();
+  private final AtomicLong droppedCount = new AtomicLong();
+
+  // The following are guarded by this
+  private final Map<Type, Runnable> pending = new LinkedHashMap<>();
+  private boolean flushScheduled = false;
+  private long lastFlushNanos;
+  private boolean closed = false;
+
+  /**
+   * Create a new CoalescingNotificationDispatcher.
+   *
+   * @param target The listener notifications are delivered to
+   * @param maxFramesPerSecond The maximum number of deliveries per second; values below one are
+   *     treated as one
+   */
+  public CoalescingNotificationDispatcher(NotificationListener target, int maxFramesPerSecond) {
+    if (maxFramesPerSecond < 1) {
+      LOGGER.log(
+          Level.WARNING,
+          "Invalid notification frame rate {0}; using 1 per second",
+          maxFramesPerSecond);
+      maxFramesPerSecond = 1;
+    }
+
+    this.target = target;
+    this.periodNanos = TimeUnit.SECONDS.toNanos(1) / maxFramesPerSecond;
+    this.lastFlushNanos = System.nanoTime() - periodNanos;
+  }
+
+  /**
+   * Queue a notification, replacing any undelivered notification of the same type, and schedule a
+   * delivery if one isn't already scheduled.
+   *
+   * @param type The notification type
+   * @param delivery Delivers the notification to the target
+   */
+  private synchronized void post(Type type, Runnable delivery) {
+    receivedCount.incrementAndGet();
+
+    if (closed) {
+      droppedCount.incrementAndGet();
+      return;
+    }
+
+    // Remove first so the type moves to the end of the delivery order
+    if (pending.remove(type) != null) {
+      mergedCount.incrementAndGet();
+    }
+
+    if (type == Type.JOB) {
+      for (Type superseded : new Type[] {Type.PAUSED, Type.LOOP, Type.PROGRESS}) {
+        if (pending.remove(superseded) != null) {
+          droppedCount.incrementAndGet();
+        }
+      }
+    }
+
+    pending.put(type, delivery);
+
+    if (!flushScheduled) {
+      flushScheduled = true;
+      long delay = Math.max(0, lastFlushNanos + periodNanos - System.nanoTime());
+      executor.schedule(
+          new Runnable() {
+            @Override
+            public void run() {
+              flush();
+            }
+          },
+          delay,
+          TimeUnit.NANOSECONDS);
+    }
+  }
+
+  private void flush() {
+    List<Runnable> deliveries;
+
+    synchronized (this) {
+      deliveries = new ArrayList<>(pending.values());
+      pending.clear();
+      flushScheduled = false;
+      lastFlushNanos = System.nanoTime();
+    }
+
+    for (Runnable delivery : deliveries) {
+      try {
+        delivery.run();
+        deliveredCount.incrementAndGet();
+      } catch (RuntimeException e) {
+        LOGGER.log(Level.SEVERE, "Notification listener failed", e);
+      }
+    }
+  }
+
+  /**
+   * Delivers the notifications held so far and waits for the delivery, including any delivery
+   * already in progress, to finish.
+   *
+   * @param json The response, which is otherwise ignored
+   * @param receivedNanos The time the response was read, which is ignored
+   */
+  @Override
+  public void handleResponse(JsonObject json, long receivedNanos) {
+    Future<?> delivered;
+
+    synchronized (this) {
+      if (closed) {
+        return;
+      }
+
+      delivered =
+          executor.submit(
+              new Runnable() {
+                @Override
+                public void run() {
+                  boolean held;
+
+                  synchronized (CoalescingNotificationDispatcher.this) {
+                    held = !pending.isEmpty();
+                  }
+
+                  if (held) {
+                    flush();
+                  }
+                }
+              });
+    }
+
+    try {
+      delivered.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    } catch (ExecutionException | CancellationException e) {
+      LOGGER.log(Level.FINE, "Notifications not delivered ahead of response", e);
+    }
+  }
+
+  /** Stop delivering notifications; undelivered notifications are dropped. */
+  public void close() {
+    synchronized (this) {
+      closed = true;
+      droppedCount.addAndGet(pending.size());
+      pending.clear();
+    }
+
+    // Release a response waiting on a delivery which will now never run
+    for (Runnable unstarted : executor.shutdownNow()) {
+      if (unstarted instanceof Future) {
+        ((Future<?>) unstarted).cancel(false);
+      }
+    }
+  }
+
+  /**
+   * Return the number of notifications received.
+   *
+   * @return The received count
+   */
+  public long getReceivedCount() {
+    return receivedCount.get();
+  }
+
+  /**
+   * Return the number of notifications delivered.
+   *
+   * @return The delivered count
+   */
+  public long getDeliveredCount() {
+    return deliveredCount.get();
+  }
+
+  /**
+   * Return the number of notifications replaced by a newer notification of the same type before
+   * delivery.
+   *
+   * @return The merged count
+   */
+  public long getMergedCount() {
+    return mergedCount.get();
+  }
+
+  /**
+   * Return the number of notifications superseded by a job notification or discarded at close.
+   *
+   * @return The dropped count
+   */
+  public long getDroppedCount() {
+    return droppedCount.get();
+  }
+
+  @Override
+  public String toString() {
+    return "received: "
+        + receivedCount.get()
+        + ", delivered: "
+        + deliveredCount.get()
+        + ", merged: "
+        + mergedCount.get()
+        + ", dropped: "
+        + droppedCount.get();
+  }
+
+  @Override
+  public void statusNotification(final String message, final Boolean error) {
+    post(
+        Type.STATUS,
+        new Runnable() {
+          @Override
+          public void run() {
+            target.statusNotification(message, error);
+          }
+        });
+  }
+
+  @Override
+  public void jobNotification(final JobNotification notification) {
+    post(
+        Type.JOB,
+        new Runnable() {
+          @Override
+          public void run() {
+            target.jobNotification(notification);
+          }
+        });
+  }
+
+  @Override
+  public void pausedNotification(final Boolean paused) {
+    post(
+        Type.PAUSED,
+        new Runnable() {
+          @Override
+          public void run() {
+            target.pausedNotification(paused);
+          }
+        });
+  }
+
+  @Override
+  public void loopNotification(final Integer loop) {
+    post(
+        Type.LOOP,
+        new Runnable() {
+          @Override
+          public void run() {
+            target.loopNotification(loop);
+          }
+        });
+  }
+
+  @Override
+  public void cavityNotification(final CavityNotification notification) {
+    post(
+        Type.CAVITY,
+        new Runnable() {
+          @Override
+          public void run() {
+            target.cavityNotification(notification);
+          }
+        });
+  }
+
+  @Override
+  public void progressNotification(final Integer value, final String label) {
+    post(
+        Type.PROGRESS,
+        new Runnable() {
+          @Override
+          public void run() {
+            target.progressNotification(value, label);
+          }
+        });
+  }
+}
@@ -0,0 +1,23 @@
+package org.jlab.phaser.network;
+
+import io.netty.channel.Channel;
+
+/** A contract for classes interested in the connection to the server coming and going. */
+public interface ConnectionListener {
+
+  /**
+   * Notification that a connection to the server was established. Called on the channel's event
+   * loop, so implementations must not block.
+   *
+   * @param channel The new channel
+   */
+  public void connected(Channel channel);
+
+  /**
+   * Notification that the connection to the server was lost and a reconnect is scheduled.
+   *
+   * @param delayMillis The delay before the next connection attempt in milliseconds
+   * @param cause The reason the last connection attempt failed or null if an open connection closed
+   */
+  public void disconnected(long delayMillis, Throwable cause);
+}
@@ -0,0 +1,155 @@
+package org.jlab.phaser.network;
+
+import java.util.Iterator;
+import java.util.concurrent.BlockingDeque;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Runs listener callbacks on a dedicated daemon thread so that the network thread never waits for a
+ * listener.
+ *
+ * <p>Callbacks run one at a time in submission order. Transient notifications, such as progress,
+ * are droppable: at most a capacity of callbacks may be waiting, and when another transient
+ * notification arrives the overflow policy decides whether the oldest waiting transient
+ * notification or the new one is dropped. Notifications which carry state that no later
+ * notification is guaranteed to restore, such as the job or cavity being worked on, are never
+ * dropped, and neither are responses, as a command is waiting for each. Both do count against the
+ * capacity seen by transient notifications.
+ */
+public class DispatchQueue {
+
+  private static final Logger LOGGER = Logger.getLogger(DispatchQueue.class.getName());
+
+  /** What to do with a notification which arrives when the queue is full. */
+  public enum OverflowPolicy {
+    /** Drop the oldest waiting notification to make room. */
+    DROP_OLDEST,
+    /** Drop the notification which just arrived. */
+    DROP_NEWEST
+  }
+
+  private final int capacity;
+  private final OverflowPolicy policy;
+  private final BlockingDeque<Task> queue = new LinkedBlockingDeque<>();
+  private final AtomicLong droppedCount = new AtomicLong();
+  private final Thread thread;
+
+  /**
+   * Create a new DispatchQueue and start its thread.
+   *
+   * @param capacity The maximum number of waiting callbacks before notifications are dropped
+   * @param policy The overflow policy
+   */
+  public DispatchQueue(int capacity, OverflowPolicy policy) {
+    this.capacity = capacity;
+    this.policy = policy;
+
+    thread =
+        new Thread(
+            new Runnable() {
+              @Override
+              public void run() {
+                dispatch();
+              }
+            },
+            "listener-dispatch");
+    thread.setDaemon(true);
+    thread.start();
+  }
+
+  /**
+   * Queue a transient notification callback, dropping a transient notification if the queue is
+   * full.
+   *
+   * @param callback The callback
+   */
+  public void submitNotification(Runnable callback) {
+    // Only the network thread submits, so the size check and the add don't race each other
+    if (queue.size() >= capacity) {
+      if (policy == OverflowPolicy.DROP_NEWEST || !removeOldestNotification()) {
+        droppedCount.incrementAndGet();
+        return;
+      }
+      droppedCount.incrementAndGet();
+    }
+
+    queue.add(new Task(callback, true));
+  }
+
+  /**
+   * Queue a notification callback which is never dropped, for notifications whose loss would leave
+   * listeners showing the wrong state.
+   *
+   * @param callback The callback
+   */
+  public void submitStateNotification(Runnable callback) {
+    queue.add(new Task(callback, false));
+  }
+
+  /**
+   * Queue a response callback, which is never dropped.
+   *
+   * @param callback The callback
+   */
+  public void submitResponse(Runnable callback) {
+    queue.add(new Task(callback, false));
+  }
+
+  /**
+   * Return the number of notifications dropped because the queue was full.
+   *
+   * @return The dropped count
+   */
+  public long getDroppedCount() {
+    return droppedCount.get();
+  }
+
+  /** Stop dispatching; waiting callbacks are discarded. */
+  public void close() {
+    thread.interrupt();
+  }
+
+  private boolean removeOldestNotification() {
+    Iterator<Task> iterator = queue.iterator();
+
+    while (iterator.hasNext()) {
+      Task task = iterator.next();
+
+      if (task.droppable && queue.removeFirstOccurrence(task)) {
+        return true;
+      }
+    }
+
+    return false;
+  }
+
+  private void dispatch() {
+    try {
+      while (true) {
+        Task task = queue.take();
+
+        try {
+          task.callback.run();
+        } catch (RuntimeException e) {
+          LOGGER.log(Level.SEVERE, "Listener failed", e);
+        }
+      }
+    } catch (InterruptedException e) {
+      LOGGER.log(Level.FINEST, "Listener dispatch stopped");
+    }
+  }
+
+  /** A queued callback. */
+  private static final class Task {
+    private final Runnable callback;
+    private final boolean droppable;
+
+    private Task(Runnable callback, boolean droppable) {
+      this.callback = callback;
+      this.droppable = droppable;
+    }
+  }
+}
@@ -0,0 +1,70 @@
+package org.jlab.phaser.network;
+
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInboundHandlerAdapter;
+import io.netty.handler.timeout.IdleStateEvent;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Pings the server when the connection has been idle, so a dead or degrading link is noticed before
+ * a user's command times out. Place after an IdleStateHandler in the pipeline.
+ *
+ * <p>The protocol has no ping so the version command is used; its round trip is recorded in the
+ * console's latency histogram like any other command. A heartbeat which misses the command deadline
+ * closes the channel so that the connection is reestablished, and one which takes more than half
+ * the deadline is logged as a warning.
+ */
+public class HeartbeatHandler extends ChannelInboundHandlerAdapter {
+
+  private static final Logger LOGGER = Logger.getLogger(HeartbeatHandler.class.getName());
+
+  private final NettyJsonConsole console;
+
+  /**
+   * Create a new HeartbeatHandler.
+   *
+   * @param console The console to ping through
+   */
+  public HeartbeatHandler(NettyJsonConsole console) {
+    this.console = console;
+  }
+
+  @Override
+  public void userEventTriggered(final ChannelHandlerContext context, Object event)
+      throws Exception {
+    if (!(event instanceof IdleStateEvent)) {
+      super.userEventTriggered(context, event);
+      return;
+    }
+
+    final long start = System.nanoTime();
+
+    console
+        .serverVersion()
+        .whenComplete(
+            new BiConsumer<String, Throwable>() {
+              @Override
+              public void accept(String version, Throwable cause) {
+                long millis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+                if (cause != null) {
+                  LOGGER.log(
+                      Level.WARNING,
+                      "Heartbeat failed after {0} ms; closing connection: {1}",
+                      new Object[] {millis, cause.getMessage()});
+                  context.close();
+                } else if (millis > console.getCommandDeadlineMillis() / 2) {
+                  LOGGER.log(
+                      Level.WARNING,
+                      "Slow heartbeat: {0} ms; latency {1}",
+                      new Object[] {millis, console.getLatency()});
+                } else {
+                  LOGGER.log(Level.FINE, "Heartbeat latency {0}", console.getLatency());
+                }
+              }
+            });
+  }
+}
@@ -0,0 +1,67 @@
+package org.jlab.phaser.network;
+
+import java.io.StringWriter;
+import javax.json.stream.JsonGenerator;
+
+/**
+ * A command to the Phaser server, which writes itself as a JSON object through a JsonGenerator.
+ *
+ * <p>Commands with arguments override writeArguments so that even large arguments are streamed
+ * straight into the outbound buffer by the JsonCommandEncoder without an intermediate String or
+ * JsonObject.
+ */
+class JsonCommand {
+
+  private final String name;
+  private volatile long requestId;
+
+  /**
+   * Create a new JsonCommand.
+   *
+   * @param name The command name
+   */
+  JsonCommand(String name) {
+    this.name = name;
+  }
+
+  /**
+   * Set the request ID the server echoes in its response.
+   *
+   * @param requestId The request ID
+   */
+  void setRequestId(long requestId) {
+    this.requestId = requestId;
+  }
+
+  /**
+   * Write the command as a JSON object.
+   *
+   * @param generator The generator
+   */
+  final void write(JsonGenerator generator) {
+    generator.writeStartObject();
+    generator.write("request-id", requestId);
+    generator.write("command", name);
+    writeArguments(generator);
+    generator.writeEnd();
+  }
+
+  /**
+   * Write the command arguments as members of the command object. Commands without arguments write
+   * nothing.
+   *
+   * @param generator The generator
+   */
+  protected void writeArguments(JsonGenerator generator) {}
+
+  @Override
+  public String toString() {
+    StringWriter writer = new StringWriter();
+
+    try (JsonGenerator generator = JsonCommandEncoder.GENERATOR_FACTORY.createGenerator(writer)) {
+      write(generator);
+    }
+
+    return writer.toString();
+  }
+}
@@ -0,0 +1,33 @@
+package org.jlab.phaser.network;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufOutputStream;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.handler.codec.MessageToByteEncoder;
+import io.netty.util.CharsetUtil;
+import javax.json.Json;
+import javax.json.stream.JsonGenerator;
+import javax.json.stream.JsonGeneratorFactory;
+
+/**
+ * Encodes JsonCommands as newline terminated UTF-8 JSON directly into pooled outbound buffers.
+ *
+ * <p>The JSON provider is looked up once and its generator factory shared, as the factory is thread
+ * safe.
+ */
+public class JsonCommandEncoder extends MessageToByteEncoder<JsonCommand> {
+
+  /** The shared generator factory. */
+  static final JsonGeneratorFactory GENERATOR_FACTORY = Json.createGeneratorFactory(null);
+
+  @Override
+  protected void encode(ChannelHandlerContext context, JsonCommand command, ByteBuf out) {
+    // Closing the generator flushes it; closing the stream leaves the buffer alone
+    try (JsonGenerator generator =
+        GENERATOR_FACTORY.createGenerator(new ByteBufOutputStream(out), CharsetUtil.UTF_8)) {
+      command.write(generator);
+    }
+
+    out.writeByte('\n');
+  }
+}
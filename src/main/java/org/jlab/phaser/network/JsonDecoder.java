@@ -1,8 +1,12 @@
 package org.jlab.phaser.network;
 
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufInputStream;
 import io.netty.channel.ChannelHandlerContext;
 import io.netty.channel.ChannelInboundHandlerAdapter;
 import io.netty.handler.codec.DecoderException;
+import io.netty.util.CharsetUtil;
+import io.netty.util.ReferenceCountUtil;
 import java.io.StringReader;
 import java.util.logging.Level;
 import java.util.logging.Logger;
@@ -10,30 +14,50 @@ import javax.json.Json;
 import javax.json.JsonException;
 import javax.json.JsonObject;
 import javax.json.JsonReader;
+import javax.json.JsonReaderFactory;
 
 /**
  * Responsible for decoding JSON messages from a Netty Channel.
  *
+ * <p>Messages are expected to be framed UTF-8 ByteBufs, which are parsed in place without first
+ * being decoded into a String. Strings are still accepted for pipelines which decode them upstream.
+ * The JSON provider is looked up once and its reader factory shared, as the factory is thread safe.
+ *
  * @author ryans
  */
 public class JsonDecoder extends ChannelInboundHandlerAdapter {
 
   private static final Logger LOGGER = Logger.getLogger(JsonDecoder.class.getName());
 
+  private static final JsonReaderFactory READER_FACTORY = Json.createReaderFactory(null);
+
   @Override
   public void channelRead(ChannelHandlerContext context, Object message) {
-    LOGGER.log(Level.FINEST, "JsonDecoder Message: {0}", message);
-    if (message instanceof String) {
-      StringReader stringReader = new StringReader((String) message);
-      try (JsonReader jsonReader = Json.createReader(stringReader)) {
-        JsonObject json = jsonReader.readObject();
-        context.fireChannelRead(json);
-      } catch (JsonException | IllegalStateException e) {
-        context.fireExceptionCaught(e);
+    if (message instanceof ByteBuf) {
+      ByteBuf buf = (ByteBuf) message;
+      try {
+        if (LOGGER.isLoggable(Level.FINEST)) {
+          LOGGER.log(Level.FINEST, "JsonDecoder Message: {0}", buf.toString(CharsetUtil.UTF_8));
+        }
+        read(context, READER_FACTORY.createReader(new ByteBufInputStream(buf), CharsetUtil.UTF_8));
+      } finally {
+        ReferenceCountUtil.release(buf);
       }
+    } else if (message instanceof String) {
+      LOGGER.log(Level.FINEST, "JsonDecoder Message: {0}", message);
+      read(context, READER_FACTORY.createReader(new StringReader((String) message)));
     } else {
       context.fireExceptionCaught(
-          new DecoderException("JsonDecoder expects a String, found: " + message));
+          new DecoderException("JsonDecoder expects a ByteBuf or String, found: " + message));
+    }
+  }
+
+  private static void read(ChannelHandlerContext context, JsonReader reader) {
+    try (JsonReader jsonReader = reader) {
+      JsonObject json = jsonReader.readObject();
+      context.fireChannelRead(json);
+    } catch (JsonException | IllegalStateException e) {
+      context.fireExceptionCaught(e);
     }
   }
 }
@@ -0,0 +1,117 @@
+package org.jlab.phaser.network;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A lock-free histogram of command round trip times.
+ *
+ * <p>Buckets are spaced logarithmically, four per doubling, from 100 microseconds to about 100
+ * seconds, so a reported percentile is the upper bound of its bucket and overstates the true value
+ * by at most 19%. The maximum is exact. Recording never allocates, so it is cheap enough to do for
+ * every response on the thread which delivers it.
+ */
+public class LatencyHistogram {
+
+  private static final long MIN_NANOS = TimeUnit.MICROSECONDS.toNanos(100);
+  private static final int BUCKETS_PER_DOUBLING = 4;
+  private static final int BUCKET_COUNT = 20 * BUCKETS_PER_DOUBLING + 1;
+
+  /** Upper bound of each bucket in nanoseconds; the last bucket is unbounded. */
+  private static final long[] BOUNDS = new long[BUCKET_COUNT];
+
+  static {
+    for (int i = 0; i < BUCKET_COUNT; i++) {
+      BOUNDS[i] = (long) (MIN_NANOS * Math.pow(2, (double) i / BUCKETS_PER_DOUBLING));
+    }
+  }
+
+  private final AtomicLongArray counts = new AtomicLongArray(BUCKET_COUNT);
+  private final AtomicLong total = new AtomicLong();
+  private final AtomicLong maxNanos = new AtomicLong();
+
+  /**
+   * Record a round trip.
+   *
+   * @param nanos The round trip time in nanoseconds
+   */
+  public void record(long nanos) {
+    int low = 0;
+    int high = BUCKET_COUNT - 1;
+
+    // Find the first bucket whose upper bound is at least the value
+    while (low < high) {
+      int mid = (low + high) >>> 1;
+
+      if (BOUNDS[mid] < nanos) {
+        low = mid + 1;
+      } else {
+        high = mid;
+      }
+    }
+
+    counts.incrementAndGet(low);
+    total.incrementAndGet();
+
+    long max;
+
+    while (nanos > (max = maxNanos.get()) && !maxNanos.compareAndSet(max, nanos)) {
+      // Another thread raised the maximum; try again
+    }
+  }
+
+  /**
+   * Return the number of round trips recorded.
+   *
+   * @return The count
+   */
+  public long getCount() {
+    return total.get();
+  }
+
+  /**
+   * Return an upper bound of the given percentile of the recorded round trips. The bound is never
+   * more than the maximum recorded.
+   *
+   * @param percentile The percentile (0 - 100)
+   * @return The round trip time in milliseconds or 0 if nothing is recorded
+   */
+  public double getPercentileMillis(double percentile) {
+    long count = total.get();
+
+    if (count == 0) {
+      return 0;
+    }
+
+    long rank = Math.max(1, (long) Math.ceil(count * percentile / 100));
+    long seen = 0;
+
+    for (int i = 0; i < BUCKET_COUNT; i++) {
+      seen += counts.get(i);
+
+      if (seen >= rank) {
+        return i == BUCKET_COUNT - 1 ? getMaxMillis() : Math.min(BOUNDS[i], maxNanos.get()) / 1e6;
+      }
+    }
+
+    // Counts were recorded after total was read
+    return getMaxMillis();
+  }
+
+  /**
+   * Return the longest recorded round trip.
+   *
+   * @return The round trip time in milliseconds
+   */
+  public double getMaxMillis() {
+    return maxNanos.get() / 1e6;
+  }
+
+  @Override
+  public String toString() {
+    return String.format(
+        "count: %d, p50: %.1f ms, p99: %.1f ms, max: %.1f ms",
+        getCount(), getPercentileMillis(50), getPercentileMillis(99), getMaxMillis());
+  }
+}
@@ -2,85 +2,328 @@ package org.jlab.phaser.network;
 
 import io.netty.channel.Channel;
 import io.netty.channel.ChannelFuture;
+import io.netty.channel.ChannelFutureListener;
+import java.math.BigDecimal;
 import java.math.BigInteger;
-import java.text.DecimalFormat;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
 import java.util.LinkedHashSet;
-import java.util.concurrent.BlockingQueue;
-import java.util.concurrent.LinkedBlockingQueue;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import javax.json.JsonArray;
 import javax.json.JsonObject;
 import javax.json.JsonString;
 import javax.json.JsonValue;
-import org.jlab.phaser.PhaserServerConsole;
+import javax.json.stream.JsonGenerator;
+import org.jlab.phaser.AsyncPhaserServerConsole;
 import org.jlab.phaser.exception.CommandException;
 import org.jlab.phaser.model.JobSpecification;
 
 /**
- * An implementation of a PhaserServerConsole which leverages the Netty network library to do the
- * heavy lifting.
+ * An implementation of an AsyncPhaserServerConsole which leverages the Netty network library to do
+ * the heavy lifting.
  *
  * <p>This class also implements ResponseListener and should be registered as a response listener so
  * that it can check for "ok" responses and returned data.
  *
+ * <p>Commands are pipelined: each is tagged with a "request-id" which the server echoes in its
+ * response, so several commands may be outstanding at once and a late response to a command which
+ * timed out can never be mistaken for the response to another command. Servers which predate
+ * request IDs answer in order, so their responses are matched to commands first in, first out. An
+ * error response without an ID from a server which echoes IDs is matched to the oldest command, as
+ * it is the answer to a command the server couldn't parse.
+ *
  * @author ryans
  */
-public class NettyJsonConsole implements PhaserServerConsole, ResponseListener {
+public class NettyJsonConsole implements AsyncPhaserServerConsole, ResponseListener {
 
   private static final Logger LOGGER = Logger.getLogger(NettyJsonConsole.class.getName());
-  private static final long RESPONSE_POLL_SECONDS = 5;
-  private Channel channel = null;
 
-  /** The response queue should have either zero or one response in it at any given time. */
-  private final BlockingQueue<JsonObject> responseQueue = new LinkedBlockingQueue<>(1);
+  /** The default time a command may wait for its response. */
+  public static final long DEFAULT_COMMAND_DEADLINE_MILLIS = 5000;
+
+  /**
+   * How long the reply to a timed out command is still expected from a server which doesn't echo
+   * request IDs. Until then the next reply without an ID is assumed to be the late reply.
+   */
+  private static final long ABANDONED_EXPIRATION_SECONDS = 60;
+
+  /** Discards the response of commands which return nothing. */
+  private static final Function<JsonObject, Void> NO_RESULT =
+      new Function<JsonObject, Void>() {
+        @Override
+        public Void apply(JsonObject response) {
+          return null;
+        }
+      };
+
+  private final long commandDeadlineMillis;
+
+  private final LatencyHistogram latency = new LatencyHistogram();
+
+  private volatile Channel channel = null;
+
+  private final AtomicLong nextRequestId = new AtomicLong();
+
+  /** Outstanding commands by request ID. */
+  private final Map<Long, PendingCommand> pendingById = new ConcurrentHashMap<>();
+
+  /** Outstanding commands in the order they were written, for servers which don't echo IDs. */
+  private final Deque<PendingCommand> pendingInOrder = new ArrayDeque<>();
+
+  /** Set once the server echoes a request ID; from then on responses are matched by ID only. */
+  private volatile boolean serverEchoesIds = false;
+
+  /**
+   * The newest request ID at the time a late response without an ID was last discarded; guarded by
+   * pendingInOrder. A command up to this ID which then misses its deadline most likely had its own
+   * response discarded as the late one, meaning the server never answered the older command.
+   */
+  private long lateResponseHorizon = 0;
+
+  /** Create a new NettyJsonConsole with the default command deadline. */
+  public NettyJsonConsole() {
+    this(DEFAULT_COMMAND_DEADLINE_MILLIS);
+  }
+
+  /**
+   * Create a new NettyJsonConsole.
+   *
+   * @param commandDeadlineMillis The time a command may wait for its response in milliseconds
+   */
+  public NettyJsonConsole(long commandDeadlineMillis) {
+    this.commandDeadlineMillis = commandDeadlineMillis;
+  }
+
+  /**
+   * Return the command deadline.
+   *
+   * @return The time a command may wait for its response in milliseconds
+   */
+  public long getCommandDeadlineMillis() {
+    return commandDeadlineMillis;
+  }
+
+  /**
+   * Return the histogram of command round trip times, from writing a command to reading its
+   * response, including late responses to commands which missed their deadline.
+   *
+   * @return The histogram
+   */
+  public LatencyHistogram getLatency() {
+    return latency;
+  }
+
+  /**
+   * Sends a command without waiting for the response. Each command is tagged with a request ID
+   * which the server echoes in its response, so any number of commands may be outstanding at once
+   * and responses may arrive in any order. For servers which don't echo IDs, responses are matched
+   * to commands in the order the commands were written.
+   *
+   * @param command The command
+   * @return A future which completes with the response JsonObject, whether "ok" or not
+   */
+  CompletableFuture<JsonObject> sendCommandAsync(JsonCommand command) {
+    long id = nextRequestId.incrementAndGet();
+    final PendingCommand pending = new PendingCommand(id);
+
+    command.setRequestId(id);
+
+    LOGGER.log(Level.FINEST, "Client Command: {0}", command);
+
+    // Register and write under one lock so the write order matches the order of pendingInOrder
+    synchronized (pendingInOrder) {
+      pendingById.put(id, pending);
+      pendingInOrder.addLast(pending);
+
+      channel
+          .writeAndFlush(command)
+          .addListener(
+              new ChannelFutureListener() {
+                @Override
+                public void operationComplete(ChannelFuture future) {
+                  if (!future.isSuccess()) {
+                    remove(pending);
+                    pending.future.completeExceptionally(
+                        new CommandException("Unable to send command", future.cause()));
+                  }
+                }
+              });
+    }
+
+    return pending.future;
+  }
 
   /**
-   * Serializes client command/response pairs and checks for an "ok" response.
+   * Sends a command and checks for an "ok" response. The returned future fails with a
+   * CommandException if the command can't be sent, the server doesn't respond in time, or the
+   * response isn't "ok". The response timeout runs on the channel's event loop so no thread waits.
+   *
+   * <p>The deadline applies to reading the response, not to delivering it: when the timeout fires,
+   * the check is queued behind the responses already read, so a response which arrived in time but
+   * is still waiting for busy listeners doesn't fail the command.
    *
    * @param command The command
-   * @return The response JsonObject
-   * @throws CommandException If something goes wrong
+   * @return A future of the response JsonObject
    */
-  private synchronized JsonObject sendCommand(String command) throws CommandException {
-    // As a matter of housekeeping first check response queue.  If something
-    // is present then clear it and log it as an issue
-    if (responseQueue.size() > 0) {
-      for (JsonObject response : responseQueue) {
+  private CompletableFuture<JsonObject> sendCommand(JsonCommand command) {
+    final CompletableFuture<JsonObject> sent = sendCommandAsync(command);
+    final Channel sentOn = channel;
+
+    final Runnable expire =
+        new Runnable() {
+          @Override
+          public void run() {
+            if (sent.completeExceptionally(
+                new CommandException(
+                    "Server did not respond within " + commandDeadlineMillis + " ms"))) {
+              abandon(sent);
+            }
+          }
+        };
+
+    final ScheduledFuture<?> timeout =
+        sentOn
+            .eventLoop()
+            .schedule(
+                new Runnable() {
+                  @Override
+                  public void run() {
+                    PhaserClientMessageDecoder decoder =
+                        sentOn.pipeline().get(PhaserClientMessageDecoder.class);
+
+                    if (decoder == null) {
+                      expire.run();
+                    } else {
+                      decoder.dispatchBehindResponses(expire);
+                    }
+                  }
+                },
+                commandDeadlineMillis,
+                TimeUnit.MILLISECONDS);
+
+    return sent.thenApply(
+        new Function<JsonObject, JsonObject>() {
+          @Override
+          public JsonObject apply(JsonObject response) {
+            timeout.cancel(false);
+
+            if (!"ok".equals(response.getString("response"))) {
+              String message = response.getString("message");
+              throw new CompletionException(
+                  new CommandException("Unable to execute command: " + message));
+            }
+
+            return response;
+          }
+        });
+  }
+
+  /**
+   * Gives up on an outstanding command. If the server doesn't echo request IDs the command stays
+   * registered so that a late response is recognized and discarded instead of being mistaken for
+   * the response to a later command.
+   *
+   * <p>A server which never answers a command breaks that assumption: the next response is
+   * discarded as the late one, and every later response is matched to the command before its own.
+   * So when a command misses its deadline while an older abandoned command is still registered, or
+   * after a late response was discarded while it was outstanding, the order is assumed lost and the
+   * stale commands are dropped so that the next response is matched to the next command again.
+   *
+   * @param future The future of the command
+   */
+  void abandon(CompletableFuture<JsonObject> future) {
+    synchronized (pendingInOrder) {
+      PendingCommand abandoned = null;
+
+      for (PendingCommand pending : pendingInOrder) {
+        if (pending.future == future) {
+          abandoned = pending;
+          break;
+        }
+      }
+
+      if (abandoned == null) {
+        return;
+      }
+
+      if (serverEchoesIds) {
+        remove(abandoned);
+        return;
+      }
+
+      int dropped = 0;
+      Iterator<PendingCommand> iterator = pendingInOrder.iterator();
+      PendingCommand pending;
+
+      while ((pending = iterator.next()) != abandoned) {
+        if (pending.abandonedAt != 0) {
+          iterator.remove();
+          pendingById.remove(pending.id);
+          dropped++;
+        }
+      }
+
+      if (abandoned.id <= lateResponseHorizon) {
+        // Its response was most likely the one discarded as late
+        iterator.remove();
+        pendingById.remove(abandoned.id);
+        dropped++;
+      } else {
+        abandoned.abandonedAt = System.nanoTime();
+      }
+
+      if (dropped > 0) {
         LOGGER.log(
-            Level.SEVERE, "Unsolicited response found in response queue: {0}", response.toString());
+            Level.WARNING,
+            "Server response order lost; no longer expecting responses to {0} abandoned requests",
+            dropped);
       }
-      responseQueue.clear();
     }
+  }
+
+  private void remove(PendingCommand pending) {
+    pendingById.remove(pending.id);
 
-    ChannelFuture future = channel.writeAndFlush(command);
+    synchronized (pendingInOrder) {
+      pendingInOrder.remove(pending);
+    }
+  }
 
-    future.awaitUninterruptibly();
+  /**
+   * Removes and returns the oldest outstanding command, skipping commands abandoned so long ago
+   * that their response is never coming.
+   *
+   * @return The command or null if none are outstanding
+   */
+  private PendingCommand pollOldest() {
+    long now = System.nanoTime();
 
-    JsonObject response = null;
+    synchronized (pendingInOrder) {
+      PendingCommand pending;
 
-    if (future.isSuccess()) {
-      try {
-        response = responseQueue.poll(RESPONSE_POLL_SECONDS, TimeUnit.SECONDS);
+      while ((pending = pendingInOrder.pollFirst()) != null) {
+        pendingById.remove(pending.id);
 
-        if (response == null) {
-          throw new CommandException(
-              "Server did not respond within " + RESPONSE_POLL_SECONDS + " seconds");
+        if (pending.abandonedAt == 0
+            || now - pending.abandonedAt < TimeUnit.SECONDS.toNanos(ABANDONED_EXPIRATION_SECONDS)) {
+          return pending;
         }
 
-        if (!"ok".equals(response.getString("response"))) {
-          String message = response.getString("message");
-          throw new CommandException("Unable to execute command: " + message);
-        }
-      } catch (InterruptedException e) {
-        throw new CommandException("Interrupted while waiting for server response", e);
+        LOGGER.log(Level.WARNING, "Giving up on response to abandoned request {0}", pending.id);
       }
-    } else {
-      throw new CommandException("Unable to send command", future.cause());
-    }
 
-    return response;
+      return null;
+    }
   }
 
   /**
@@ -106,84 +349,79 @@ public class NettyJsonConsole implements PhaserServerConsole, ResponseListener {
   }
 
   @Override
-  public LinkedHashSet<String> cavities() throws CommandException {
-    String command = "{\"command\": \"cavities\"}\n";
-
-    LOGGER.log(Level.FINEST, "Client Command: {0}", command);
-
-    JsonObject response = sendCommand(command);
-
-    return parseCavitiesResponse(response);
+  public CompletableFuture<LinkedHashSet<String>> cavities() {
+    return sendCommand(new JsonCommand("cavities"))
+        .thenApply(
+            new Function<JsonObject, LinkedHashSet<String>>() {
+              @Override
+              public LinkedHashSet<String> apply(JsonObject response) {
+                try {
+                  return parseCavitiesResponse(response);
+                } catch (CommandException e) {
+                  throw new CompletionException(e);
+                }
+              }
+            });
   }
 
   @Override
-  public void applyCorrections(BigInteger[] resultIdArray) throws CommandException {
-    String command = "{\"command\": \"apply-corrections\", \"results\": [";
-
-    if (resultIdArray != null) {
-      if (resultIdArray.length > 0) {
-        command = command + resultIdArray[0];
-      }
-
-      for (int i = 1; i < resultIdArray.length; i++) {
-        command = command + ", " + resultIdArray[i];
-      }
-    }
-
-    command = command + "]}\n";
-
-    LOGGER.log(Level.FINEST, "Client Command: {0}", command);
-
-    sendCommand(command);
+  public CompletableFuture<Void> applyCorrections(final BigInteger[] resultIdArray) {
+    JsonCommand command =
+        new JsonCommand("apply-corrections") {
+          @Override
+          protected void writeArguments(JsonGenerator generator) {
+            generator.writeStartArray("results");
+
+            if (resultIdArray != null) {
+              for (BigInteger resultId : resultIdArray) {
+                generator.write(resultId);
+              }
+            }
+
+            generator.writeEnd();
+          }
+        };
+
+    return sendCommand(command).thenApply(NO_RESULT);
   }
 
   @Override
-  public void start(JobSpecification job) throws CommandException {
-    DecimalFormat decimalFormat = new DecimalFormat("0.0#####");
-    StringBuilder builder = new StringBuilder();
-    builder.append("{\"correct\": ");
-    builder.append(job.isCorrect());
-    builder.append(", \"continuous\": ");
-    builder.append(job.isContinuous());
-    builder.append(", \"max-phase-error\": ");
-    builder.append(decimalFormat.format(job.getMaxPhaseError()));
-    builder.append(", \"max-momentum-error\": ");
-    builder.append(decimalFormat.format(job.getMaxMomentumError()));
-    builder.append(", \"kick-samples\": ");
-    builder.append(job.getKickSamples());
-    builder.append(", \"cavities\": [");
-    for (String cavity : job.getCavities()) {
-      builder.append("\"");
-      builder.append(cavity);
-      builder.append("\", ");
-    }
-    int lastCommaIndex = builder.lastIndexOf(",");
-    builder.delete(lastCommaIndex, lastCommaIndex + 1);
-    builder.append("]}");
-
-    String command = "{\"command\": \"start\", \"job\": " + builder.toString() + "}\n";
-
-    LOGGER.log(Level.FINEST, "Client Command: {0}", command);
-
-    sendCommand(command);
+  public CompletableFuture<Void> start(final JobSpecification job) {
+    JsonCommand command =
+        new JsonCommand("start") {
+          @Override
+          protected void writeArguments(JsonGenerator generator) {
+            generator.writeStartObject("job");
+            generator.write("correct", job.isCorrect());
+            generator.write("continuous", job.isContinuous());
+            // Via the shortest decimal string so 0.1f is sent as 0.1, not 0.10000000149...
+            generator.write(
+                "max-phase-error", new BigDecimal(Float.toString(job.getMaxPhaseError())));
+            generator.write(
+                "max-momentum-error", new BigDecimal(Float.toString(job.getMaxMomentumError())));
+            generator.write("kick-samples", job.getKickSamples());
+            generator.writeStartArray("cavities");
+
+            for (String cavity : job.getCavities()) {
+              generator.write(cavity);
+            }
+
+            generator.writeEnd();
+            generator.writeEnd();
+          }
+        };
+
+    return sendCommand(command).thenApply(NO_RESULT);
   }
 
   @Override
-  public void pause() throws CommandException {
-    String command = "{\"command\": \"pause\"}\n";
-
-    LOGGER.log(Level.FINEST, "Client Command: {0}", command);
-
-    sendCommand(command);
+  public CompletableFuture<Void> pause() {
+    return sendCommand(new JsonCommand("pause")).thenApply(NO_RESULT);
   }
 
   @Override
-  public void resume() throws CommandException {
-    String command = "{\"command\": \"resume\"}\n";
-
-    LOGGER.log(Level.FINEST, "Client Command: {0}", command);
-
-    sendCommand(command);
+  public CompletableFuture<Void> resume() {
+    return sendCommand(new JsonCommand("resume")).thenApply(NO_RESULT);
   }
 
   private String parseServerVersion(JsonObject response) throws CommandException {
@@ -198,45 +436,109 @@ public class NettyJsonConsole implements PhaserServerConsole, ResponseListener {
   }
 
   @Override
-  public String serverVersion() throws CommandException {
-    String command = "{\"command\": \"version\"}\n";
-
-    LOGGER.log(Level.FINEST, "Client Command: {0}", command);
+  public CompletableFuture<String> serverVersion() {
+    return sendCommand(new JsonCommand("version"))
+        .thenApply(
+            new Function<JsonObject, String>() {
+              @Override
+              public String apply(JsonObject response) {
+                try {
+                  return parseServerVersion(response);
+                } catch (CommandException e) {
+                  throw new CompletionException(e);
+                }
+              }
+            });
+  }
 
-    JsonObject response = sendCommand(command);
+  @Override
+  public CompletableFuture<Void> stop() {
+    return sendCommand(new JsonCommand("stop")).thenApply(NO_RESULT);
+  }
 
-    return parseServerVersion(response);
+  @Override
+  public CompletableFuture<Void> skip() {
+    return sendCommand(new JsonCommand("skip")).thenApply(NO_RESULT);
   }
 
   @Override
-  public void stop() throws CommandException {
-    String command = "{\"command\": \"stop\"}\n";
+  public void handleResponse(JsonObject json, long receivedNanos) {
+    PendingCommand pending;
 
-    LOGGER.log(Level.FINEST, "Client Command: {0}", command);
+    if (json.containsKey("request-id") && !json.isNull("request-id")) {
+      serverEchoesIds = true;
+      pending = pendingById.get(json.getJsonNumber("request-id").longValue());
 
-    sendCommand(command);
-  }
+      if (pending == null) {
+        LOGGER.log(Level.WARNING, "Discarding response to unknown or abandoned request: {0}", json);
+        return;
+      }
 
-  @Override
-  public void skip() throws CommandException {
-    String command = "{\"command\": \"skip\"}\n";
+      remove(pending);
+    } else if (serverEchoesIds) {
+      // The server can't echo the ID of a command it couldn't parse, so an error without an ID is
+      // the answer to the oldest command rather than leaving it to miss its deadline
+      pending = "ok".equals(json.getString("response", null)) ? null : pollOldest();
+    } else {
+      pending = pollOldest();
+    }
 
-    LOGGER.log(Level.FINEST, "Client Command: {0}", command);
+    if (pending != null) {
+      latency.record(receivedNanos - pending.sentAt);
+    }
 
-    sendCommand(command);
-  }
+    if (pending == null) {
+      LOGGER.log(Level.SEVERE, "Unsolicited response: {0}", json.toString());
+    } else if (pending.abandonedAt != 0) {
+      LOGGER.log(Level.WARNING, "Discarding late response to request {0}", pending.id);
 
-  @Override
-  public void handleResponse(JsonObject json) {
-    responseQueue.add(json);
+      if (!serverEchoesIds) {
+        synchronized (pendingInOrder) {
+          lateResponseHorizon = nextRequestId.get();
+        }
+      }
+    } else {
+      pending.future.complete(json);
+    }
   }
 
   /**
-   * Set the Netty communication channel to use.
+   * Set the Netty communication channel to use. Called again with the new channel after a
+   * reconnect; commands outstanding on the old channel fail when it closes.
    *
    * @param channel The channel
    */
   public void setChannel(Channel channel) {
     this.channel = channel;
+
+    // The server may have been replaced by a version which doesn't echo request IDs
+    serverEchoesIds = false;
+
+    channel
+        .closeFuture()
+        .addListener(
+            new ChannelFutureListener() {
+              @Override
+              public void operationComplete(ChannelFuture future) {
+                PendingCommand pending;
+
+                while ((pending = pollOldest()) != null) {
+                  pending.future.completeExceptionally(
+                      new CommandException("Connection to server closed"));
+                }
+              }
+            });
+  }
+
+  /** A command waiting for its response. */
+  private static final class PendingCommand {
+    private final long id;
+    private final CompletableFuture<JsonObject> future = new CompletableFuture<>();
+    private final long sentAt = System.nanoTime();
+    private volatile long abandonedAt = 0;
+
+    private PendingCommand(long id) {
+      this.id = id;
+    }
   }
 }
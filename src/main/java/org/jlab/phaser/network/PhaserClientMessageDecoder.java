@@ -1,10 +1,13 @@
 package org.jlab.phaser.network;
 
+import io.netty.channel.ChannelHandler;
 import io.netty.channel.ChannelHandlerContext;
 import io.netty.channel.ChannelInboundHandlerAdapter;
+import java.time.Instant;
 import java.time.LocalDateTime;
 import java.time.ZoneId;
 import java.util.*;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import javax.json.JsonArray;
@@ -13,19 +16,44 @@ import javax.json.JsonObject;
 import javax.json.JsonString;
 import javax.json.JsonValue;
 import org.jlab.phaser.NotificationListener;
+import org.jlab.phaser.model.CavityNotification;
+import org.jlab.phaser.model.JobNotification;
 import org.jlab.phaser.model.JobSpecification;
 
 /**
  * Responsible for decoding JSON messages per the Phaser Client-Server protocol.
  *
+ * <p>The decoder holds no per-connection state, so one instance is shared by the pipeline of every
+ * connection and listeners survive reconnects.
+ *
  * @author ryans
  */
+@ChannelHandler.Sharable
 public class PhaserClientMessageDecoder extends ChannelInboundHandlerAdapter {
 
   private static final Logger LOGGER = Logger.getLogger(PhaserClientMessageDecoder.class.getName());
 
-  private final List<NotificationListener> notificationListeners = new ArrayList<>();
-  private final List<ResponseListener> responseListeners = new ArrayList<>();
+  // Looking up the default zone on every notification is surprisingly costly, so it's cached
+  private static final ZoneId SERVER_ZONE = ZoneId.systemDefault();
+
+  private final List<NotificationListener> notificationListeners = new CopyOnWriteArrayList<>();
+  private final List<ResponseListener> responseListeners = new CopyOnWriteArrayList<>();
+  private final DispatchQueue dispatchQueue;
+
+  /** Create a new PhaserClientMessageDecoder which calls listeners on the network thread. */
+  public PhaserClientMessageDecoder() {
+    this(null);
+  }
+
+  /**
+   * Create a new PhaserClientMessageDecoder which calls listeners on the thread of a DispatchQueue
+   * so that a slow listener never delays socket reads.
+   *
+   * @param dispatchQueue The DispatchQueue or null to call listeners on the network thread
+   */
+  public PhaserClientMessageDecoder(DispatchQueue dispatchQueue) {
+    this.dispatchQueue = dispatchQueue;
+  }
 
   /**
    * Adds a NotificationListener to the collection of listeners to be notified of server
@@ -34,9 +62,16 @@ public class PhaserClientMessageDecoder extends ChannelInboundHandlerAdapter {
    * @param listener The NotificationListener
    */
   public void addNotificationListener(NotificationListener listener) {
-    synchronized (notificationListeners) {
-      notificationListeners.add(listener);
-    }
+    notificationListeners.add(listener);
+  }
+
+  /**
+   * Removes a NotificationListener.
+   *
+   * @param listener The NotificationListener
+   */
+  public void removeNotificationListener(NotificationListener listener) {
+    notificationListeners.remove(listener);
   }
 
   /**
@@ -45,8 +80,33 @@ public class PhaserClientMessageDecoder extends ChannelInboundHandlerAdapter {
    * @param listener The ResponseListener
    */
   public void addResponseListener(ResponseListener listener) {
-    synchronized (responseListeners) {
-      responseListeners.add(listener);
+    responseListeners.add(listener);
+  }
+
+  /**
+   * Removes a ResponseListener.
+   *
+   * @param listener The ResponseListener
+   */
+  public void removeResponseListener(ResponseListener listener) {
+    responseListeners.remove(listener);
+  }
+
+  /**
+   * Runs a notification delivery on the dispatch thread, or immediately if there is no
+   * DispatchQueue.
+   *
+   * @param delivery The delivery
+   * @param droppable true if the notification may be dropped when the listeners fall behind, as a
+   *     later notification of the same kind makes it obsolete
+   */
+  private void dispatchNotification(Runnable delivery, boolean droppable) {
+    if (dispatchQueue == null) {
+      delivery.run();
+    } else if (droppable) {
+      dispatchQueue.submitNotification(delivery);
+    } else {
+      dispatchQueue.submitStateNotification(delivery);
     }
   }
 
@@ -56,44 +116,35 @@ public class PhaserClientMessageDecoder extends ChannelInboundHandlerAdapter {
    * @param message The notification message
    * @param error true if an error, false otherwise
    */
-  private void notifyStatus(String message, Boolean error) {
-    synchronized (notificationListeners) {
-      for (NotificationListener listener : notificationListeners) {
-        listener.statusNotification(message, error);
-      }
-    }
+  private void notifyStatus(final String message, final Boolean error) {
+    dispatchNotification(
+        new Runnable() {
+          @Override
+          public void run() {
+            for (NotificationListener listener : notificationListeners) {
+              listener.statusNotification(message, error);
+            }
+          }
+        },
+        false);
   }
 
   /**
-   * Notifies NotificationListeners of a job notification. If there is no job then all fields are
-   * null.
+   * Notifies NotificationListeners of a job notification.
    *
-   * @param job The Job or null
-   * @param jobId The Job ID or null
-   * @param jobStart The Job Start or null
-   * @param paused true if pause, false if not, null if no job
-   * @param loop The loop number or null
-   * @param cavity The current cavity name or null
-   * @param cavityStart The current cavity start date or null
-   * @param progress The current cavity progress percent or null
-   * @param label The current cavity progress label or null
+   * @param notification The job notification
    */
-  private void notifyJob(
-      JobSpecification job,
-      Long jobId,
-      Calendar jobStart,
-      Boolean paused,
-      Integer loop,
-      String cavity,
-      Calendar cavityStart,
-      Integer progress,
-      String label) {
-    synchronized (notificationListeners) {
-      for (NotificationListener listener : notificationListeners) {
-        listener.jobNotification(
-            job, jobId, jobStart, paused, loop, cavity, cavityStart, progress, label);
-      }
-    }
+  private void notifyJob(final JobNotification notification) {
+    dispatchNotification(
+        new Runnable() {
+          @Override
+          public void run() {
+            for (NotificationListener listener : notificationListeners) {
+              listener.jobNotification(notification);
+            }
+          }
+        },
+        false);
   }
 
   /**
@@ -101,12 +152,17 @@ public class PhaserClientMessageDecoder extends ChannelInboundHandlerAdapter {
    *
    * @param paused true if paused, false if not, otherwise null
    */
-  private void notifyPaused(Boolean paused) {
-    synchronized (notificationListeners) {
-      for (NotificationListener listener : notificationListeners) {
-        listener.pausedNotification(paused);
-      }
-    }
+  private void notifyPaused(final Boolean paused) {
+    dispatchNotification(
+        new Runnable() {
+          @Override
+          public void run() {
+            for (NotificationListener listener : notificationListeners) {
+              listener.pausedNotification(paused);
+            }
+          }
+        },
+        false);
   }
 
   /**
@@ -114,26 +170,35 @@ public class PhaserClientMessageDecoder extends ChannelInboundHandlerAdapter {
    *
    * @param loop The loop number or null
    */
-  private void notifyLoop(Integer loop) {
-    synchronized (notificationListeners) {
-      for (NotificationListener listener : notificationListeners) {
-        listener.loopNotification(loop);
-      }
-    }
+  private void notifyLoop(final Integer loop) {
+    dispatchNotification(
+        new Runnable() {
+          @Override
+          public void run() {
+            for (NotificationListener listener : notificationListeners) {
+              listener.loopNotification(loop);
+            }
+          }
+        },
+        false);
   }
 
   /**
    * Notifies NotificationListeners of a cavity notification.
    *
-   * @param start The cavity start date or null
-   * @param cavity The cavity name or null
+   * @param notification The cavity notification
    */
-  private void notifyCavity(Calendar start, String cavity) {
-    synchronized (notificationListeners) {
-      for (NotificationListener listener : notificationListeners) {
-        listener.cavityNotification(start, cavity);
-      }
-    }
+  private void notifyCavity(final CavityNotification notification) {
+    dispatchNotification(
+        new Runnable() {
+          @Override
+          public void run() {
+            for (NotificationListener listener : notificationListeners) {
+              listener.cavityNotification(notification);
+            }
+          }
+        },
+        false);
   }
 
   /**
@@ -142,27 +207,76 @@ public class PhaserClientMessageDecoder extends ChannelInboundHandlerAdapter {
    * @param value The progress percent (0 - 100) or null
    * @param label The progress label or null
    */
-  private void notifyProgress(Integer value, String label) {
-    synchronized (notificationListeners) {
-      for (NotificationListener listener : notificationListeners) {
-        listener.progressNotification(value, label);
-      }
+  private void notifyProgress(final Integer value, final String label) {
+    dispatchNotification(
+        new Runnable() {
+          @Override
+          public void run() {
+            for (NotificationListener listener : notificationListeners) {
+              listener.progressNotification(value, label);
+            }
+          }
+        },
+        true);
+  }
+
+  /**
+   * Runs a task after the responses read so far have been delivered to the ResponseListeners, or
+   * immediately if there is no DispatchQueue. Call from the channel's event loop, which is the
+   * thread responses are read on.
+   *
+   * @param task The task
+   */
+  void dispatchBehindResponses(Runnable task) {
+    if (dispatchQueue == null) {
+      task.run();
+    } else {
+      dispatchQueue.submitResponse(task);
     }
   }
 
   /**
-   * Notifies NotificationListeners of a response.
+   * Notifies ResponseListeners of a response. Responses go through the same DispatchQueue as
+   * notifications, so listeners see them in the order they were read, but are never dropped.
    *
    * @param json The JsonObject response
+   * @param receivedNanos The time the response was read, taken on the network thread so that a
+   *     backlog of listener work doesn't count against the round trip
    */
-  private void notifyResponseListeners(JsonObject json) {
-    synchronized (responseListeners) {
-      for (ResponseListener listener : responseListeners) {
-        listener.handleResponse(json);
-      }
+  private void notifyResponseListeners(final JsonObject json, final long receivedNanos) {
+    Runnable delivery =
+        new Runnable() {
+          @Override
+          public void run() {
+            for (ResponseListener listener : responseListeners) {
+              listener.handleResponse(json, receivedNanos);
+            }
+          }
+        };
+
+    if (dispatchQueue == null) {
+      delivery.run();
+    } else {
+      dispatchQueue.submitResponse(delivery);
     }
   }
 
+  /**
+   * Parses an optional server timestamp. The server sends local date times without an offset, in
+   * the zone it shares with the client.
+   *
+   * @param json The JsonObject
+   * @param key The timestamp key
+   * @return The timestamp or null if absent
+   */
+  static Instant parseTimestamp(JsonObject json, String key) {
+    if (!json.containsKey(key) || json.isNull(key)) {
+      return null;
+    }
+
+    return LocalDateTime.parse(json.getString(key)).atZone(SERVER_ZONE).toInstant();
+  }
+
   /**
    * Parses the JSON obtained from the Netty channel read and dispatches notifications.
    *
@@ -184,15 +298,7 @@ public class PhaserClientMessageDecoder extends ChannelInboundHandlerAdapter {
           notifyStatus(message, error);
           break;
         case "job":
-          JobSpecification job = null;
-          Long jobId = null;
-          Calendar jobStart = null;
-          Boolean initPaused = null;
-          Integer initLoop = null;
-          String initCavity = null;
-          Calendar initCavityStart = null;
-          Integer progress = null;
-          String label = null;
+          JobNotification jobNotification = JobNotification.NONE;
           if (json.containsKey("job") && !json.isNull("job")) {
             JsonObject jobJson = json.getJsonObject("job");
             boolean correct = jobJson.getBoolean("correct");
@@ -208,56 +314,53 @@ public class PhaserClientMessageDecoder extends ChannelInboundHandlerAdapter {
             for (JsonValue value : cavitiesArray) {
               cavities.add(((JsonString) value).getString());
             }
-            job =
+            JobSpecification job =
                 new JobSpecification(
                     correct, continuous, maxPhaseError, maxMomentumError, kickSamples, cavities);
 
+            Long jobId = null;
             if (json.containsKey("job-id") && !json.isNull("job-id")) {
               jobId = json.getJsonNumber("job-id").longValueExact();
             }
 
-            if (json.containsKey("start") && !json.isNull("start")) {
-              String startStr = json.getString("start");
-              LocalDateTime localTime = LocalDateTime.parse(startStr);
-              jobStart = GregorianCalendar.from(localTime.atZone(ZoneId.systemDefault()));
-            }
-
+            Boolean initPaused = null;
             if (json.containsKey("paused") && !json.isNull("paused")) {
               initPaused = json.getBoolean("paused");
             }
 
+            Integer initLoop = null;
             if (json.containsKey("loop") && !json.isNull("loop")) {
               initLoop = json.getInt("loop");
             }
 
+            String initCavity = null;
             if (json.containsKey("cavity") && !json.isNull("cavity")) {
               initCavity = json.getString("cavity");
             }
 
-            if (json.containsKey("cavity-start") && !json.isNull("cavity-start")) {
-              String startStr = json.getString("cavity-start");
-              LocalDateTime localTime = LocalDateTime.parse(startStr);
-              initCavityStart = GregorianCalendar.from(localTime.atZone(ZoneId.systemDefault()));
-            }
-
+            Integer progress = null;
             if (json.containsKey("progress") && !json.isNull("progress")) {
               progress = json.getInt("progress");
             }
 
+            String label = null;
             if (json.containsKey("label") && !json.isNull("label")) {
               label = json.getString("label");
             }
+
+            jobNotification =
+                new JobNotification(
+                    job,
+                    jobId,
+                    parseTimestamp(json, "start"),
+                    initPaused,
+                    initLoop,
+                    initCavity,
+                    parseTimestamp(json, "cavity-start"),
+                    progress,
+                    label);
           }
-          notifyJob(
-              job,
-              jobId,
-              jobStart,
-              initPaused,
-              initLoop,
-              initCavity,
-              initCavityStart,
-              progress,
-              label);
+          notifyJob(jobNotification);
           break;
         case "paused":
           Boolean paused = null;
@@ -274,17 +377,11 @@ public class PhaserClientMessageDecoder extends ChannelInboundHandlerAdapter {
           notifyLoop(loop);
           break;
         case "cavity":
-          Calendar cavityStart = null;
-          if (json.containsKey("start") && !json.isNull("start")) {
-            String startStr = json.getString("start");
-            LocalDateTime localTime = LocalDateTime.parse(startStr);
-            cavityStart = GregorianCalendar.from(localTime.atZone(ZoneId.systemDefault()));
-          }
           String cavity = null;
           if (json.containsKey("name") && !json.isNull("name")) {
             cavity = json.getString("name");
           }
-          notifyCavity(cavityStart, cavity);
+          notifyCavity(new CavityNotification(parseTimestamp(json, "start"), cavity));
           break;
         case "progress":
           Integer value = null;
@@ -312,7 +409,7 @@ public class PhaserClientMessageDecoder extends ChannelInboundHandlerAdapter {
       JsonObject json = (JsonObject) message;
       try {
         if (json.containsKey("response")) {
-          notifyResponseListeners(json);
+          notifyResponseListeners(json, System.nanoTime());
         } else if (json.containsKey("notification")) {
           parseAndDispatchNotification(json);
         } else {
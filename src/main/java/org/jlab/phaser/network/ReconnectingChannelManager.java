@@ -0,0 +1,203 @@
+package org.jlab.phaser.network;
+
+import io.netty.bootstrap.Bootstrap;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelFuture;
+import io.netty.channel.ChannelFutureListener;
+import java.net.SocketAddress;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Keeps a connection to the server open, reconnecting whenever it closes until it is closed on
+ * purpose.
+ *
+ * <p>The same Bootstrap, and so the same event loop and pipeline initializer, is reused for every
+ * connection, so a reconnect costs only the TCP handshake. Failed attempts are retried with a delay
+ * which doubles up to a maximum; the delay resets once a connection succeeds.
+ */
+public class ReconnectingChannelManager {
+
+  private static final Logger LOGGER = Logger.getLogger(ReconnectingChannelManager.class.getName());
+
+  private final Bootstrap bootstrap;
+  private final SocketAddress address;
+  private final long initialBackoffMillis;
+  private final long maxBackoffMillis;
+  private final List<ConnectionListener> listeners = new CopyOnWriteArrayList<>();
+
+  // The following are guarded by this
+  private Channel channel = null;
+  private ScheduledFuture<?> reconnect = null;
+  private long backoffMillis;
+  private boolean closed = false;
+
+  /**
+   * Create a new ReconnectingChannelManager.
+   *
+   * @param bootstrap The configured Bootstrap, including event loop group and handler
+   * @param address The server address
+   * @param initialBackoffMillis The delay before the first reconnect attempt in milliseconds
+   * @param maxBackoffMillis The maximum delay between reconnect attempts in milliseconds
+   */
+  public ReconnectingChannelManager(
+      Bootstrap bootstrap,
+      SocketAddress address,
+      long initialBackoffMillis,
+      long maxBackoffMillis) {
+    this.bootstrap = bootstrap;
+    this.address = address;
+    this.initialBackoffMillis = initialBackoffMillis;
+    this.maxBackoffMillis = maxBackoffMillis;
+    this.backoffMillis = initialBackoffMillis;
+  }
+
+  /**
+   * Add a listener.
+   *
+   * @param listener The listener
+   */
+  public void addConnectionListener(ConnectionListener listener) {
+    listeners.add(listener);
+  }
+
+  /**
+   * Make the first connection attempt and wait for it. Unlike later attempts a failure here is not
+   * retried, so a misconfigured client fails fast.
+   *
+   * @return The future of the connection attempt
+   * @throws InterruptedException If interrupted while waiting
+   */
+  public ChannelFuture connect() throws InterruptedException {
+    ChannelFuture future = bootstrap.connect(address).await();
+
+    if (future.isSuccess()) {
+      connected(future.channel());
+    }
+
+    return future;
+  }
+
+  /**
+   * Return the current channel, which may be closed while a reconnect is pending.
+   *
+   * @return The channel or null if never connected
+   */
+  public synchronized Channel getChannel() {
+    return channel;
+  }
+
+  /**
+   * Stop reconnecting and close the current channel.
+   *
+   * @return The future of the channel close or null if never connected
+   */
+  public ChannelFuture close() {
+    Channel current;
+
+    synchronized (this) {
+      closed = true;
+
+      if (reconnect != null) {
+        reconnect.cancel(false);
+        reconnect = null;
+      }
+
+      current = channel;
+    }
+
+    return current == null ? null : current.close();
+  }
+
+  private void connected(Channel newChannel) {
+    synchronized (this) {
+      if (closed) {
+        newChannel.close();
+        return;
+      }
+
+      channel = newChannel;
+      backoffMillis = initialBackoffMillis;
+    }
+
+    LOGGER.log(Level.INFO, "Connected to server {0}", address);
+
+    newChannel
+        .closeFuture()
+        .addListener(
+            new ChannelFutureListener() {
+              @Override
+              public void operationComplete(ChannelFuture future) {
+                scheduleReconnect(null);
+              }
+            });
+
+    for (ConnectionListener listener : listeners) {
+      listener.connected(newChannel);
+    }
+  }
+
+  private void scheduleReconnect(Throwable cause) {
+    long delay;
+
+    synchronized (this) {
+      if (closed) {
+        return;
+      }
+
+      delay = backoffMillis;
+      backoffMillis = Math.min(backoffMillis * 2, maxBackoffMillis);
+
+      reconnect =
+          bootstrap
+              .config()
+              .group()
+              .schedule(
+                  new Runnable() {
+                    @Override
+                    public void run() {
+                      attempt();
+                    }
+                  },
+                  delay,
+                  TimeUnit.MILLISECONDS);
+    }
+
+    LOGGER.log(
+        Level.WARNING,
+        "Connection to server lost; reconnecting in {0} ms: {1}",
+        new Object[] {delay, cause == null ? "closed" : cause.getMessage()});
+
+    for (ConnectionListener listener : listeners) {
+      listener.disconnected(delay, cause);
+    }
+  }
+
+  private void attempt() {
+    synchronized (this) {
+      reconnect = null;
+
+      if (closed) {
+        return;
+      }
+    }
+
+    bootstrap
+        .connect(address)
+        .addListener(
+            new ChannelFutureListener() {
+              @Override
+              public void operationComplete(ChannelFuture future) {
+                if (future.isSuccess()) {
+                  connected(future.channel());
+                } else {
+                  scheduleReconnect(future.cause());
+                }
+              }
+            });
+  }
+}
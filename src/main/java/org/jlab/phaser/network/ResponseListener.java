@@ -12,6 +12,8 @@ public interface ResponseListener {
    * Notification that a server response to a command has been received.
    *
    * @param json The JsonObject containing the response
+   * @param receivedNanos The System.nanoTime at which the response was read from the network, which
+   *     may be well before this method is called if listeners have fallen behind
    */
-  public void handleResponse(JsonObject json);
+  public void handleResponse(JsonObject json, long receivedNanos);
 }
@@ -3,7 +3,9 @@ package org.jlab.phaser.swing.action;
 import java.awt.event.ActionEvent;
 import java.math.BigInteger;
 import java.util.ArrayList;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Set;
 import java.util.concurrent.ExecutionException;
 import java.util.logging.Level;
 import java.util.logging.Logger;
@@ -48,14 +50,18 @@ public final class ApplyCorrectionsAction extends AbstractAction {
         List<ResultRecord> results = dialog.getCheckedResults();
 
         List<BigInteger> idList = new ArrayList<>();
+        Set<String> cavities = new LinkedHashSet<>();
 
         if (results != null) {
           for (ResultRecord result : results) {
             idList.add(result.getResultId());
+            cavities.add(result.getCavity());
           }
         }
 
         dialog.getCommandConsole().applyCorrections(idList.toArray(new BigInteger[0]));
+        dialog.getResultsCommandConsole().correctionsApplied(cavities);
+        dialog.getResultsCommandConsole().invalidateCachedPages();
         return null;
       }
 
@@ -67,7 +73,7 @@ public final class ApplyCorrectionsAction extends AbstractAction {
           get(); // See if there were any exceptions
 
           ResultsWorker secondWorker =
-              new ResultsWorker(dialog, dialog.getResultsPaginator(), 375L, false);
+              new ResultsWorker(dialog, dialog.getResultsPaginator().currentPage(), 375L, false);
           secondWorker.execute();
           runningSecondWorker = true;
         } catch (InterruptedException | ExecutionException ex) {
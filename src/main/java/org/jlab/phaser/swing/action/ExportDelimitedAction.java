@@ -0,0 +1,86 @@
+package org.jlab.phaser.swing.action;
+
+import java.awt.event.ActionEvent;
+import java.io.File;
+import javax.swing.AbstractAction;
+import javax.swing.JFileChooser;
+import javax.swing.filechooser.FileNameExtensionFilter;
+import org.jlab.phaser.export.DelimitedResultsService;
+import org.jlab.phaser.export.DelimitedResultsService.Format;
+import org.jlab.phaser.export.ExportPipeline;
+import org.jlab.phaser.swing.chooser.ConfirmOverwriteFileChooser;
+import org.jlab.phaser.swing.generated.dialog.ResultsDialog;
+import org.jlab.phaser.swing.worker.ExportWorker;
+
+/**
+ * Handles the "CSV" button click on the results and jobs forms. Launches a new worker to export
+ * results or jobs as comma or tab separated values. The format is chosen by file name extension:
+ * .csv, .tsv, .csv.gz, or .tsv.gz.
+ */
+public final class ExportDelimitedAction extends AbstractAction {
+
+  /** The dialog. */
+  private final ResultsDialog dialog;
+
+  /** true to export jobs, false to export results. */
+  private final boolean jobs;
+
+  /**
+   * Create a new ExportDelimitedAction.
+   *
+   * @param dialog The ResultsDialog
+   * @param jobs true to export jobs, false to export results
+   */
+  public ExportDelimitedAction(ResultsDialog dialog, boolean jobs) {
+    this.dialog = dialog;
+    this.jobs = jobs;
+    putValue(AbstractAction.NAME, "CSV...");
+  }
+
+  @Override
+  public void actionPerformed(ActionEvent e) {
+    String what = jobs ? "Jobs" : "Results";
+
+    JFileChooser chooser = new ConfirmOverwriteFileChooser();
+    chooser.setDialogTitle("Export " + what + " to CSV");
+    chooser.setDialogType(JFileChooser.CUSTOM_DIALOG);
+    chooser.setSelectedFile(new File(what.toLowerCase() + ".csv"));
+    chooser.setFileFilter(new FileNameExtensionFilter("CSV or TSV File", "csv", "tsv", "gz"));
+    int retval = chooser.showDialog(dialog, "Export CSV");
+    if (retval == JFileChooser.APPROVE_OPTION) {
+      final File file = chooser.getSelectedFile();
+      String name = file.getName().toLowerCase();
+      final boolean gzip = name.endsWith(".gz");
+      final Format format =
+          name.endsWith(".tsv") || name.endsWith(".tsv.gz") ? Format.TSV : Format.CSV;
+
+      new ExportWorker(dialog, file, "Unable to export to CSV") {
+
+        @Override
+        protected long export(ExportPipeline pipeline) throws Exception {
+          DelimitedResultsService service = new DelimitedResultsService();
+
+          if (jobs) {
+            return service.exportJobs(
+                pipeline,
+                dialog.getResultsCommandConsole(),
+                dialog.getJobFilter(),
+                Long.MAX_VALUE,
+                file.toPath(),
+                format,
+                gzip);
+          } else {
+            return service.exportResults(
+                pipeline,
+                dialog.getResultsCommandConsole(),
+                dialog.getResultFilter(),
+                Long.MAX_VALUE,
+                file.toPath(),
+                format,
+                gzip);
+          }
+        }
+      }.start();
+    }
+  }
+}
@@ -1,26 +1,23 @@
 package org.jlab.phaser.swing.action;
 
 import java.awt.event.ActionEvent;
-import java.util.concurrent.ExecutionException;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import javax.swing.AbstractAction;
-import javax.swing.JOptionPane;
-import org.jlab.jlog.exception.LogException;
-import org.jlab.jlog.exception.LogRuntimeException;
 import org.jlab.phaser.PhaserSwingClient;
 import org.jlab.phaser.export.ElogResultsService;
-import org.jlab.phaser.model.Paginator;
-import org.jlab.phaser.model.ResultFilter;
-import org.jlab.phaser.model.ResultPage;
+import org.jlab.phaser.export.ElogSpool;
+import org.jlab.phaser.export.ExportPipeline;
 import org.jlab.phaser.swing.generated.dialog.ResultsDialog;
-import org.jlab.phaser.swing.util.HyperLinkEnabledMessage;
-import org.jlab.phaser.swing.worker.MinimumExecutionSwingWorker;
+import org.jlab.phaser.swing.worker.ExportWorker;
 
 /**
  * Handles the "eLog" button click on the results form. Launches a new worker to export results to
  * the Jefferson Lab electronic logbook.
  *
+ * <p>The entry is written to the eLog spool, which submits it in the background, so the dialog only
+ * waits for the results to be queried. The spool status is shown on the main frame.
+ *
  * @author ryans
  */
 public final class ExportElogAction extends AbstractAction {
@@ -33,8 +30,14 @@ public final class ExportElogAction extends AbstractAction {
   /** The logbooks. */
   private final String LOGBOOKS = PhaserSwingClient.CLIENT_PROPERTIES.getProperty("elog.logbooks");
 
+  /** The maximum number of results shown in the entry body. */
+  private final int SUMMARY_ROWS =
+      Integer.parseInt(
+          PhaserSwingClient.CLIENT_PROPERTIES.getProperty(
+              "elog.summary-rows", String.valueOf(ElogResultsService.DEFAULT_SUMMARY_ROWS)));
+
   /**
-   * Create a new ExportExcelAction.
+   * Create a new ExportElogAction.
    *
    * @param dialog The ResultsDialog
    */
@@ -45,50 +48,27 @@ public final class ExportElogAction extends AbstractAction {
 
   @Override
   public void actionPerformed(ActionEvent e) {
-    dialog.queueShowModalWait();
-    new MinimumExecutionSwingWorker<Long, Void>() {
+    final ElogSpool spool = dialog.getElogSpool();
 
-      @Override
-      protected Long doWithMinimumExecution() throws Exception {
-        ResultFilter filter = dialog.getResultFilter();
-        ResultPage page =
-            dialog.getResultsCommandConsole().results(filter, new Paginator(0, 0, Long.MAX_VALUE));
+    // The service discards the spool draft, including any partial attachment, on failure
+    new ExportWorker(dialog, null, "Unable to export to eLog") {
 
-        ElogResultsService service = new ElogResultsService();
-        Long logId = service.export(page, LOGBOOKS);
-
-        return logId;
+      @Override
+      protected long export(ExportPipeline pipeline) throws Exception {
+        return new ElogResultsService()
+            .export(
+                pipeline,
+                dialog.getResultsCommandConsole(),
+                dialog.getResultFilter(),
+                SUMMARY_ROWS,
+                spool,
+                LOGBOOKS);
       }
 
       @Override
-      protected void done() {
-        try {
-          Long lognumber = get(); // See if there were any exceptions
-
-          String url = "https://logbooks.jlab.org/entry/" + lognumber;
-          String html = "<html>Log number: <a href=\"" + url + "\">" + lognumber + "</a></html>";
-
-          JOptionPane.showMessageDialog(
-              dialog,
-              new HyperLinkEnabledMessage(html),
-              "Successfully created eLog",
-              JOptionPane.INFORMATION_MESSAGE);
-        } catch (InterruptedException | ExecutionException ex) {
-          String title = "Unable to export to eLog";
-          String message = "Unexpected error";
-          LOGGER.log(Level.SEVERE, title, ex);
-
-          Throwable cause = ex.getCause();
-          if (cause != null
-              && (cause instanceof LogException || cause instanceof LogRuntimeException)) {
-            message = cause.getMessage();
-          }
-
-          JOptionPane.showMessageDialog(dialog, message, title, JOptionPane.ERROR_MESSAGE);
-        } finally {
-          dialog.hideModalWait();
-        }
+      protected void succeeded(long count) {
+        LOGGER.log(Level.FINE, "Spooled eLog entry of {0} results", count);
       }
-    }.execute();
+    }.start();
   }
 }
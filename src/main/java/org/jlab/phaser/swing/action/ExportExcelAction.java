@@ -3,25 +3,19 @@ package org.jlab.phaser.swing.action;
 import java.awt.event.ActionEvent;
 import java.io.File;
 import java.io.FileOutputStream;
-import java.util.concurrent.ExecutionException;
-import java.util.logging.Level;
-import java.util.logging.Logger;
 import javax.swing.AbstractAction;
 import javax.swing.JFileChooser;
-import javax.swing.JOptionPane;
 import javax.swing.filechooser.FileNameExtensionFilter;
-import org.jlab.phaser.exception.CommandException;
 import org.jlab.phaser.export.ExcelResultsService;
-import org.jlab.phaser.model.Paginator;
+import org.jlab.phaser.export.ExportPipeline;
 import org.jlab.phaser.model.ResultFilter;
-import org.jlab.phaser.model.ResultPage;
 import org.jlab.phaser.swing.chooser.ConfirmOverwriteFileChooser;
 import org.jlab.phaser.swing.generated.dialog.ResultsDialog;
-import org.jlab.phaser.swing.worker.MinimumExecutionSwingWorker;
+import org.jlab.phaser.swing.worker.ExportWorker;
 
 /**
  * Handles the "Excel" button click on the results form. Launches a new worker to export results in
- * Microsoft Excel format.
+ * Microsoft Excel format with progress and the option to cancel.
  *
  * @author ryans
  */
@@ -33,8 +27,6 @@ public final class ExportExcelAction extends AbstractAction {
    */
   private static final long MAX_ROWS = 1000000;
 
-  private static final Logger LOGGER = Logger.getLogger(ExportExcelAction.class.getName());
-
   /** The dialog. */
   private final ResultsDialog dialog;
 
@@ -60,43 +52,19 @@ public final class ExportExcelAction extends AbstractAction {
     if (retval == JFileChooser.APPROVE_OPTION) {
       final File file = chooser.getSelectedFile();
 
-      dialog.queueShowModalWait();
-      new MinimumExecutionSwingWorker<Void, Void>() {
+      new ExportWorker(dialog, file, "Unable to export to excel") {
 
         @Override
-        protected Void doWithMinimumExecution() throws Exception {
+        protected long export(ExportPipeline pipeline) throws Exception {
           ResultFilter filter = dialog.getResultFilter();
-          ResultPage page =
-              dialog.getResultsCommandConsole().results(filter, new Paginator(0, 0, MAX_ROWS));
 
           ExcelResultsService service = new ExcelResultsService();
           try (FileOutputStream out = new FileOutputStream(file)) {
-            service.export(page, out);
-          }
-
-          return null;
-        }
-
-        @Override
-        protected void done() {
-          try {
-            get(); // See if there were any exceptions
-          } catch (InterruptedException | ExecutionException ex) {
-            String title = "Unable to export to excel";
-            String message = "Unexpected error";
-            LOGGER.log(Level.SEVERE, title, ex);
-
-            Throwable cause = ex.getCause();
-            if (cause != null && cause instanceof CommandException) {
-              message = cause.getMessage();
-            }
-
-            JOptionPane.showMessageDialog(dialog, message, title, JOptionPane.ERROR_MESSAGE);
-          } finally {
-            dialog.hideModalWait();
+            return service.export(
+                pipeline, dialog.getResultsCommandConsole(), filter, MAX_ROWS, out);
           }
         }
-      }.execute();
+      }.start();
     }
   }
 }
@@ -2,6 +2,7 @@ package org.jlab.phaser.swing.action;
 
 import java.awt.event.ActionEvent;
 import javax.swing.AbstractAction;
+import org.jlab.phaser.model.JobPage;
 import org.jlab.phaser.model.Paginator;
 import org.jlab.phaser.swing.generated.dialog.ResultsDialog;
 import org.jlab.phaser.swing.worker.JobsWorker;
@@ -29,10 +30,14 @@ public final class NextJobsAction extends AbstractAction {
 
   @Override
   public void actionPerformed(ActionEvent e) {
-    dialog.queueShowModalWait();
-    Paginator paginator = dialog.getJobsPaginator();
-    new JobsWorker(
-            dialog, new Paginator(0, paginator.getNextOffset(), ResultsDialog.MAX_RECORDS_PER_PAGE))
-        .execute();
+    Paginator paginator = dialog.getJobsPaginator().nextPage();
+    JobPage cached = dialog.getResultsCommandConsole().cachedJobs(dialog.getJobFilter(), paginator);
+
+    if (cached != null) { // Usually prefetched; no need to wait
+      dialog.setJobPage(cached);
+    } else {
+      dialog.queueShowModalWait();
+      new JobsWorker(dialog, paginator).execute();
+    }
   }
 }
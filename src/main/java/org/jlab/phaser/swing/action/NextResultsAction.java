@@ -3,12 +3,13 @@ package org.jlab.phaser.swing.action;
 import java.awt.event.ActionEvent;
 import javax.swing.AbstractAction;
 import org.jlab.phaser.model.Paginator;
+import org.jlab.phaser.model.ResultPage;
 import org.jlab.phaser.swing.generated.dialog.ResultsDialog;
 import org.jlab.phaser.swing.worker.ResultsWorker;
 
 /**
- * Handles the "Next" button click on the results form. Launches a new ResultsWorker to query the
- * Phaser database.
+ * Handles the "Next" button click on the results form. Shows the page directly if it is cached,
+ * otherwise launches a new ResultsWorker to query the Phaser database.
  *
  * @author ryans
  */
@@ -29,10 +30,15 @@ public final class NextResultsAction extends AbstractAction {
 
   @Override
   public void actionPerformed(ActionEvent e) {
-    dialog.queueShowModalWait();
-    Paginator paginator = dialog.getResultsPaginator();
-    new ResultsWorker(
-            dialog, new Paginator(0, paginator.getNextOffset(), ResultsDialog.MAX_RECORDS_PER_PAGE))
-        .execute();
+    Paginator paginator = dialog.getResultsPaginator().nextPage();
+    ResultPage cached =
+        dialog.getResultsCommandConsole().cachedResults(dialog.getResultFilter(), paginator);
+
+    if (cached != null) { // Usually prefetched; no need to wait
+      dialog.setResultPage(cached);
+    } else {
+      dialog.queueShowModalWait();
+      new ResultsWorker(dialog, paginator).execute();
+    }
   }
 }
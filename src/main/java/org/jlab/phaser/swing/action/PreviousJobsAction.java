@@ -2,13 +2,14 @@ package org.jlab.phaser.swing.action;
 
 import java.awt.event.ActionEvent;
 import javax.swing.AbstractAction;
+import org.jlab.phaser.model.JobPage;
 import org.jlab.phaser.model.Paginator;
 import org.jlab.phaser.swing.generated.dialog.ResultsDialog;
 import org.jlab.phaser.swing.worker.JobsWorker;
 
 /**
- * Handles the "Previous" button click on the jobs form. Launches a new JobsWorker to query the
- * Phaser database.
+ * Handles the "Previous" button click on the jobs form. Shows the page directly if it is cached,
+ * otherwise launches a new JobsWorker to query the Phaser database.
  *
  * @author ryans
  */
@@ -29,11 +30,14 @@ public final class PreviousJobsAction extends AbstractAction {
 
   @Override
   public void actionPerformed(ActionEvent e) {
-    dialog.queueShowModalWait();
-    Paginator paginator = dialog.getJobsPaginator();
-    new JobsWorker(
-            dialog,
-            new Paginator(0, paginator.getPreviousOffset(), ResultsDialog.MAX_RECORDS_PER_PAGE))
-        .execute();
+    Paginator paginator = dialog.getJobsPaginator().previousPage();
+    JobPage cached = dialog.getResultsCommandConsole().cachedJobs(dialog.getJobFilter(), paginator);
+
+    if (cached != null) { // Usually prefetched; no need to wait
+      dialog.setJobPage(cached);
+    } else {
+      dialog.queueShowModalWait();
+      new JobsWorker(dialog, paginator).execute();
+    }
   }
 }
@@ -3,6 +3,7 @@ package org.jlab.phaser.swing.action;
 import java.awt.event.ActionEvent;
 import javax.swing.AbstractAction;
 import org.jlab.phaser.model.Paginator;
+import org.jlab.phaser.model.ResultPage;
 import org.jlab.phaser.swing.generated.dialog.ResultsDialog;
 import org.jlab.phaser.swing.worker.ResultsWorker;
 
@@ -29,11 +30,15 @@ public final class PreviousResultsAction extends AbstractAction {
 
   @Override
   public void actionPerformed(ActionEvent e) {
-    dialog.queueShowModalWait();
-    Paginator paginator = dialog.getResultsPaginator();
-    new ResultsWorker(
-            dialog,
-            new Paginator(0, paginator.getPreviousOffset(), ResultsDialog.MAX_RECORDS_PER_PAGE))
-        .execute();
+    Paginator paginator = dialog.getResultsPaginator().previousPage();
+    ResultPage cached =
+        dialog.getResultsCommandConsole().cachedResults(dialog.getResultFilter(), paginator);
+
+    if (cached != null) { // Usually prefetched; no need to wait
+      dialog.setResultPage(cached);
+    } else {
+      dialog.queueShowModalWait();
+      new ResultsWorker(dialog, paginator).execute();
+    }
   }
 }
@@ -1,14 +1,13 @@
 package org.jlab.phaser.swing.action;
 
 import java.awt.event.ActionEvent;
-import java.util.concurrent.ExecutionException;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import javax.swing.AbstractAction;
 import javax.swing.JOptionPane;
 import org.jlab.phaser.exception.CommandException;
 import org.jlab.phaser.swing.generated.PhaserClientFrame;
-import org.jlab.phaser.swing.worker.MinimumExecutionSwingWorker;
+import org.jlab.phaser.swing.worker.CommandCompletion;
 
 /**
  * Handles the "Resume" button click on the control form. Utilizes the server console to send a
@@ -36,33 +35,30 @@ public final class ResumeAction extends AbstractAction {
   @Override
   public void actionPerformed(ActionEvent e) {
     frame.queueShowModalWait();
-    new MinimumExecutionSwingWorker<Void, Void>() {
+    frame
+        .getAsyncPhaserServerConsole()
+        .resume()
+        .whenComplete(
+            new CommandCompletion<Void>() {
 
-      @Override
-      protected Void doWithMinimumExecution() throws Exception {
-        frame.getPhaserServerConsole().resume();
-        return null;
-      }
+              @Override
+              protected void done(Void result, Throwable cause) {
+                try {
+                  if (cause != null) {
+                    String title = "Unable to resume phasing";
+                    String message = "Unexpected error";
+                    LOGGER.log(Level.SEVERE, title, cause);
 
-      @Override
-      protected void done() {
-        try {
-          get(); // See if there were any exceptions
-        } catch (InterruptedException | ExecutionException ex) {
-          String title = "Unable to resume phasing";
-          String message = "Unexpected error";
-          LOGGER.log(Level.SEVERE, title, ex);
+                    if (cause instanceof CommandException) {
+                      message = cause.getMessage();
+                    }
 
-          Throwable cause = ex.getCause();
-          if (cause != null && cause instanceof CommandException) {
-            message = cause.getMessage();
-          }
-
-          JOptionPane.showMessageDialog(frame, message, title, JOptionPane.ERROR_MESSAGE);
-        } finally {
-          frame.hideModalWait();
-        }
-      }
-    }.execute();
+                    JOptionPane.showMessageDialog(frame, message, title, JOptionPane.ERROR_MESSAGE);
+                  }
+                } finally {
+                  frame.hideModalWait();
+                }
+              }
+            });
   }
 }
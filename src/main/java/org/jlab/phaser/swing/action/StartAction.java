@@ -1,15 +1,15 @@
 package org.jlab.phaser.swing.action;
 
 import java.awt.event.ActionEvent;
-import java.util.concurrent.ExecutionException;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import javax.swing.AbstractAction;
 import javax.swing.JOptionPane;
 import org.jlab.phaser.exception.PhaserException;
+import org.jlab.phaser.exception.ValidationException;
 import org.jlab.phaser.model.JobSpecification;
 import org.jlab.phaser.swing.generated.dialog.NewJobDialog;
-import org.jlab.phaser.swing.worker.MinimumExecutionSwingWorker;
+import org.jlab.phaser.swing.worker.CommandCompletion;
 
 /**
  * Handles the "Start" button click on the new job form. Utilizes the server console to send a
@@ -36,36 +36,44 @@ public final class StartAction extends AbstractAction {
 
   @Override
   public void actionPerformed(ActionEvent e) {
-    dialog.queueShowModalWait();
-    new MinimumExecutionSwingWorker<Void, Void>() {
+    JobSpecification job;
+
+    try {
+      job = dialog.getJob();
+    } catch (ValidationException ex) {
+      JOptionPane.showMessageDialog(
+          dialog, ex.getMessage(), "Unable to start phasing", JOptionPane.ERROR_MESSAGE);
+      return;
+    }
 
-      @Override
-      protected Void doWithMinimumExecution() throws PhaserException {
-        JobSpecification job = dialog.getJob();
-        dialog.getCommandConsole().start(job);
-        return null;
-      }
+    dialog.queueShowModalWait();
+    dialog
+        .getAsyncCommandConsole()
+        .start(job)
+        .whenComplete(
+            new CommandCompletion<Void>() {
 
-      @Override
-      protected void done() {
-        try {
-          get(); // See if there were any exceptions
-          dialog.dispose();
-        } catch (InterruptedException | ExecutionException ex) {
-          String title = "Unable to start phasing";
-          String message = "Unexpected error";
-          LOGGER.log(Level.SEVERE, title, ex);
+              @Override
+              protected void done(Void result, Throwable cause) {
+                try {
+                  if (cause == null) {
+                    dialog.dispose();
+                  } else {
+                    String title = "Unable to start phasing";
+                    String message = "Unexpected error";
+                    LOGGER.log(Level.SEVERE, title, cause);
 
-          Throwable cause = ex.getCause();
-          if (cause != null && cause instanceof PhaserException) {
-            message = cause.getMessage();
-          }
+                    if (cause instanceof PhaserException) {
+                      message = cause.getMessage();
+                    }
 
-          JOptionPane.showMessageDialog(dialog, message, title, JOptionPane.ERROR_MESSAGE);
-        } finally {
-          dialog.hideModalWait();
-        }
-      }
-    }.execute();
+                    JOptionPane.showMessageDialog(
+                        dialog, message, title, JOptionPane.ERROR_MESSAGE);
+                  }
+                } finally {
+                  dialog.hideModalWait();
+                }
+              }
+            });
   }
 }
@@ -12,20 +12,27 @@ import org.jlab.phaser.swing.table.ProgressCavityTableModel;
 import java.awt.EventQueue;
 import java.awt.FlowLayout;
 import java.text.DecimalFormat;
-import java.text.SimpleDateFormat;
 import java.util.ArrayList;
-import java.util.Calendar;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.logging.Logger;
 import java.util.logging.Level;
 import javax.swing.JFrame;
 import javax.swing.JLabel;
+import org.jlab.phaser.AsyncPhaserServerConsole;
 import org.jlab.phaser.PhaserServerConsole;
+import org.jlab.phaser.network.BlockingPhaserServerConsole;
+import org.jlab.phaser.model.CavityNotification;
+import org.jlab.phaser.model.JobNotification;
 import org.jlab.phaser.model.JobSpecification;
 import org.jlab.phaser.NotificationListener;
 import org.jlab.phaser.DatabaseConsole;
 import org.jlab.phaser.model.PhaserJobState;
+import org.jlab.phaser.export.ElogSpool;
+import org.jlab.phaser.export.ElogSpoolListener;
 import org.jlab.phaser.swing.worker.InitializeResultsDialogWorker;
 import org.jlab.phaser.swing.worker.JobsWorker;
 import org.jlab.phaser.swing.action.PauseAction;
@@ -54,26 +61,39 @@ public final class PhaserClientFrame extends JFrame implements NotificationListe
     private final FrostedGlassPane frostedPane = new FrostedGlassPane();
     private final LedLight led = new LedLight();
     private final JLabel stateValue = new JLabel("N/A");
+    private final JLabel elogSpoolValue = new JLabel();
+    private final JLabel disconnectedBanner = new JLabel();
 
     private final WaitDialog waitDialog = new WaitDialog(this);
     private final NewJobDialog newJobDialog = new NewJobDialog(this);
     private final ResultsDialog resultsDialog = new ResultsDialog(this);
     private final HelpDialog helpDialog = new HelpDialog(this);
 
+    private final AsyncPhaserServerConsole asyncServerConsole;
     private final PhaserServerConsole serverConsole;
     private final DatabaseConsole databaseConsole;
     private final List<ExitListener> exitListeners = new ArrayList<>();
+    private ElogSpool elogSpool;
+    private boolean elogSpoolShowsQueue = false; // Only accessed from the event dispatch thread
 
     public static final String TIMESTAMP_FORMAT = "dd-MMM-yyyy HH:mm";    
+
+    /**
+     * Formats job and cavity start times; DateTimeFormatter is immutable so one instance is shared.
+     */
+    private static final DateTimeFormatter START_FORMATTER = DateTimeFormatter.ofPattern(
+            "MMM dd HH:mm").withZone(ZoneId.systemDefault());
     
     /**
-     * Create a new PhaserClientFrame with supplied PhaserServerConsole and DatabaseConsole.
+     * Create a new PhaserClientFrame with supplied AsyncPhaserServerConsole and DatabaseConsole.
      *
      * @param serverConsole The server console
      * @param databaseConsole The database console
      */
-    public PhaserClientFrame(PhaserServerConsole serverConsole, DatabaseConsole databaseConsole) {
-        this.serverConsole = serverConsole;
+    public PhaserClientFrame(AsyncPhaserServerConsole serverConsole,
+            DatabaseConsole databaseConsole) {
+        this.asyncServerConsole = serverConsole;
+        this.serverConsole = new BlockingPhaserServerConsole(serverConsole);
         this.databaseConsole = databaseConsole;
         initComponents();
         initActions();
@@ -90,6 +110,13 @@ public final class PhaserClientFrame extends JFrame implements NotificationListe
         ledPanel.setLayout(new FlowLayout(FlowLayout.LEFT));
         ledPanel.add(led);
         ledPanel.add(stateValue);
+        elogSpoolValue.setVisible(false);
+        ledPanel.add(elogSpoolValue);
+        disconnectedBanner.setOpaque(true);
+        disconnectedBanner.setBackground(Color.RED);
+        disconnectedBanner.setForeground(Color.WHITE);
+        disconnectedBanner.setVisible(false);
+        ledPanel.add(disconnectedBanner);
         addExitListener(new ExitListener() {
 
             @Override
@@ -118,14 +145,46 @@ public final class PhaserClientFrame extends JFrame implements NotificationListe
     }
 
     /**
-     * Set the server version string.
+     * Set the server version string. May be called from any thread; the help dialog is updated on
+     * the event dispatch thread.
      * 
      * @param version The server version string
      */
-    public void setServerVersion(String version) {
-        helpDialog.setServerVersion(version);
+    public void setServerVersion(final String version) {
+        EventQueue.invokeLater(new Runnable() {
+
+            @Override
+            public void run() {
+                helpDialog.setServerVersion(version);
+            }
+        });
     }
     
+    /**
+     * Show or hide the disconnected banner. While disconnected the job state is unknown so all
+     * commands are disabled; the server sends its status and job snapshot again on reconnect.
+     *
+     * @param connected true if connected to the server, false if waiting to reconnect
+     * @param detail Details shown in the banner while disconnected or null
+     */
+    public void setServerConnected(final boolean connected, final String detail) {
+        EventQueue.invokeLater(new Runnable() {
+
+            @Override
+            public void run() {
+                if (connected) {
+                    disconnectedBanner.setVisible(false);
+                } else {
+                    disconnectedBanner.setText(" Disconnected from server: "
+                            + (detail == null ? "reconnecting" : detail) + " ");
+                    disconnectedBanner.setVisible(true);
+                    statusMessage.setText("Connection to server lost");
+                    setPhaserJobState(PhaserJobState.UNKNOWN);
+                }
+            }
+        });
+    }
+
     /**
      * Add an ExitListener that will be notified of an exit event.
      *
@@ -153,6 +212,15 @@ public final class PhaserClientFrame extends JFrame implements NotificationListe
         return serverConsole;
     }
 
+    /**
+     * Return the AsyncPhaserServerConsole, which sends commands without waiting for the response.
+     *
+     * @return The AsyncPhaserServerConsole
+     */
+    public AsyncPhaserServerConsole getAsyncPhaserServerConsole() {
+        return asyncServerConsole;
+    }
+
     /**
      * Return the DatabaseConsole.
      *
@@ -162,6 +230,68 @@ public final class PhaserClientFrame extends JFrame implements NotificationListe
         return databaseConsole;
     }
 
+    /**
+     * Set the ElogSpool which eLog exports are written to and show its status next to the job
+     * state.
+     *
+     * @param spool The ElogSpool
+     */
+    public void setElogSpool(ElogSpool spool) {
+        this.elogSpool = spool;
+
+        spool.addListener(new ElogSpoolListener() {
+
+            @Override
+            public void spoolChanged(final int pending, final String problem) {
+                EventQueue.invokeLater(new Runnable() {
+
+                    @Override
+                    public void run() {
+                        if (pending > 0) {
+                            elogSpoolValue.setText("eLog: " + pending + " queued"
+                                    + (problem == null ? "" : " (retrying)"));
+                            elogSpoolValue.setToolTipText(problem);
+                            elogSpoolValue.setVisible(true);
+                            elogSpoolShowsQueue = true;
+                        } else if (problem != null) {
+                            elogSpoolValue.setText("eLog: entry rejected");
+                            elogSpoolValue.setToolTipText(problem);
+                            elogSpoolValue.setVisible(true);
+                            elogSpoolShowsQueue = true;
+                        } else if (elogSpoolShowsQueue) {
+                            // The queue emptied without a submission to report (e.g. a rejection)
+                            elogSpoolValue.setVisible(false);
+                            elogSpoolShowsQueue = false;
+                        }
+                    }
+                });
+            }
+
+            @Override
+            public void entrySubmitted(final String title, final long logId) {
+                EventQueue.invokeLater(new Runnable() {
+
+                    @Override
+                    public void run() {
+                        elogSpoolValue.setText("eLog: " + logId + " created");
+                        elogSpoolValue.setToolTipText(title);
+                        elogSpoolValue.setVisible(true);
+                        elogSpoolShowsQueue = false;
+                    }
+                });
+            }
+        });
+    }
+
+    /**
+     * Return the ElogSpool.
+     *
+     * @return The ElogSpool
+     */
+    public ElogSpool getElogSpool() {
+        return elogSpool;
+    }
+
     /**
      * Show the wait dialog at the earliest opportunity.
      */
@@ -307,15 +437,22 @@ public final class PhaserClientFrame extends JFrame implements NotificationListe
     }
 
     @Override
-    public void jobNotification(final JobSpecification job, final Long jobId,
-            final Calendar jobStart, final Boolean paused, final Integer loop, final String cavity,
-            final Calendar cavityStart, final Integer progress, final String label) {
-        LOGGER.log(Level.FINEST, "jobNotification: {0}, {1}",
-                new Object[]{jobStart == null ? null : jobStart.getTime(), job});
+    public void jobNotification(final JobNotification notification) {
+        LOGGER.log(Level.FINEST, "jobNotification: {0}", notification);
         EventQueue.invokeLater(new Runnable() {
 
             @Override
             public void run() {
+                JobSpecification job = notification.getJob();
+                Long jobId = notification.getJobId();
+                Instant jobStart = notification.getJobStart();
+                Boolean paused = notification.getPaused();
+                Integer loop = notification.getLoop();
+                String cavity = notification.getCavity();
+                Instant cavityStart = notification.getCavityStart();
+                Integer progress = notification.getProgress();
+                String label = notification.getLabel();
+
                 String jobStartStr = "N/A";
                 String cavityStartStr = "N/A";
                 String jobIdStr = "N/A";
@@ -327,9 +464,7 @@ public final class PhaserClientFrame extends JFrame implements NotificationListe
                 jobNumberValue.setText(jobIdStr);
 
                 if (jobStart != null) {
-                    SimpleDateFormat formatter = new SimpleDateFormat(
-                            "MMM dd HH:mm");
-                    jobStartStr = formatter.format(jobStart.getTime());
+                    jobStartStr = START_FORMATTER.format(jobStart);
                 }
                 jobStartValue.setText(jobStartStr);
 
@@ -351,9 +486,7 @@ public final class PhaserClientFrame extends JFrame implements NotificationListe
                 }
 
                 if (cavityStart != null) {
-                    SimpleDateFormat formatter = new SimpleDateFormat(
-                            "MMM dd HH:mm");
-                    cavityStartStr = formatter.format(cavityStart.getTime());
+                    cavityStartStr = START_FORMATTER.format(cavityStart);
                 }
                 cavityStartValue.setText(cavityStartStr);
 
@@ -435,30 +568,30 @@ public final class PhaserClientFrame extends JFrame implements NotificationListe
     }
 
     @Override
-    public void cavityNotification(final Calendar start, final String cavity) {
-        LOGGER.log(Level.FINEST, "cavityNotification: {0}, {1}",
-                new Object[]{start == null ? null : start.getTime(), cavity});
+    public void cavityNotification(final CavityNotification notification) {
+        LOGGER.log(Level.FINEST, "cavityNotification: {0}", notification);
         EventQueue.invokeLater(new Runnable() {
 
             @Override
             public void run() {
                 String startStr = "N/A";
-                if (start != null) {
-                    SimpleDateFormat formatter = new SimpleDateFormat(
-                            "MMM dd HH:mm");
-                    startStr = formatter.format(start.getTime());
+                if (notification.getStart() != null) {
+                    startStr = START_FORMATTER.format(notification.getStart());
                 }
                 cavityStartValue.setText(startStr);
 
-                selectCavityInTable(cavity);
+                selectCavityInTable(notification.getCavity());
+
+                // A new result was written so any cached pages are stale
+                getDatabaseConsole().invalidateCachedPages();
 
                 if (resultsDialog.isVisible()) {
                     new ResultsWorker(resultsDialog,
-                            resultsDialog.getResultsPaginator(),
+                            resultsDialog.getResultsPaginator().currentPage(),
                             MinimumExecutionSwingWorker.DEFAULT_MIN_MILLISECONDS,
                             true).execute();
                     new JobsWorker(resultsDialog,
-                            resultsDialog.getJobsPaginator(),
+                            resultsDialog.getJobsPaginator().currentPage(),
                             MinimumExecutionSwingWorker.DEFAULT_MIN_MILLISECONDS,
                             true).execute();
                 }
@@ -19,6 +19,7 @@ import javax.swing.SortOrder;
 import javax.swing.table.DefaultTableCellRenderer;
 import javax.swing.table.TableCellRenderer;
 import javax.swing.table.TableModel;
+import org.jlab.phaser.AsyncPhaserServerConsole;
 import org.jlab.phaser.PhaserServerConsole;
 import org.jlab.phaser.PhaserSwingClient;
 import org.jlab.phaser.exception.ValidationException;
@@ -177,6 +178,15 @@ public final class NewJobDialog extends JDialog {
         return frame.getPhaserServerConsole();
     }
 
+    /**
+     * Return the asynchronous command console.
+     *
+     * @return The AsyncPhaserServerConsole
+     */
+    public AsyncPhaserServerConsole getAsyncCommandConsole() {
+        return frame.getAsyncPhaserServerConsole();
+    }
+
     public void queueShowModalWait() {
         frostedPane.setVisible(true);
 
@@ -10,12 +10,14 @@ import java.awt.event.ActionListener;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.logging.Logger;
+import javax.swing.Action;
 import javax.swing.JLabel;
 import javax.swing.JMenuItem;
 import javax.swing.JPopupMenu;
 import javax.swing.table.DefaultTableCellRenderer;
 import javax.swing.table.TableColumnModel;
 import org.jlab.phaser.DatabaseConsole;
+import org.jlab.phaser.export.ElogSpool;
 import org.jlab.phaser.PhaserServerConsole;
 import org.jlab.phaser.model.JobFilter;
 import org.jlab.phaser.model.JobPage;
@@ -25,6 +27,7 @@ import org.jlab.phaser.model.ResultPage;
 import org.jlab.phaser.model.Paginator;
 import org.jlab.phaser.swing.generated.PhaserClientFrame;
 import org.jlab.phaser.swing.action.ApplyCorrectionsAction;
+import org.jlab.phaser.swing.action.ExportDelimitedAction;
 import org.jlab.phaser.swing.action.ExportElogAction;
 import org.jlab.phaser.swing.action.ExportExcelAction;
 import org.jlab.phaser.swing.action.JobsAction;
@@ -59,10 +62,8 @@ public final class ResultsDialog extends javax.swing.JDialog {
             PhaserClientFrame.TIMESTAMP_FORMAT);
     private final JobTableModel jobTableModel = new JobTableModel(
             PhaserClientFrame.TIMESTAMP_FORMAT);
-    private long resultsCurrentOffset = 0;
-    private long resultsTotalRecords = 0;
-    private long jobsCurrentOffset = 0;
-    private long jobsTotalRecords = 0;
+    private Paginator resultsPaginator = new Paginator(0, 0, MAX_RECORDS_PER_PAGE);
+    private Paginator jobsPaginator = new Paginator(0, 0, MAX_RECORDS_PER_PAGE);
     private ResultFilter resultFilter;
     private JobFilter jobFilter;
 
@@ -92,6 +93,8 @@ public final class ResultsDialog extends javax.swing.JDialog {
         resultsPreviousButton.setAction(new PreviousResultsAction(this));
         resultsElogButton.setAction(new ExportElogAction(this));
         resultsExcelButton.setAction(new ExportExcelAction(this));
+        resultsCsvButton.setAction(new ExportDelimitedAction(this, false));
+        jobsCsvButton.setAction(new ExportDelimitedAction(this, true));
         jobsNextButton.setAction(new NextJobsAction(this));
         jobsPreviousButton.setAction(new PreviousJobsAction(this));
         applyCorrectionsButton.setAction(new ApplyCorrectionsAction(this));
@@ -217,16 +220,12 @@ public final class ResultsDialog extends javax.swing.JDialog {
     public void resetForm() {
 
         resultTableModel.setResults(new ArrayList<ResultRecord>());
-        resultsCurrentOffset = 0;
-        resultsTotalRecords = 0;
-        Paginator paginator = new Paginator(resultsTotalRecords,
-                resultsCurrentOffset, MAX_RECORDS_PER_PAGE);
-        updateResultsStatusLabel(paginator, getResultFilter());
-        updateResultsPaginationButtons(paginator);
-        jobsCurrentOffset = 0;
-        jobsTotalRecords = 0;
-        updateJobsStatusLabel(paginator, getJobFilter());
-        updateJobsPaginationButtons(paginator);
+        resultsPaginator = new Paginator(0, 0, MAX_RECORDS_PER_PAGE);
+        updateResultsStatusLabel(resultsPaginator, getResultFilter());
+        updateResultsPaginationButtons(resultsPaginator);
+        jobsPaginator = new Paginator(0, 0, MAX_RECORDS_PER_PAGE);
+        updateJobsStatusLabel(jobsPaginator, getJobFilter());
+        updateJobsPaginationButtons(jobsPaginator);
 
         resultsTabPane.setSelectedIndex(0);
     }
@@ -246,14 +245,24 @@ public final class ResultsDialog extends javax.swing.JDialog {
         return jobFilter;
     }
 
+    /**
+     * Return the paginator of the displayed results page, which carries the
+     * keys needed to seek to adjacent pages.
+     *
+     * @return The results paginator
+     */
     public Paginator getResultsPaginator() {
-        return new Paginator(resultsTotalRecords, resultsCurrentOffset,
-                MAX_RECORDS_PER_PAGE);
+        return resultsPaginator;
     }
 
+    /**
+     * Return the paginator of the displayed jobs page, which carries the keys
+     * needed to seek to adjacent pages.
+     *
+     * @return The jobs paginator
+     */
     public Paginator getJobsPaginator() {
-        return new Paginator(jobsTotalRecords, jobsCurrentOffset,
-                MAX_RECORDS_PER_PAGE);
+        return jobsPaginator;
     }
 
     private void updateResultsStatusLabel(Paginator paginator, ResultFilter filter) {
@@ -336,18 +345,18 @@ public final class ResultsDialog extends javax.swing.JDialog {
 
     public void setResultPage(ResultPage page) {
         resultTableModel.setResults(page.getRecords());
-        resultsCurrentOffset = page.getPaginator().getOffset();
-        resultsTotalRecords = page.getPaginator().getTotalRecords();
+        resultsPaginator = page.getPaginator();
         updateResultsStatusLabel(page.getPaginator(), page.getFilter());
         updateResultsPaginationButtons(page.getPaginator());
+        getResultsCommandConsole().prefetchAdjacentResults(page);
     }
 
     public void setJobPage(JobPage page) {
         jobTableModel.setJobs(page.getRecords());
-        jobsCurrentOffset = page.getPaginator().getOffset();
-        jobsTotalRecords = page.getPaginator().getTotalRecords();
+        jobsPaginator = page.getPaginator();
         updateJobsStatusLabel(page.getPaginator(), page.getFilter());
         updateJobsPaginationButtons(page.getPaginator());
+        getResultsCommandConsole().prefetchAdjacentJobs(page);
     }
 
     public List<ResultRecord> getCheckedResults() {
@@ -358,7 +367,27 @@ public final class ResultsDialog extends javax.swing.JDialog {
         return frame.getDatabaseConsole();
     }
 
+    /**
+     * Return the eLog spool.
+     *
+     * @return The eLog spool
+     */
+    public ElogSpool getElogSpool() {
+        return frame.getElogSpool();
+    }
+
     public void queueShowModalWait() {
+        queueShowModalWait(null);
+    }
+
+    /**
+     * Shows the modal wait dialog with a cancel button.
+     *
+     * @param cancelAction The action performed when cancel is clicked, or
+     * null for no cancel button
+     */
+    public void queueShowModalWait(Action cancelAction) {
+        waitDialog.setCancelAction(cancelAction);
         frostedPane.setVisible(true);
 
         EventQueue.invokeLater(new Runnable() {
@@ -372,8 +401,19 @@ public final class ResultsDialog extends javax.swing.JDialog {
         });
     }
 
+    /**
+     * Updates the progress message shown in the modal wait dialog.
+     *
+     * @param message The message, or null for the default
+     */
+    public void setModalWaitMessage(String message) {
+        waitDialog.setMessage(message);
+    }
+
     public void hideModalWait() {
         waitDialog.setVisible(false);
+        waitDialog.setMessage(null);
+        waitDialog.setCancelAction(null);
         frostedPane.setVisible(false);
     }
 
@@ -397,6 +437,7 @@ public final class ResultsDialog extends javax.swing.JDialog {
         jButton1 = new javax.swing.JButton();
         applyCorrectionsButton = new javax.swing.JButton();
         resultsElogButton = new javax.swing.JButton();
+        resultsCsvButton = new javax.swing.JButton();
         jPanel3 = new javax.swing.JPanel();
         jobsStatusLabel = new javax.swing.JLabel();
         jScrollPane2 = new javax.swing.JScrollPane();
@@ -404,6 +445,7 @@ public final class ResultsDialog extends javax.swing.JDialog {
         jobsPreviousButton = new javax.swing.JButton();
         jobsNextButton = new javax.swing.JButton();
         jButton2 = new javax.swing.JButton();
+        jobsCsvButton = new javax.swing.JButton();
 
         setDefaultCloseOperation(javax.swing.WindowConstants.DISPOSE_ON_CLOSE);
         setTitle("Phaser Results");
@@ -444,6 +486,8 @@ public final class ResultsDialog extends javax.swing.JDialog {
 
         resultsElogButton.setText("eLog");
 
+        resultsCsvButton.setText("CSV...");
+
         javax.swing.GroupLayout jPanel2Layout = new javax.swing.GroupLayout(jPanel2);
         jPanel2.setLayout(jPanel2Layout);
         jPanel2Layout.setHorizontalGroup(
@@ -455,6 +499,8 @@ public final class ResultsDialog extends javax.swing.JDialog {
                     .addGroup(jPanel2Layout.createSequentialGroup()
                         .addComponent(jButton1)
                         .addPreferredGap(javax.swing.LayoutStyle.ComponentPlacement.RELATED, javax.swing.GroupLayout.DEFAULT_SIZE, Short.MAX_VALUE)
+                        .addComponent(resultsCsvButton)
+                        .addPreferredGap(javax.swing.LayoutStyle.ComponentPlacement.RELATED)
                         .addComponent(resultsExcelButton))
                     .addComponent(resultsStatusLabel, javax.swing.GroupLayout.Alignment.LEADING, javax.swing.GroupLayout.DEFAULT_SIZE, javax.swing.GroupLayout.DEFAULT_SIZE, Short.MAX_VALUE)
                     .addGroup(javax.swing.GroupLayout.Alignment.LEADING, jPanel2Layout.createSequentialGroup()
@@ -474,7 +520,8 @@ public final class ResultsDialog extends javax.swing.JDialog {
                 .addContainerGap()
                 .addGroup(jPanel2Layout.createParallelGroup(javax.swing.GroupLayout.Alignment.BASELINE)
                     .addComponent(resultsExcelButton)
-                    .addComponent(jButton1))
+                    .addComponent(jButton1)
+                    .addComponent(resultsCsvButton))
                 .addPreferredGap(javax.swing.LayoutStyle.ComponentPlacement.RELATED)
                 .addComponent(resultsStatusLabel, javax.swing.GroupLayout.PREFERRED_SIZE, 37, javax.swing.GroupLayout.PREFERRED_SIZE)
                 .addPreferredGap(javax.swing.LayoutStyle.ComponentPlacement.RELATED)
@@ -511,6 +558,8 @@ public final class ResultsDialog extends javax.swing.JDialog {
             }
         });
 
+        jobsCsvButton.setText("CSV...");
+
         javax.swing.GroupLayout jPanel3Layout = new javax.swing.GroupLayout(jPanel3);
         jPanel3.setLayout(jPanel3Layout);
         jPanel3Layout.setHorizontalGroup(
@@ -521,12 +570,13 @@ public final class ResultsDialog extends javax.swing.JDialog {
                     .addComponent(jobsStatusLabel, javax.swing.GroupLayout.DEFAULT_SIZE, 905, Short.MAX_VALUE)
                     .addComponent(jScrollPane2)
                     .addGroup(jPanel3Layout.createSequentialGroup()
-                        .addGroup(jPanel3Layout.createParallelGroup(javax.swing.GroupLayout.Alignment.LEADING)
-                            .addGroup(jPanel3Layout.createSequentialGroup()
-                                .addComponent(jobsPreviousButton)
-                                .addPreferredGap(javax.swing.LayoutStyle.ComponentPlacement.RELATED)
-                                .addComponent(jobsNextButton))
-                            .addComponent(jButton2))
+                        .addComponent(jButton2)
+                        .addPreferredGap(javax.swing.LayoutStyle.ComponentPlacement.RELATED, javax.swing.GroupLayout.DEFAULT_SIZE, Short.MAX_VALUE)
+                        .addComponent(jobsCsvButton))
+                    .addGroup(jPanel3Layout.createSequentialGroup()
+                        .addComponent(jobsPreviousButton)
+                        .addPreferredGap(javax.swing.LayoutStyle.ComponentPlacement.RELATED)
+                        .addComponent(jobsNextButton)
                         .addGap(0, 0, Short.MAX_VALUE)))
                 .addContainerGap())
         );
@@ -534,7 +584,9 @@ public final class ResultsDialog extends javax.swing.JDialog {
             jPanel3Layout.createParallelGroup(javax.swing.GroupLayout.Alignment.LEADING)
             .addGroup(jPanel3Layout.createSequentialGroup()
                 .addContainerGap()
-                .addComponent(jButton2)
+                .addGroup(jPanel3Layout.createParallelGroup(javax.swing.GroupLayout.Alignment.BASELINE)
+                    .addComponent(jButton2)
+                    .addComponent(jobsCsvButton))
                 .addPreferredGap(javax.swing.LayoutStyle.ComponentPlacement.RELATED)
                 .addComponent(jobsStatusLabel, javax.swing.GroupLayout.PREFERRED_SIZE, 37, javax.swing.GroupLayout.PREFERRED_SIZE)
                 .addPreferredGap(javax.swing.LayoutStyle.ComponentPlacement.RELATED)
@@ -610,11 +662,13 @@ public final class ResultsDialog extends javax.swing.JDialog {
     private javax.swing.JPanel jPanel3;
     private javax.swing.JScrollPane jScrollPane1;
     private javax.swing.JScrollPane jScrollPane2;
+    private javax.swing.JButton jobsCsvButton;
     private javax.swing.JButton jobsNextButton;
     private javax.swing.JButton jobsPreviousButton;
     private javax.swing.JLabel jobsStatusLabel;
     private javax.swing.JTable jobsTable;
     private javax.swing.JButton okButton;
+    private javax.swing.JButton resultsCsvButton;
     private javax.swing.JButton resultsElogButton;
     private javax.swing.JButton resultsExcelButton;
     private javax.swing.JButton resultsNextButton;
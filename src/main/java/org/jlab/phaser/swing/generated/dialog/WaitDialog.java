@@ -2,18 +2,24 @@ package org.jlab.phaser.swing.generated.dialog;
 
 import java.awt.Dialog;
 import java.awt.Frame;
+import javax.swing.Action;
 import javax.swing.JDialog;
 
 /**
  * Provides a visual indicator that a background process
  * is working.
  *
+ * A long running process may also show a progress message and
+ * offer a cancel button.
+ *
  * Layout was done using Netbeans Matisse Swing GUI builder.
  *
  * @author ryans
  */
 public final class WaitDialog extends JDialog {
 
+    private static final String DEFAULT_MESSAGE = "Please Wait...";
+
     /**
      * Creates new form WaitDialog.
      * 
@@ -34,6 +40,27 @@ public final class WaitDialog extends JDialog {
         initComponents();
     }
 
+    /**
+     * Sets the progress message.
+     *
+     * @param message The message, or null for the default "Please Wait..."
+     */
+    public void setMessage(String message) {
+        jLabel1.setText(message == null ? DEFAULT_MESSAGE : message);
+        pack();
+    }
+
+    /**
+     * Sets the action performed by the cancel button.
+     *
+     * @param action The action, or null to hide the cancel button
+     */
+    public void setCancelAction(Action action) {
+        cancelButton.setAction(action);
+        cancelButton.setVisible(action != null);
+        pack();
+    }
+
     /**
      * This method is called from within the constructor to initialize the form.
      * WARNING: Do NOT modify this code. The content of this method is always
@@ -46,6 +73,7 @@ public final class WaitDialog extends JDialog {
         jPanel1 = new javax.swing.JPanel();
         jLabel1 = new javax.swing.JLabel();
         jLabel2 = new javax.swing.JLabel();
+        cancelButton = new javax.swing.JButton();
 
         setDefaultCloseOperation(javax.swing.WindowConstants.DISPOSE_ON_CLOSE);
         setModal(true);
@@ -56,6 +84,9 @@ public final class WaitDialog extends JDialog {
 
         jLabel2.setIcon(new javax.swing.ImageIcon(getClass().getResource("/indicator16x16.gif"))); // NOI18N
 
+        cancelButton.setText("Cancel");
+        cancelButton.setVisible(false);
+
         javax.swing.GroupLayout jPanel1Layout = new javax.swing.GroupLayout(jPanel1);
         jPanel1.setLayout(jPanel1Layout);
         jPanel1Layout.setHorizontalGroup(
@@ -65,15 +96,18 @@ public final class WaitDialog extends JDialog {
                 .addComponent(jLabel2)
                 .addPreferredGap(javax.swing.LayoutStyle.ComponentPlacement.UNRELATED)
                 .addComponent(jLabel1)
+                .addPreferredGap(javax.swing.LayoutStyle.ComponentPlacement.UNRELATED)
+                .addComponent(cancelButton)
                 .addContainerGap(javax.swing.GroupLayout.DEFAULT_SIZE, Short.MAX_VALUE))
         );
         jPanel1Layout.setVerticalGroup(
             jPanel1Layout.createParallelGroup(javax.swing.GroupLayout.Alignment.LEADING)
             .addGroup(jPanel1Layout.createSequentialGroup()
                 .addContainerGap()
-                .addGroup(jPanel1Layout.createParallelGroup(javax.swing.GroupLayout.Alignment.LEADING)
+                .addGroup(jPanel1Layout.createParallelGroup(javax.swing.GroupLayout.Alignment.CENTER)
                     .addComponent(jLabel1)
-                    .addComponent(jLabel2))
+                    .addComponent(jLabel2)
+                    .addComponent(cancelButton))
                 .addContainerGap(javax.swing.GroupLayout.DEFAULT_SIZE, Short.MAX_VALUE))
         );
 
@@ -92,6 +126,7 @@ public final class WaitDialog extends JDialog {
     }// </editor-fold>//GEN-END:initComponents
 
     // Variables declaration - do not modify//GEN-BEGIN:variables
+    private javax.swing.JButton cancelButton;
     private javax.swing.JLabel jLabel1;
     private javax.swing.JLabel jLabel2;
     private javax.swing.JPanel jPanel1;
@@ -1,5 +1,8 @@
 package org.jlab.phaser.swing.table;
 
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+
 /**
  * A table model for holding cavities that can also show which cavity is currently selected in the
  * header.
@@ -33,6 +36,19 @@ public class ProgressCavityTableModel extends OrderedCavityNameTableModel {
     fireTableStructureChanged();
   }
 
+  /**
+   * Set the list of cavities. Does nothing if the cavities are unchanged, as they are on every job
+   * notification for the running job, to avoid needlessly repainting the table.
+   *
+   * @param cavities The list of cavities
+   */
+  @Override
+  public void setCavities(LinkedHashSet<String> cavities) {
+    if (!this.cavities.equals(new ArrayList<>(cavities))) {
+      super.setCavities(cavities);
+    }
+  }
+
   @Override
   public Object getValueAt(int rowIndex, int columnIndex) {
     Object value = null;
@@ -0,0 +1,76 @@
+package org.jlab.phaser.swing.worker;
+
+import java.awt.EventQueue;
+import java.awt.event.ActionEvent;
+import java.awt.event.ActionListener;
+import java.util.concurrent.CompletionException;
+import java.util.function.BiConsumer;
+import javax.swing.Timer;
+
+/**
+ * Handles the completion of an asynchronous server command on the event dispatch thread.
+ *
+ * <p>Like the MinimumExecutionSwingWorker, completion is not handled until a minimum amount of time
+ * has passed since this object was created so that a "Please Wait" dialog doesn't flicker. Unlike a
+ * worker no thread waits for the command: pass this to the command future's whenComplete.
+ *
+ * @param <T> the result type of the command
+ */
+public abstract class CommandCompletion<T> implements BiConsumer<T, Throwable> {
+
+  private final long createdNanos = System.nanoTime();
+  private final long minimumMilliseconds;
+
+  /** Creates a new CommandCompletion with the default minimum execution time. */
+  public CommandCompletion() {
+    this(MinimumExecutionSwingWorker.DEFAULT_MIN_MILLISECONDS);
+  }
+
+  /**
+   * Creates a new CommandCompletion with the specified minimum execution time.
+   *
+   * @param minimumMilliseconds The minimum execution time in milliseconds
+   */
+  public CommandCompletion(long minimumMilliseconds) {
+    this.minimumMilliseconds = minimumMilliseconds;
+  }
+
+  @Override
+  public final void accept(final T result, Throwable error) {
+    final Throwable cause =
+        error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+
+    long remaining = minimumMilliseconds - (System.nanoTime() - createdNanos) / 1000000;
+
+    if (remaining > 0) {
+      Timer timer =
+          new Timer(
+              (int) remaining,
+              new ActionListener() {
+                @Override
+                public void actionPerformed(ActionEvent e) {
+                  done(result, cause);
+                }
+              });
+      timer.setRepeats(false);
+      timer.start();
+    } else {
+      EventQueue.invokeLater(
+          new Runnable() {
+            @Override
+            public void run() {
+              done(result, cause);
+            }
+          });
+    }
+  }
+
+  /**
+   * Called on the event dispatch thread once the command completes and the minimum time has passed.
+   *
+   * @param result The result or null if the command failed
+   * @param cause The reason the command failed, typically a CommandException, or null if it
+   *     succeeded
+   */
+  protected abstract void done(T result, Throwable cause);
+}
@@ -0,0 +1,157 @@
+package org.jlab.phaser.swing.worker;
+
+import java.awt.event.ActionEvent;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.text.DecimalFormat;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import javax.swing.AbstractAction;
+import javax.swing.JOptionPane;
+import org.jlab.jlog.exception.LogException;
+import org.jlab.jlog.exception.LogRuntimeException;
+import org.jlab.phaser.exception.PhaserException;
+import org.jlab.phaser.export.ExportPipeline;
+import org.jlab.phaser.export.ExportProgressListener;
+import org.jlab.phaser.swing.generated.dialog.ResultsDialog;
+
+/**
+ * Exports to a file through an ExportPipeline while showing progress and a cancel button in the
+ * modal wait dialog.
+ *
+ * <p>Progress is published from the pipeline's write thread and shown on the event dispatch thread
+ * as rows written and rows per second. If the export fails or is cancelled the partially written
+ * file is deleted.
+ */
+public abstract class ExportWorker extends MinimumExecutionSwingWorker<Long, String> {
+
+  private static final Logger LOGGER = Logger.getLogger(ExportWorker.class.getName());
+
+  /** The dialog. */
+  protected final ResultsDialog dialog;
+
+  /** The file being written. */
+  protected final File file;
+
+  private final String errorTitle;
+
+  private final ExportPipeline pipeline =
+      new ExportPipeline(
+          ExportPipeline.DEFAULT_QUEUE_CAPACITY,
+          new ExportProgressListener() {
+            private final DecimalFormat integerFormat = new DecimalFormat("#,###,##0");
+
+            @Override
+            public void exportProgress(long rows, double rowsPerSecond) {
+              publish(
+                  "Exported "
+                      + integerFormat.format(rows)
+                      + " rows ("
+                      + integerFormat.format(rowsPerSecond)
+                      + " rows/sec)...");
+            }
+          });
+
+  /**
+   * Create a new ExportWorker.
+   *
+   * @param dialog The ResultsDialog
+   * @param file The file to write, or null if the export cleans up after itself
+   * @param errorTitle The title of the error message shown if the export fails
+   */
+  public ExportWorker(ResultsDialog dialog, File file, String errorTitle) {
+    this.dialog = dialog;
+    this.file = file;
+    this.errorTitle = errorTitle;
+  }
+
+  /** Shows the modal wait dialog with a cancel button and starts the export. */
+  public void start() {
+    dialog.queueShowModalWait(
+        new AbstractAction("Cancel") {
+          @Override
+          public void actionPerformed(ActionEvent e) {
+            setEnabled(false);
+            dialog.setModalWaitMessage("Cancelling...");
+            pipeline.cancel();
+          }
+        });
+    execute();
+  }
+
+  /**
+   * Performs the export.
+   *
+   * @param pipeline The pipeline to stream results through
+   * @return The number of records exported
+   * @throws Exception If unable to export
+   */
+  protected abstract long export(ExportPipeline pipeline) throws Exception;
+
+  @Override
+  protected final Long doWithMinimumExecution() throws Exception {
+    try {
+      return export(pipeline);
+    } catch (Exception | Error e) {
+      if (file != null) {
+        deletePartialFile();
+      }
+      throw e;
+    }
+  }
+
+  private void deletePartialFile() {
+    try {
+      Files.deleteIfExists(file.toPath());
+    } catch (IOException e) {
+      LOGGER.log(Level.WARNING, "Unable to delete partial export " + file, e);
+    }
+  }
+
+  /**
+   * Called on the event dispatch thread after the export completes successfully. Does nothing by
+   * default.
+   *
+   * @param result The value returned by export
+   */
+  protected void succeeded(long result) {}
+
+  @Override
+  protected void process(List<String> chunks) {
+    if (!pipeline.isCancelled()) {
+      dialog.setModalWaitMessage(chunks.get(chunks.size() - 1));
+    }
+  }
+
+  @Override
+  protected void done() {
+    try {
+      long result = get(); // See if there were any exceptions
+      succeeded(result);
+    } catch (InterruptedException | ExecutionException ex) {
+      if (ex.getCause() instanceof CancellationException) {
+        LOGGER.log(Level.FINE, "Export to {0} cancelled", file);
+      } else {
+        String message = "Unexpected error";
+        LOGGER.log(Level.SEVERE, errorTitle, ex);
+
+        Throwable cause = ex.getCause();
+        if (cause != null
+            && (cause instanceof PhaserException
+                || cause instanceof IOException
+                || cause instanceof LogException
+                || cause instanceof LogRuntimeException)) {
+          message = cause.getMessage();
+        }
+
+        JOptionPane.showMessageDialog(dialog, message, errorTitle, JOptionPane.ERROR_MESSAGE);
+      }
+    } finally {
+      dialog.hideModalWait();
+    }
+  }
+}
@@ -1,13 +1,20 @@
 package org.jlab.phaser.swing.worker;
 
-import java.beans.PropertyChangeEvent;
-import java.beans.PropertyChangeListener;
+import java.util.concurrent.Callable;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import javax.swing.JOptionPane;
+import org.jlab.phaser.DatabaseConsole;
 import org.jlab.phaser.exception.PhaserException;
+import org.jlab.phaser.model.JobFilter;
 import org.jlab.phaser.model.JobPage;
+import org.jlab.phaser.model.Paginator;
+import org.jlab.phaser.model.ResultFilter;
+import org.jlab.phaser.model.ResultPage;
 import org.jlab.phaser.swing.generated.PhaserClientFrame;
 import org.jlab.phaser.swing.generated.dialog.ResultsDialog;
 
@@ -15,14 +22,15 @@ import org.jlab.phaser.swing.generated.dialog.ResultsDialog;
  * Prepares the Results dialog by performing the initial database queries and populating the form
  * with initial values.
  *
- * <p>First we query for the JobPage and if successful we next query for the ResultPage. We use the
- * ordered list of jobs to find the most recent and use that in the query for the ResultPage. If
- * there wasn't this dependency we could have run the queries in parallel.
+ * <p>The ResultPage is filtered to the most recent job, which is the first job on the JobPage. To
+ * avoid waiting for the JobPage before starting the ResultPage query we look up the most recent job
+ * ID directly (a cheap index lookup) and run the JobPage query in parallel, so the dialog opens in
+ * the time of the slower of the two queries instead of the sum.
  *
  * @author ryans
  */
 public final class InitializeResultsDialogWorker
-    extends MinimumExecutionSwingWorker<JobPage, Void> {
+    extends MinimumExecutionSwingWorker<InitializeResultsDialogWorker.InitialPages, Void> {
 
   private static final Logger LOGGER =
       Logger.getLogger(InitializeResultsDialogWorker.class.getName());
@@ -37,59 +45,64 @@ public final class InitializeResultsDialogWorker
    * @param dialog The ResultsDialog
    */
   public InitializeResultsDialogWorker(PhaserClientFrame frame, ResultsDialog dialog) {
-    super(375L); // Don't force long wait since we may have two workers run
+    super();
     this.frame = frame;
     this.dialog = dialog;
   }
 
   @Override
-  protected JobPage doWithMinimumExecution() throws Exception {
-    return frame.getDatabaseConsole().jobs(dialog.getJobFilter(), dialog.getJobsPaginator());
+  protected InitialPages doWithMinimumExecution() throws Exception {
+    final DatabaseConsole console = frame.getDatabaseConsole();
+    final JobFilter jobFilter = dialog.getJobFilter();
+    final Paginator jobsPaginator = dialog.getJobsPaginator();
+
+    ExecutorService service = Executors.newSingleThreadExecutor();
+
+    try {
+      Future<JobPage> jobPageFuture =
+          service.submit(
+              new Callable<JobPage>() {
+                @Override
+                public JobPage call() throws Exception {
+                  return console.jobs(jobFilter, jobsPaginator);
+                }
+              });
+
+      Long jobId = console.mostRecentJobId(jobFilter);
+      ResultFilter resultFilter = dialog.getResultFilter();
+      if (jobId != null) {
+        resultFilter = new ResultFilter(jobId, null, null, null, null, null);
+      }
+      ResultPage resultPage = console.results(resultFilter, dialog.getResultsPaginator());
+
+      JobPage jobPage;
+
+      try {
+        jobPage = jobPageFuture.get();
+      } catch (ExecutionException e) {
+        if (e.getCause() instanceof Exception) {
+          throw (Exception) e.getCause();
+        }
+        throw e;
+      }
+
+      return new InitialPages(jobPage, jobId, resultPage);
+    } finally {
+      service.shutdownNow();
+    }
   }
 
   @Override
   protected void done() {
-    boolean runningSecondWorker = false;
+    boolean loaded = false;
     try {
-      JobPage page = get(); // Get execution result and see if there were any exceptions
-      dialog.setJobPage(page);
-      Long jobId = null;
-      if (!page.getRecords().isEmpty()) {
-        jobId = page.getRecords().get(0).getId();
-      }
-      dialog.setMostRecentJobId(jobId);
-      ResultsWorker secondWorker =
-          new ResultsWorker(dialog, dialog.getResultsPaginator(), 375L, false);
-      /**
-       * Use callback function to handle second worker finish because the existing "done" method
-       * will try to hide the ResultDialog wait, but we need to hide the PhaserClientFrame wait and
-       * also to show the ResultDialog. We could have overridden ResultWorker and redefined the done
-       * method, but this callback will work and the existing done method won't do any harm and sets
-       * the results for us.
-       */
-      secondWorker.addPropertyChangeListener(
-          new PropertyChangeListener() {
-
-            @Override
-            public void propertyChange(PropertyChangeEvent evt) {
-              if ("state".equals(evt.getPropertyName())) {
-                if (evt.getNewValue() instanceof StateValue) {
-                  StateValue state = (StateValue) evt.getNewValue();
-                  if (state == StateValue.DONE) {
-                    frame.hideModalWait();
-                    dialog.pack();
-                    dialog.setLocationRelativeTo(frame);
-                    dialog.setVisible(true);
-                  }
-                }
-              }
-            }
-          });
-
-      secondWorker.execute();
-      runningSecondWorker = true;
+      InitialPages pages = get(); // Get execution result and see if there were any exceptions
+      dialog.setJobPage(pages.jobPage);
+      dialog.setMostRecentJobId(pages.mostRecentJobId);
+      dialog.setResultPage(pages.resultPage);
+      loaded = true;
     } catch (InterruptedException | ExecutionException ex) {
-      String title = "Unable to query jobs";
+      String title = "Unable to query phaser results";
       String message = "Unexpected error";
       LOGGER.log(Level.SEVERE, title, ex);
 
@@ -100,9 +113,26 @@ public final class InitializeResultsDialogWorker
 
       JOptionPane.showMessageDialog(frame, message, title, JOptionPane.ERROR_MESSAGE);
     } finally {
-      if (!runningSecondWorker) { // Second worker won't be executed if exception in first
-        frame.hideModalWait();
+      frame.hideModalWait();
+
+      if (loaded) {
+        dialog.pack();
+        dialog.setLocationRelativeTo(frame);
+        dialog.setVisible(true);
       }
     }
   }
+
+  /** The pages queried to initialize the dialog. */
+  static final class InitialPages {
+    private final JobPage jobPage;
+    private final Long mostRecentJobId;
+    private final ResultPage resultPage;
+
+    private InitialPages(JobPage jobPage, Long mostRecentJobId, ResultPage resultPage) {
+      this.jobPage = jobPage;
+      this.mostRecentJobId = mostRecentJobId;
+      this.resultPage = resultPage;
+    }
+  }
 }
@@ -0,0 +1,66 @@
+package org.jlab.phaser.db;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.util.Date;
+import org.jlab.phaser.model.JobFilter;
+import org.junit.Test;
+
+public class PageCacheTest {
+
+  @Test
+  public void equalFiltersShareCachedPage() {
+    PageCache<JobFilter, String> cache = new PageCache<>("test", 100, 60);
+
+    cache.put(new JobFilter(1L, new Date(1000), null), 0, 10, "page", 10, cache.getGeneration());
+
+    assertEquals("page", cache.get(new JobFilter(1L, new Date(1000), null), 0, 10));
+    assertNull(cache.get(new JobFilter(1L, new Date(1000), null), 10, 10));
+    assertEquals(1, cache.getHitCount());
+    assertEquals(1, cache.getMissCount());
+  }
+
+  @Test
+  public void leastRecentlyUsedPagesAreEvictedByRecordCount() {
+    PageCache<JobFilter, String> cache = new PageCache<>("test", 20, 60);
+    JobFilter filter = new JobFilter(null, null, null);
+
+    cache.put(filter, 0, 10, "first", 10, cache.getGeneration());
+    cache.put(filter, 10, 10, "second", 10, cache.getGeneration());
+    cache.get(filter, 0, 10);
+    cache.put(filter, 20, 10, "third", 10, cache.getGeneration());
+
+    assertEquals("first", cache.get(filter, 0, 10));
+    assertNull(cache.get(filter, 10, 10));
+    assertEquals("third", cache.get(filter, 20, 10));
+  }
+
+  @Test
+  public void invalidateDiscardsAllPages() {
+    PageCache<JobFilter, String> cache = new PageCache<>("test", 100, 60);
+    JobFilter filter = new JobFilter(null, null, null);
+
+    cache.put(filter, 0, 10, "page", 10, cache.getGeneration());
+    cache.invalidate();
+
+    assertNull(cache.get(filter, 0, 10));
+  }
+
+  @Test
+  public void pageQueriedBeforeInvalidationIsNotCached() {
+    PageCache<JobFilter, String> cache = new PageCache<>("test", 100, 60);
+    JobFilter filter = new JobFilter(null, null, null);
+
+    long generation = cache.getGeneration();
+    // The query runs here and the server's data changes before it returns
+    cache.invalidate();
+    cache.put(filter, 0, 10, "stale", 10, generation);
+
+    assertNull(cache.get(filter, 0, 10));
+
+    cache.put(filter, 0, 10, "fresh", 10, cache.getGeneration());
+
+    assertEquals("fresh", cache.get(filter, 0, 10));
+  }
+}
@@ -0,0 +1,18 @@
+package org.jlab.phaser.export;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+public class ElogResultsServiceTest {
+
+  @Test
+  public void escapesEachSpecialCharacterOnce() {
+    StringBuilder html = new StringBuilder();
+
+    ElogResultsService.appendEscaped(html, "a<b>&\"c'&#038;");
+    ElogResultsService.appendEscaped(html, null);
+
+    assertEquals("a&#060;b&#062;&#038;&#034;c&#039;&#038;#038;", html.toString());
+  }
+}
@@ -0,0 +1,171 @@
+package org.jlab.phaser.export;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.jlab.jlog.exception.LogException;
+import org.jlab.jlog.exception.LogIOException;
+import org.jlab.jlog.exception.LogRuntimeException;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class ElogSpoolTest {
+
+  @Rule public TemporaryFolder folder = new TemporaryFolder();
+
+  @Test
+  public void retriesUntilTheServerAcceptsEntriesInOrder() throws Exception {
+    StandInSubmitter server = new StandInSubmitter(2, 2);
+    ElogSpool spool = new ElogSpool(folder.getRoot().toPath(), server, 10, 20);
+    final CountDownLatch drained = new CountDownLatch(1);
+    spool.addListener(
+        new ElogSpoolListener() {
+          private final AtomicInteger submitted = new AtomicInteger();
+
+          @Override
+          public void spoolChanged(int pending, String problem) {
+            // The spool is briefly empty after the first entry if the second isn't queued yet
+            if (pending == 0 && submitted.get() == 2) {
+              drained.countDown();
+            }
+          }
+
+          @Override
+          public void entrySubmitted(String title, long logId) {
+            submitted.incrementAndGet();
+          }
+        });
+    spool.start();
+
+    try {
+      ElogSpool.Draft first = spool.createDraft();
+      Files.write(first.getDirectory().resolve("data.csv.gz"), new byte[] {1, 2, 3});
+      spool.enqueue(first, "First", "TLOG", "<p>1</p>", "data.csv.gz");
+      spool.enqueue(spool.createDraft(), "Second", "TLOG", "<p>2</p>", null);
+
+      assertTrue(drained.await(5, TimeUnit.SECONDS));
+    } finally {
+      spool.close();
+    }
+
+    assertEquals(4, server.attempts);
+    assertEquals("First", server.titles.get(0));
+    assertEquals("Second", server.titles.get(1));
+    assertTrue(server.attachmentSeen);
+    assertEquals(0, spool.getPendingCount());
+  }
+
+  @Test
+  public void rejectedEntryIsSetAsideAndReported() throws Exception {
+    ElogSpool spool =
+        new ElogSpool(
+            folder.getRoot().toPath(),
+            new ElogSubmitter() {
+              @Override
+              public long submit(ElogSpool.SpooledEntry entry) {
+                throw new LogRuntimeException("Logbook does not exist");
+              }
+            },
+            10,
+            20);
+    final CountDownLatch reported = new CountDownLatch(1);
+    final List<String> problems = new CopyOnWriteArrayList<>();
+    spool.addListener(
+        new ElogSpoolListener() {
+          @Override
+          public void spoolChanged(int pending, String problem) {
+            if (pending == 0 && problem != null) {
+              problems.add(problem);
+              reported.countDown();
+            }
+          }
+
+          @Override
+          public void entrySubmitted(String title, long logId) {}
+        });
+    spool.start();
+
+    try {
+      spool.enqueue(spool.createDraft(), "Rejected", "NOSUCHLOG", "<p>r</p>", null);
+
+      assertTrue(reported.await(5, TimeUnit.SECONDS));
+    } finally {
+      spool.close();
+    }
+
+    assertTrue(problems.get(0).contains("rejected"));
+    assertEquals(0, spool.getPendingCount());
+
+    try (DirectoryStream<Path> failed =
+        Files.newDirectoryStream(folder.getRoot().toPath().resolve("failed"))) {
+      assertTrue(failed.iterator().hasNext());
+    }
+  }
+
+  @Test
+  public void entriesSurviveRestart() throws Exception {
+    Path directory = folder.getRoot().toPath();
+
+    // Server unavailable for the whole first run
+    ElogSpool offline =
+        new ElogSpool(directory, new StandInSubmitter(Integer.MAX_VALUE, 1), 60000, 60000);
+    offline.start();
+    offline.enqueue(offline.createDraft(), "Queued", "TLOG", "<p>q</p>", null);
+    ElogSpool.Draft abandoned = offline.createDraft();
+    offline.close();
+
+    StandInSubmitter server = new StandInSubmitter(0, 1);
+    ElogSpool spool = new ElogSpool(directory, server, 10, 20);
+    spool.start();
+
+    try {
+      assertTrue(server.submitted.await(5, TimeUnit.SECONDS));
+    } finally {
+      spool.close();
+    }
+
+    assertEquals("Queued", server.titles.get(0));
+    assertFalse(Files.exists(abandoned.getDirectory()));
+  }
+
+  /** A local stand-in for the logbook server which is unavailable for a number of attempts. */
+  private static final class StandInSubmitter implements ElogSubmitter {
+    private final int failures;
+    private final CountDownLatch submitted;
+    private final List<String> titles = new ArrayList<>();
+    private volatile int attempts = 0;
+    private volatile boolean attachmentSeen = false;
+
+    private StandInSubmitter(int failures, int expected) {
+      this.failures = failures;
+      this.submitted = new CountDownLatch(expected);
+    }
+
+    @Override
+    public long submit(ElogSpool.SpooledEntry entry) throws LogException {
+      if (attempts++ < failures) {
+        throw new LogIOException("Server unavailable");
+      }
+
+      if (entry.getAttachment() != null && Files.exists(entry.getAttachment())) {
+        attachmentSeen = true;
+      }
+
+      titles.add(entry.getTitle());
+      submitted.countDown();
+
+      return 1000 + titles.size();
+    }
+  }
+}
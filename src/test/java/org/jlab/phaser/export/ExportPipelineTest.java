@@ -0,0 +1,206 @@
+package org.jlab.phaser.export;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import org.jlab.phaser.DatabaseConsole;
+import org.jlab.phaser.JobRecordHandler;
+import org.jlab.phaser.ResultRecordHandler;
+import org.jlab.phaser.model.CavityWithLastCorrection;
+import org.jlab.phaser.model.JobFilter;
+import org.jlab.phaser.model.JobPage;
+import org.jlab.phaser.model.JobRecord;
+import org.jlab.phaser.model.Paginator;
+import org.jlab.phaser.model.PhaserOutcome;
+import org.jlab.phaser.model.ResultFilter;
+import org.jlab.phaser.model.ResultPage;
+import org.jlab.phaser.model.ResultRecord;
+import org.junit.Test;
+
+public class ExportPipelineTest {
+
+  private static final ResultFilter FILTER = new ResultFilter(null, null, null, null, null, null);
+
+  @Test
+  public void writesEveryRecordInOrder() throws Exception {
+    final List<BigInteger> written = new ArrayList<>();
+    ExportPipeline pipeline = new ExportPipeline(4, null);
+
+    long count =
+        pipeline.run(
+            new StreamingConsole(100),
+            FILTER,
+            100,
+            new ResultRecordHandler() {
+              @Override
+              public void handleResult(ResultRecord record) {
+                written.add(record.getResultId());
+              }
+            });
+
+    assertEquals(100, count);
+    assertEquals(100, written.size());
+    for (int i = 0; i < 100; i++) {
+      assertEquals(BigInteger.valueOf(i), written.get(i));
+    }
+  }
+
+  @Test
+  public void cancelStopsFetching() throws Exception {
+    final ExportPipeline pipeline = new ExportPipeline(4, null);
+    StreamingConsole console = new StreamingConsole(1000000);
+
+    try {
+      pipeline.run(
+          console,
+          FILTER,
+          1000000,
+          new ResultRecordHandler() {
+            @Override
+            public void handleResult(ResultRecord record) {
+              if (record.getResultId().intValue() == 10) {
+                pipeline.cancel();
+              }
+            }
+          });
+      fail("Expected CancellationException");
+    } catch (CancellationException e) {
+      assertTrue(console.streamed < 1000000);
+    }
+  }
+
+  @Test(expected = IOException.class)
+  public void writeFailureIsRethrown() throws Exception {
+    new ExportPipeline(4, null)
+        .run(
+            new StreamingConsole(100),
+            FILTER,
+            100,
+            new ResultRecordHandler() {
+              @Override
+              public void handleResult(ResultRecord record) throws IOException {
+                throw new IOException("Disk full");
+              }
+            });
+  }
+
+  @Test
+  public void jobsAreWrittenThroughThePipeline() throws Exception {
+    final List<Long> written = new ArrayList<>();
+    ExportPipeline pipeline = new ExportPipeline(4, null);
+
+    long count =
+        pipeline.run(
+            new StreamingConsole(100),
+            new JobFilter(null, null, null),
+            100,
+            new JobRecordHandler() {
+              @Override
+              public void handleJob(JobRecord record) {
+                written.add(record.getId());
+              }
+            });
+
+    assertEquals(100, count);
+    assertEquals(100, written.size());
+    assertEquals(Long.valueOf(99), written.get(99));
+  }
+
+  /** Streams the requested number of fake results or jobs; nothing else is supported. */
+  private static final class StreamingConsole implements DatabaseConsole {
+    private final int total;
+    private volatile int streamed = 0;
+
+    private StreamingConsole(int total) {
+      this.total = total;
+    }
+
+    @Override
+    public long streamResults(ResultFilter filter, long maxRecords, ResultRecordHandler handler)
+        throws IOException {
+      Date now = new Date();
+      for (int i = 0; i < total; i++) {
+        handler.handleResult(
+            new ResultRecord(
+                BigInteger.valueOf(i),
+                now,
+                now,
+                null,
+                "1L22-1",
+                0f,
+                0f,
+                PhaserOutcome.CORRECTED,
+                null));
+        streamed++;
+      }
+      return total;
+    }
+
+    @Override
+    public long streamJobs(JobFilter filter, long maxRecords, JobRecordHandler handler)
+        throws IOException {
+      Date now = new Date();
+      for (int i = 0; i < total; i++) {
+        handler.handleJob(new JobRecord(i, now, now, false, false, 0f, 0f, 0, 0));
+        streamed++;
+      }
+      return total;
+    }
+
+    @Override
+    public ResultPage results(ResultFilter filter, Paginator paginator) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public JobPage jobs(JobFilter filter, Paginator paginator) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public long countResults(ResultFilter filter) {
+      return total;
+    }
+
+    @Override
+    public ResultPage cachedResults(ResultFilter filter, Paginator paginator) {
+      return null;
+    }
+
+    @Override
+    public JobPage cachedJobs(JobFilter filter, Paginator paginator) {
+      return null;
+    }
+
+    @Override
+    public void prefetchAdjacentResults(ResultPage page) {}
+
+    @Override
+    public void prefetchAdjacentJobs(JobPage page) {}
+
+    @Override
+    public void invalidateCachedPages() {}
+
+    @Override
+    public Long mostRecentJobId(JobFilter filter) {
+      return null;
+    }
+
+    @Override
+    public LinkedHashSet<CavityWithLastCorrection> cavitiesWithLastCorrection() {
+      return new LinkedHashSet<>();
+    }
+
+    @Override
+    public void correctionsApplied(Collection<String> cavities) {}
+  }
+}
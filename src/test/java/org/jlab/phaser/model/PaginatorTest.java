@@ -0,0 +1,55 @@
+package org.jlab.phaser.model;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.math.BigInteger;
+import org.junit.Test;
+
+public class PaginatorTest {
+
+  @Test
+  public void nextPageSeeksAfterLastKey() {
+    Paginator page =
+        new Paginator(1200, 500, 500, BigInteger.valueOf(700), BigInteger.valueOf(201));
+
+    Paginator next = page.nextPage();
+
+    assertEquals(Paginator.Seek.AFTER_LAST_KEY, next.getSeek());
+    assertEquals(BigInteger.valueOf(201), next.getLastKey());
+    assertEquals(1000, next.getOffset());
+    assertEquals(1200, next.getTotalRecords());
+  }
+
+  @Test
+  public void previousPageSeeksBeforeFirstKey() {
+    Paginator page =
+        new Paginator(1600, 1000, 500, BigInteger.valueOf(600), BigInteger.valueOf(101));
+
+    Paginator previous = page.previousPage();
+
+    assertEquals(Paginator.Seek.BEFORE_FIRST_KEY, previous.getSeek());
+    assertEquals(BigInteger.valueOf(600), previous.getFirstKey());
+    assertEquals(500, previous.getOffset());
+  }
+
+  @Test
+  public void firstPageIsLocatedByOffset() {
+    Paginator page =
+        new Paginator(1200, 500, 500, BigInteger.valueOf(700), BigInteger.valueOf(201));
+
+    assertNull(page.previousPage().getSeek());
+    assertEquals(0, page.previousPage().getOffset());
+    assertNull(new Paginator(1200, 0, 500, BigInteger.TEN, BigInteger.ONE).currentPage().getSeek());
+  }
+
+  @Test
+  public void pageWithoutKeysIsLocatedByOffset() {
+    Paginator page = new Paginator(1200, 500, 500);
+
+    assertNull(page.nextPage().getSeek());
+    assertEquals(1000, page.nextPage().getOffset());
+    assertNull(page.currentPage().getSeek());
+    assertEquals(500, page.currentPage().getOffset());
+  }
+}
@@ -0,0 +1,148 @@
+package org.jlab.phaser.network;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import javax.json.Json;
+import org.jlab.phaser.NotificationListener;
+import org.jlab.phaser.model.CavityNotification;
+import org.jlab.phaser.model.JobNotification;
+import org.junit.Test;
+
+public class CoalescingNotificationDispatcherTest {
+
+  @Test
+  public void burstOfProgressIsMergedIntoTheLatest() throws Exception {
+    RecordingListener ui = new RecordingListener("progress 99");
+    CoalescingNotificationDispatcher dispatcher = new CoalescingNotificationDispatcher(ui, 5);
+
+    try {
+      for (int i = 0; i < 100; i++) {
+        dispatcher.progressNotification(i, null);
+      }
+
+      assertTrue(ui.done.await(5, TimeUnit.SECONDS));
+    } finally {
+      dispatcher.close();
+    }
+
+    assertEquals("progress 99", ui.delivered.get(ui.delivered.size() - 1));
+    assertTrue(ui.delivered.size() <= 2);
+    assertEquals(100, dispatcher.getReceivedCount());
+    assertEquals(100 - ui.delivered.size(), dispatcher.getMergedCount());
+  }
+
+  @Test
+  public void jobSupersedesPendingProgressButNotCavity() throws Exception {
+    RecordingListener ui = new RecordingListener("cavity 1L22-3");
+    CoalescingNotificationDispatcher dispatcher = new CoalescingNotificationDispatcher(ui, 5);
+
+    try {
+      // The first notification after a quiet period is delivered straight away
+      dispatcher.statusNotification("Working", false);
+      assertTrue(ui.first.await(5, TimeUnit.SECONDS));
+
+      // The rest arrive within the period so they're held and coalesced
+      dispatcher.progressNotification(10, null);
+      dispatcher.jobNotification(JobNotification.NONE);
+      dispatcher.cavityNotification(new CavityNotification(null, "1L22-3"));
+
+      assertTrue(ui.done.await(5, TimeUnit.SECONDS));
+    } finally {
+      dispatcher.close();
+    }
+
+    assertEquals(3, ui.delivered.size());
+    assertEquals("job", ui.delivered.get(1));
+    assertEquals(1, dispatcher.getDroppedCount());
+  }
+
+  @Test
+  public void heldNotificationsAreDeliveredBeforeAResponse() throws Exception {
+    RecordingListener ui = new RecordingListener("paused true");
+    CoalescingNotificationDispatcher dispatcher = new CoalescingNotificationDispatcher(ui, 1);
+
+    try {
+      dispatcher.statusNotification("Working", false);
+      assertTrue(ui.first.await(5, TimeUnit.SECONDS));
+
+      // Held for up to a second, but the response to pause must not overtake it
+      dispatcher.pausedNotification(true);
+      dispatcher.handleResponse(
+          Json.createObjectBuilder().add("response", "ok").build(), System.nanoTime());
+
+      assertEquals(0, ui.done.getCount());
+      assertEquals("paused true", ui.delivered.get(1));
+    } finally {
+      dispatcher.close();
+    }
+  }
+
+  @Test
+  public void zeroFrameRateIsClampedToOne() throws Exception {
+    RecordingListener ui = new RecordingListener("progress 1");
+    CoalescingNotificationDispatcher dispatcher = new CoalescingNotificationDispatcher(ui, 0);
+
+    try {
+      dispatcher.progressNotification(1, null);
+
+      assertTrue(ui.done.await(5, TimeUnit.SECONDS));
+    } finally {
+      dispatcher.close();
+    }
+  }
+
+  /** Records deliveries until an expected last delivery. */
+  private static final class RecordingListener implements NotificationListener {
+    private final String last;
+    private final List<String> delivered = new ArrayList<>();
+    private final CountDownLatch first = new CountDownLatch(1);
+    private final CountDownLatch done = new CountDownLatch(1);
+
+    private RecordingListener(String last) {
+      this.last = last;
+    }
+
+    private void record(String delivery) {
+      delivered.add(delivery);
+      first.countDown();
+      if (delivery.equals(last)) {
+        done.countDown();
+      }
+    }
+
+    @Override
+    public void statusNotification(String message, Boolean error) {
+      record("status " + message);
+    }
+
+    @Override
+    public void jobNotification(JobNotification notification) {
+      record("job");
+    }
+
+    @Override
+    public void pausedNotification(Boolean paused) {
+      record("paused " + paused);
+    }
+
+    @Override
+    public void loopNotification(Integer loop) {
+      record("loop " + loop);
+    }
+
+    @Override
+    public void cavityNotification(CavityNotification notification) {
+      record("cavity " + notification.getCavity());
+    }
+
+    @Override
+    public void progressNotification(Integer value, String label) {
+      record("progress " + value);
+    }
+  }
+}
@@ -0,0 +1,145 @@
+package org.jlab.phaser.network;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.junit.Test;
+
+public class DispatchQueueTest {
+
+  private static Runnable record(final List<String> delivered, final String name) {
+    return new Runnable() {
+      @Override
+      public void run() {
+        delivered.add(name);
+      }
+    };
+  }
+
+  private static Runnable await(final CountDownLatch started, final CountDownLatch release) {
+    return new Runnable() {
+      @Override
+      public void run() {
+        started.countDown();
+        try {
+          release.await();
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+        }
+      }
+    };
+  }
+
+  @Test
+  public void overflowDropsOldestNotificationButNeverResponses() throws InterruptedException {
+    DispatchQueue queue = new DispatchQueue(2, DispatchQueue.OverflowPolicy.DROP_OLDEST);
+    List<String> delivered = new CopyOnWriteArrayList<>();
+    CountDownLatch started = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    CountDownLatch done = new CountDownLatch(1);
+
+    try {
+      queue.submitNotification(await(started, release));
+      assertTrue(started.await(5, TimeUnit.SECONDS));
+
+      queue.submitNotification(record(delivered, "n1"));
+      queue.submitResponse(record(delivered, "r1"));
+      queue.submitNotification(record(delivered, "n2"));
+      queue.submitResponse(record(delivered, "r2"));
+      queue.submitNotification(
+          new Runnable() {
+            @Override
+            public void run() {
+              delivered.add("n3");
+              done.countDown();
+            }
+          });
+
+      release.countDown();
+      assertTrue(done.await(5, TimeUnit.SECONDS));
+
+      assertEquals(2, queue.getDroppedCount());
+      assertEquals(Arrays.asList("r1", "r2", "n3"), delivered);
+    } finally {
+      queue.close();
+    }
+  }
+
+  @Test
+  public void overflowDropsNewestNotification() throws InterruptedException {
+    DispatchQueue queue = new DispatchQueue(1, DispatchQueue.OverflowPolicy.DROP_NEWEST);
+    List<String> delivered = new CopyOnWriteArrayList<>();
+    CountDownLatch started = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    CountDownLatch done = new CountDownLatch(1);
+
+    try {
+      queue.submitNotification(await(started, release));
+      assertTrue(started.await(5, TimeUnit.SECONDS));
+
+      queue.submitNotification(record(delivered, "n1"));
+      queue.submitNotification(record(delivered, "n2"));
+      queue.submitResponse(
+          new Runnable() {
+            @Override
+            public void run() {
+              delivered.add("r1");
+              done.countDown();
+            }
+          });
+
+      release.countDown();
+      assertTrue(done.await(5, TimeUnit.SECONDS));
+
+      assertEquals(1, queue.getDroppedCount());
+      assertEquals(Arrays.asList("n1", "r1"), delivered);
+    } finally {
+      queue.close();
+    }
+  }
+
+  @Test
+  public void floodOfProgressNeverDropsCavityOrLoopNotifications() throws InterruptedException {
+    DispatchQueue queue = new DispatchQueue(10, DispatchQueue.OverflowPolicy.DROP_OLDEST);
+    List<String> delivered = new CopyOnWriteArrayList<>();
+    CountDownLatch started = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    CountDownLatch done = new CountDownLatch(1);
+
+    try {
+      queue.submitNotification(await(started, release));
+      assertTrue(started.await(5, TimeUnit.SECONDS));
+
+      queue.submitStateNotification(record(delivered, "cavity"));
+      queue.submitNotification(record(delivered, "progress"));
+      queue.submitStateNotification(record(delivered, "loop"));
+
+      for (int i = 0; i < 1000; i++) {
+        queue.submitNotification(record(delivered, "progress " + i));
+      }
+
+      queue.submitResponse(
+          new Runnable() {
+            @Override
+            public void run() {
+              done.countDown();
+            }
+          });
+
+      release.countDown();
+      assertTrue(done.await(5, TimeUnit.SECONDS));
+
+      assertEquals("cavity", delivered.get(0));
+      assertEquals("loop", delivered.get(1));
+      assertEquals("progress 999", delivered.get(delivered.size() - 1));
+      assertTrue(queue.getDroppedCount() > 0);
+    } finally {
+      queue.close();
+    }
+  }
+}
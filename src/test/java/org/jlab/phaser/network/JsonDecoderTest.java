@@ -0,0 +1,29 @@
+package org.jlab.phaser.network;
+
+import static org.junit.Assert.assertEquals;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.embedded.EmbeddedChannel;
+import io.netty.util.CharsetUtil;
+import javax.json.JsonObject;
+import org.junit.Test;
+
+public class JsonDecoderTest {
+
+  @Test
+  public void decodesAndReleasesFramedBuffers() {
+    EmbeddedChannel channel = new EmbeddedChannel(new JsonDecoder());
+    ByteBuf frame =
+        Unpooled.copiedBuffer(
+            "{\"notification\": \"progress\", \"value\": 40, \"label\": \"Kick °\"}",
+            CharsetUtil.UTF_8);
+
+    channel.writeInbound(frame);
+    JsonObject json = channel.readInbound();
+
+    assertEquals(40, json.getInt("value"));
+    assertEquals("Kick °", json.getString("label"));
+    assertEquals(0, frame.refCnt());
+  }
+}
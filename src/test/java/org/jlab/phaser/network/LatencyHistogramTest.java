@@ -0,0 +1,41 @@
+package org.jlab.phaser.network;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.TimeUnit;
+import org.junit.Test;
+
+public class LatencyHistogramTest {
+
+  @Test
+  public void percentilesAreBoundedByTheirBucket() {
+    LatencyHistogram histogram = new LatencyHistogram();
+
+    for (int i = 1; i <= 100; i++) {
+      histogram.record(TimeUnit.MILLISECONDS.toNanos(i));
+    }
+
+    assertEquals(100, histogram.getCount());
+    assertEquals(100.0, histogram.getMaxMillis(), 0.001);
+
+    double p50 = histogram.getPercentileMillis(50);
+    double p99 = histogram.getPercentileMillis(99);
+
+    assertTrue("p50 " + p50, p50 >= 50 && p50 <= 50 * 1.19);
+    assertTrue("p99 " + p99, p99 >= 99 && p99 <= 100);
+  }
+
+  @Test
+  public void emptyAndOutOfRangeValues() {
+    LatencyHistogram histogram = new LatencyHistogram();
+
+    assertEquals(0.0, histogram.getPercentileMillis(99), 0);
+
+    histogram.record(0);
+    histogram.record(TimeUnit.SECONDS.toNanos(500));
+
+    assertEquals(0.1, histogram.getPercentileMillis(50), 0.001);
+    assertEquals(500000.0, histogram.getPercentileMillis(99), 0.001);
+  }
+}
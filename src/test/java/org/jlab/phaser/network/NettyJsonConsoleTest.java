@@ -0,0 +1,240 @@
+package org.jlab.phaser.network;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.embedded.EmbeddedChannel;
+import io.netty.handler.timeout.IdleStateEvent;
+import io.netty.util.CharsetUtil;
+import java.io.StringReader;
+import java.math.BigInteger;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import javax.json.Json;
+import javax.json.JsonObject;
+import org.jlab.phaser.exception.CommandException;
+import org.jlab.phaser.model.JobSpecification;
+import org.junit.Test;
+
+public class NettyJsonConsoleTest {
+
+  @Test
+  public void responsesAreMatchedByRequestId() throws Exception {
+    NettyJsonConsole console = new NettyJsonConsole();
+    EmbeddedChannel channel = new EmbeddedChannel(new JsonCommandEncoder());
+    console.setChannel(channel);
+
+    CompletableFuture<JsonObject> version = console.sendCommandAsync(new JsonCommand("version"));
+    CompletableFuture<JsonObject> cavities = console.sendCommandAsync(new JsonCommand("cavities"));
+
+    long versionId = requestId(channel.readOutbound());
+    long cavitiesId = requestId(channel.readOutbound());
+
+    // Answered out of order
+    console.handleResponse(
+        json("{\"request-id\": " + cavitiesId + ", \"response\": \"ok\", \"cavities\": []}"),
+        System.nanoTime());
+    assertFalse(version.isDone());
+
+    console.handleResponse(
+        json("{\"request-id\": " + versionId + ", \"response\": \"ok\", \"version\": \"2\"}"),
+        System.nanoTime());
+
+    assertTrue(cavities.get().containsKey("cavities"));
+    assertEquals("2", version.get().getString("version"));
+    assertEquals(2, console.getLatency().getCount());
+  }
+
+  @Test
+  public void latencyIsMeasuredToWhenTheResponseWasRead() throws Exception {
+    NettyJsonConsole console = new NettyJsonConsole();
+    EmbeddedChannel channel = new EmbeddedChannel(new JsonCommandEncoder());
+    console.setChannel(channel);
+
+    long before = System.nanoTime();
+    CompletableFuture<JsonObject> version = console.sendCommandAsync(new JsonCommand("version"));
+    long id = requestId(channel.readOutbound());
+    long received = System.nanoTime();
+
+    // The listeners fell behind, so the response is handled well after it was read
+    Thread.sleep(200);
+    console.handleResponse(
+        json("{\"request-id\": " + id + ", \"response\": \"ok\", \"version\": \"2\"}"), received);
+
+    assertTrue(version.isDone());
+    assertTrue(console.getLatency().getMaxMillis() <= (received - before) / 1e6);
+  }
+
+  @Test
+  public void missedHeartbeatClosesTheChannel() throws Exception {
+    NettyJsonConsole console = new NettyJsonConsole(10);
+    EmbeddedChannel channel =
+        new EmbeddedChannel(new JsonCommandEncoder(), new HeartbeatHandler(console));
+    console.setChannel(channel);
+
+    channel.pipeline().fireUserEventTriggered(IdleStateEvent.ALL_IDLE_STATE_EVENT);
+
+    ByteBuf ping = channel.readOutbound();
+    assertTrue(ping.toString(CharsetUtil.UTF_8).contains("\"command\":\"version\""));
+    ping.release();
+    assertTrue(channel.isOpen());
+
+    Thread.sleep(50);
+    channel.runScheduledPendingTasks();
+
+    assertFalse(channel.isOpen());
+  }
+
+  @Test
+  public void lateResponseWithoutIdIsNotMistakenForTheNext() throws Exception {
+    NettyJsonConsole console = new NettyJsonConsole();
+    EmbeddedChannel channel = new EmbeddedChannel(new JsonCommandEncoder());
+    console.setChannel(channel);
+
+    CompletableFuture<JsonObject> timedOut = console.sendCommandAsync(new JsonCommand("pause"));
+    console.abandon(timedOut);
+    CompletableFuture<JsonObject> version = console.sendCommandAsync(new JsonCommand("version"));
+
+    console.handleResponse(json("{\"response\": \"ok\"}"), System.nanoTime());
+    assertFalse(version.isDone());
+
+    console.handleResponse(json("{\"response\": \"ok\", \"version\": \"1\"}"), System.nanoTime());
+    assertEquals("1", version.get().getString("version"));
+  }
+
+  @Test
+  public void responseThatNeverArrivesDoesNotShiftLaterResponses() throws Exception {
+    NettyJsonConsole console = new NettyJsonConsole();
+    EmbeddedChannel channel = new EmbeddedChannel(new JsonCommandEncoder());
+    console.setChannel(channel);
+
+    // The server never answers pause
+    CompletableFuture<JsonObject> pause = console.sendCommandAsync(new JsonCommand("pause"));
+    console.abandon(pause);
+
+    // So the answer to the next command is discarded as the late answer to pause
+    CompletableFuture<JsonObject> first = console.sendCommandAsync(new JsonCommand("version"));
+    console.handleResponse(json("{\"response\": \"ok\", \"version\": \"1\"}"), System.nanoTime());
+    assertFalse(first.isDone());
+    console.abandon(first);
+
+    CompletableFuture<JsonObject> second = console.sendCommandAsync(new JsonCommand("version"));
+    console.handleResponse(json("{\"response\": \"ok\", \"version\": \"2\"}"), System.nanoTime());
+
+    assertTrue(second.isDone());
+    assertEquals("2", second.get().getString("version"));
+  }
+
+  @Test
+  public void abandonedCommandsAheadOfAnotherMissedDeadlineAreDropped() throws Exception {
+    NettyJsonConsole console = new NettyJsonConsole();
+    EmbeddedChannel channel = new EmbeddedChannel(new JsonCommandEncoder());
+    console.setChannel(channel);
+
+    CompletableFuture<JsonObject> stop = console.sendCommandAsync(new JsonCommand("stop"));
+    CompletableFuture<JsonObject> skip = console.sendCommandAsync(new JsonCommand("skip"));
+    console.abandon(stop);
+    console.abandon(skip);
+
+    // Only the late answer to skip is still expected
+    CompletableFuture<JsonObject> version = console.sendCommandAsync(new JsonCommand("version"));
+    console.handleResponse(json("{\"response\": \"ok\"}"), System.nanoTime());
+    console.handleResponse(json("{\"response\": \"ok\", \"version\": \"3\"}"), System.nanoTime());
+
+    assertTrue(version.isDone());
+    assertEquals("3", version.get().getString("version"));
+  }
+
+  @Test
+  public void errorWithoutIdFailsTheOldestCommandWithTheServerMessage() throws Exception {
+    NettyJsonConsole console = new NettyJsonConsole();
+    EmbeddedChannel channel = new EmbeddedChannel(new JsonCommandEncoder());
+    console.setChannel(channel);
+
+    CompletableFuture<String> version = console.serverVersion();
+    long versionId = requestId(channel.readOutbound());
+    console.handleResponse(
+        json("{\"request-id\": " + versionId + ", \"response\": \"ok\", \"version\": \"2\"}"),
+        System.nanoTime());
+    assertEquals("2", version.get());
+
+    // The server couldn't parse the command so it has no ID to echo
+    CompletableFuture<Void> pause = console.pause();
+    console.handleResponse(
+        json("{\"response\": \"error\", \"message\": \"malformed command\"}"), System.nanoTime());
+
+    try {
+      pause.get();
+      fail("Expected the command to fail");
+    } catch (ExecutionException e) {
+      assertEquals("Unable to execute command: malformed command", e.getCause().getMessage());
+    }
+  }
+
+  @Test
+  public void errorResponseFailsTheCommand() throws Exception {
+    NettyJsonConsole console = new NettyJsonConsole();
+    EmbeddedChannel channel = new EmbeddedChannel(new JsonCommandEncoder());
+    console.setChannel(channel);
+
+    CompletableFuture<Void> pause = console.pause();
+    long id = requestId(channel.readOutbound());
+
+    console.handleResponse(
+        json("{\"request-id\": " + id + ", \"response\": \"error\", \"message\": \"busy\"}"),
+        System.nanoTime());
+    assertTrue(pause.isDone());
+
+    try {
+      pause.get();
+      fail("Expected the command to fail");
+    } catch (ExecutionException e) {
+      assertTrue(e.getCause() instanceof CommandException);
+      assertEquals("Unable to execute command: busy", e.getCause().getMessage());
+    }
+  }
+
+  @Test
+  public void commandsAreEncodedAsEscapedJsonLines() {
+    NettyJsonConsole console = new NettyJsonConsole();
+    EmbeddedChannel channel = new EmbeddedChannel(new JsonCommandEncoder());
+    console.setChannel(channel);
+
+    console.applyCorrections(new BigInteger[] {BigInteger.ONE, BigInteger.TEN});
+    console.start(
+        new JobSpecification(
+            true, false, 0.1f, 1e-3f, 8, new LinkedHashSet<>(Arrays.asList("1L22-3", "2\"Q"))));
+
+    ByteBuf corrections = channel.readOutbound();
+    ByteBuf start = channel.readOutbound();
+
+    assertEquals(
+        "{\"request-id\":1,\"command\":\"apply-corrections\",\"results\":[1,10]}\n",
+        corrections.toString(CharsetUtil.UTF_8));
+    assertEquals(
+        "{\"request-id\":2,\"command\":\"start\",\"job\":{\"correct\":true,\"continuous\":false,"
+            + "\"max-phase-error\":0.1,\"max-momentum-error\":0.001,\"kick-samples\":8,"
+            + "\"cavities\":[\"1L22-3\",\"2\\\"Q\"]}}\n",
+        start.toString(CharsetUtil.UTF_8));
+
+    corrections.release();
+    start.release();
+  }
+
+  private static long requestId(ByteBuf command) {
+    try {
+      return json(command.toString(CharsetUtil.UTF_8)).getJsonNumber("request-id").longValue();
+    } finally {
+      command.release();
+    }
+  }
+
+  private static JsonObject json(String text) {
+    return Json.createReader(new StringReader(text)).readObject();
+  }
+}
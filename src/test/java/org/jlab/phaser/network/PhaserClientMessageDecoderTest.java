@@ -1,11 +1,18 @@
 package org.jlab.phaser.network;
 
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
 import java.io.StringReader;
-import java.util.Calendar;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
 import javax.json.Json;
 import javax.json.JsonObject;
 import org.jlab.phaser.NotificationListener;
-import org.jlab.phaser.model.JobSpecification;
+import org.jlab.phaser.model.CavityNotification;
+import org.jlab.phaser.model.JobNotification;
 import org.junit.Test;
 
 public class PhaserClientMessageDecoderTest {
@@ -20,22 +27,15 @@ public class PhaserClientMessageDecoderTest {
 
     PhaserClientMessageDecoder decoder = new PhaserClientMessageDecoder();
 
+    final List<CavityNotification> cavityNotifications = new ArrayList<>();
+
     decoder.addNotificationListener(
         new NotificationListener() {
           @Override
           public void statusNotification(String message, Boolean error) {}
 
           @Override
-          public void jobNotification(
-              JobSpecification job,
-              Long jobId,
-              Calendar jobStart,
-              Boolean paused,
-              Integer loop,
-              String cavity,
-              Calendar cavityStart,
-              Integer progress,
-              String label) {}
+          public void jobNotification(JobNotification notification) {}
 
           @Override
           public void pausedNotification(Boolean paused) {}
@@ -44,12 +44,28 @@ public class PhaserClientMessageDecoderTest {
           public void loopNotification(Integer loop) {}
 
           @Override
-          public void cavityNotification(Calendar start, String cavity) {}
+          public void cavityNotification(CavityNotification notification) {
+            cavityNotifications.add(notification);
+          }
 
           @Override
           public void progressNotification(Integer value, String label) {}
         });
 
     decoder.parseAndDispatchNotification(serverResponseJson);
+
+    assertEquals(1, cavityNotifications.size());
+    assertEquals("1L22-3", cavityNotifications.get(0).getCavity());
+    assertEquals(
+        LocalDateTime.of(2023, 9, 12, 10, 26, 21).atZone(ZoneId.systemDefault()).toInstant(),
+        cavityNotifications.get(0).getStart());
+  }
+
+  @Test
+  public void missingTimestampIsNull() {
+    JsonObject json = Json.createObjectBuilder().addNull("start").build();
+
+    assertNull(PhaserClientMessageDecoder.parseTimestamp(json, "start"));
+    assertNull(PhaserClientMessageDecoder.parseTimestamp(json, "cavity-start"));
   }
 }
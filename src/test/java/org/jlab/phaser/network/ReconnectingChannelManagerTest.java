@@ -0,0 +1,94 @@
+package org.jlab.phaser.network;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertTrue;
+
+import io.netty.bootstrap.Bootstrap;
+import io.netty.bootstrap.ServerBootstrap;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelFuture;
+import io.netty.channel.ChannelInitializer;
+import io.netty.channel.MultiThreadIoEventLoopGroup;
+import io.netty.channel.nio.NioIoHandler;
+import io.netty.channel.socket.nio.NioServerSocketChannel;
+import io.netty.channel.socket.nio.NioSocketChannel;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import org.junit.Test;
+
+public class ReconnectingChannelManagerTest {
+
+  @Test
+  public void reconnectsAfterServerClosesConnection() throws Exception {
+    MultiThreadIoEventLoopGroup serverGroup =
+        new MultiThreadIoEventLoopGroup(1, NioIoHandler.newFactory());
+    MultiThreadIoEventLoopGroup group =
+        new MultiThreadIoEventLoopGroup(1, NioIoHandler.newFactory());
+    final BlockingQueue<Channel> accepted = new LinkedBlockingQueue<>();
+    final BlockingQueue<String> events = new LinkedBlockingQueue<>();
+
+    try {
+      SocketAddress address =
+          new ServerBootstrap()
+              .group(serverGroup)
+              .channel(NioServerSocketChannel.class)
+              .childHandler(
+                  new ChannelInitializer<Channel>() {
+                    @Override
+                    protected void initChannel(Channel channel) {
+                      accepted.add(channel);
+                    }
+                  })
+              .bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0))
+              .sync()
+              .channel()
+              .localAddress();
+
+      Bootstrap boot =
+          new Bootstrap()
+              .group(group)
+              .channel(NioSocketChannel.class)
+              // The same decoder instance is added to the pipeline of every connection
+              .handler(new PhaserClientMessageDecoder());
+
+      ReconnectingChannelManager manager = new ReconnectingChannelManager(boot, address, 10, 100);
+
+      manager.addConnectionListener(
+          new ConnectionListener() {
+            @Override
+            public void connected(Channel channel) {
+              events.add("connected");
+            }
+
+            @Override
+            public void disconnected(long delayMillis, Throwable cause) {
+              events.add("disconnected " + delayMillis);
+            }
+          });
+
+      ChannelFuture first = manager.connect();
+      assertTrue(first.isSuccess());
+      assertEquals("connected", events.poll(5, TimeUnit.SECONDS));
+
+      // The server drops the connection
+      accepted.poll(5, TimeUnit.SECONDS).close();
+
+      assertEquals("disconnected 10", events.poll(5, TimeUnit.SECONDS));
+      assertEquals("connected", events.poll(5, TimeUnit.SECONDS));
+      assertNotSame(first.channel(), manager.getChannel());
+      assertTrue(manager.getChannel().isActive());
+
+      // Closing on purpose doesn't reconnect
+      manager.close().sync();
+      assertEquals(null, events.poll(200, TimeUnit.MILLISECONDS));
+    } finally {
+      group.shutdownGracefully().sync();
+      serverGroup.shutdownGracefully().sync();
+    }
+  }
+}